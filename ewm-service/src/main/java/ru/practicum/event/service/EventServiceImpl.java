@@ -1,17 +1,18 @@
 package ru.practicum.event.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestClientException;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
-import ru.practicum.client.StatsServiceClient;
+import ru.practicum.client.HitReporter;
+import ru.practicum.client.StatsCounterCoalescer;
+import ru.practicum.client.StatsResult;
 import ru.practicum.dto.EndpointHitDto;
-import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.dto.StatsCounterRequestDto;
 import ru.practicum.event.dto.EventFullDto;
 import ru.practicum.event.dto.EventShortDto;
 import ru.practicum.event.dto.NewEventDto;
@@ -40,21 +41,26 @@ import ru.practicum.user.repository.UserRepository;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class EventServiceImpl implements EventService {
 
+    private static final String EVENT_URI_PREFIX = "/events/";
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final LocationRepository locationRepository;
     private final ParticipationRequestRepository participationRequestRepository;
-    private final StatsServiceClient statsServiceClient;
-    private final ObjectMapper objectMapper;
+    private final StatsCounterCoalescer statsCounterCoalescer;
+    private final HitReporter hitReporter;
 
     @Override
     @Transactional
@@ -103,8 +109,9 @@ public class EventServiceImpl implements EventService {
             throw new NotFoundException("Событие c id = " + eventId + " еще не опубликовано");
         }
         addEndpointHit(httpServletRequest);
-        event.setViews(getStats(event));
-        return EventMapper.toEventFullDto(eventRepository.save(event));
+        EventFullDto eventFullDto = EventMapper.toEventFullDto(event);
+        eventFullDto.setViews(getViews(List.of(event)).getOrDefault(event.getId(), 1L));
+        return eventFullDto;
     }
 
     @Override
@@ -130,11 +137,12 @@ public class EventServiceImpl implements EventService {
         }
         List<Event> events = eventRepository.getEventsByPublic(text, categoryIds, paid, rangeStart, rangeEnd, onlyAvailable, sort, pageRequest);
         addEndpointHit(httpServletRequest);
-        for (Event event : events) {
-            event.setViews(getStats(event));
-            eventRepository.save(event);
+        Map<Long, Long> views = getViews(events);
+        List<EventShortDto> eventShortDtos = events.stream().map(EventMapper::toEventShortDto).collect(Collectors.toList());
+        for (EventShortDto eventShortDto : eventShortDtos) {
+            eventShortDto.setViews(views.getOrDefault(eventShortDto.getId(), 1L));
         }
-        return events.stream().map(EventMapper::toEventShortDto).collect(Collectors.toList());
+        return eventShortDtos;
     }
 
     @Override
@@ -248,19 +256,43 @@ public class EventServiceImpl implements EventService {
                 .ip(httpServletRequest.getRemoteAddr())
                 .timestamp(LocalDateTime.now())
                 .build();
-        statsServiceClient.addEndpointHit(endpointHitDto);
+        hitReporter.report(endpointHitDto);
     }
 
-    private Long getStats(Event event) {
-        if (event.getState().equals(EventState.PUBLISHED)) {
-            ResponseEntity<Object> response = statsServiceClient.getStats(event.getPublishedOn(), LocalDateTime.now(),
-                    List.of("/events/" + event.getId()), true);
-            List<ViewStatsDto> result = objectMapper.convertValue(response.getBody(), new TypeReference<>() {});
-            if (!result.isEmpty() && result.get(0).getHits() != null) {
-                return result.get(0).getHits();
+    private Map<Long, Long> getViews(List<Event> events) {
+        List<Event> publishedEvents = events.stream()
+                .filter(event -> event.getState().equals(EventState.PUBLISHED) && event.getPublishedOn() != null)
+                .collect(Collectors.toList());
+        if (publishedEvents.isEmpty()) {
+            return Map.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<StatsCounterRequestDto> counters = publishedEvents.stream()
+                .map(event -> StatsCounterRequestDto.builder()
+                        .uri(EVENT_URI_PREFIX + event.getId())
+                        .start(event.getPublishedOn())
+                        .end(now)
+                        .unique(true)
+                        .build())
+                .collect(Collectors.toList());
+        StatsResult<long[]> result;
+        try {
+            result = statsCounterCoalescer.getCounterHits(counters);
+        } catch (RestClientException e) {
+            log.warn("Не удалось получить просмотры {} событий, возвращаются значения по умолчанию: {}", publishedEvents.size(), e.getMessage());
+            return Map.of();
+        }
+        if (result.isStale()) {
+            log.warn("Сервер статистики недоступен, просмотры {} событий взяты из последнего успешного ответа", publishedEvents.size());
+        }
+        long[] hits = result.getValue();
+        Map<Long, Long> views = new HashMap<>();
+        for (int i = 0; i < hits.length && i < publishedEvents.size(); i++) {
+            if (hits[i] > 0) {
+                views.put(publishedEvents.get(i).getId(), hits[i]);
             }
         }
-        return 1L;
+        return views;
     }
 
     private Event checkEvent(Long eventId) {
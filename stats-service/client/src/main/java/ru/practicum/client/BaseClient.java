@@ -1,8 +1,12 @@
 package ru.practicum.client;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.List;
@@ -10,6 +14,8 @@ import java.util.Map;
 
 public class BaseClient {
 
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     protected final RestTemplate rest;
 
     public BaseClient(RestTemplate rest) {
@@ -24,6 +30,17 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, null, body);
     }
 
+    protected <T> T exchange(HttpMethod method, String path, @Nullable Map<String, Object> parameters, @Nullable Object body,
+                             JsonResponseReader<T> reader) {
+        ResponseExtractor<T> extractor = response -> {
+            try (JsonParser parser = JSON_FACTORY.createParser(response.getBody())) {
+                return reader.read(parser);
+            }
+        };
+        RequestCallback callback = rest.httpEntityCallback(new HttpEntity<>(body, defaultHeaders()));
+        return rest.execute(path, method, callback, extractor, parameters != null ? parameters : Map.of());
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
 
@@ -0,0 +1,135 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Component
+public class HitReporter implements SmartLifecycle {
+
+    private final StatsServiceClient statsServiceClient;
+    private final StatsClientProperties properties;
+    private final Queue<EndpointHitDto> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final Counter sent;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer sendLatency;
+    private volatile boolean running;
+    private Thread sender;
+
+    public HitReporter(StatsServiceClient statsServiceClient, StatsClientProperties properties, MeterRegistry meterRegistry) {
+        this.statsServiceClient = statsServiceClient;
+        this.properties = properties;
+        this.sent = meterRegistry.counter("stats.client.hits", "result", "sent");
+        this.dropped = meterRegistry.counter("stats.client.hits", "result", "dropped");
+        this.failed = meterRegistry.counter("stats.client.hits", "result", "failed");
+        this.sendLatency = meterRegistry.timer("stats.client.send.latency");
+        Gauge.builder("stats.client.queue.size", size, AtomicInteger::get).register(meterRegistry);
+    }
+
+    public void report(EndpointHitDto endpointHitDto) {
+        if (!running) {
+            statsServiceClient.addEndpointHit(endpointHitDto);
+            return;
+        }
+        int queued = size.incrementAndGet();
+        if (queued > properties.getQueueCapacity()) {
+            size.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(endpointHitDto);
+        if (queued == properties.getBatchSize()) {
+            LockSupport.unpark(sender);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (properties.getReporting() != ReportingMode.ASYNC) {
+            return;
+        }
+        running = true;
+        sender = new Thread(this::sendLoop, "stats-hit-reporter");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(sender);
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (sendBatch()) {
+            log.debug("Отправлен пакет просмотров при остановке");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void sendLoop() {
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            if (size.get() < properties.getBatchSize()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            while (running && sendBatch() && size.get() >= properties.getBatchSize()) {
+                log.debug("Очередь просмотров заполнена, отправка следующего пакета");
+            }
+        }
+    }
+
+    private boolean sendBatch() {
+        List<EndpointHitDto> batch = new ArrayList<>(properties.getBatchSize());
+        EndpointHitDto endpointHitDto;
+        while (batch.size() < properties.getBatchSize() && (endpointHitDto = queue.poll()) != null) {
+            batch.add(endpointHitDto);
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        size.addAndGet(-batch.size());
+        long startNanos = System.nanoTime();
+        try {
+            ResponseEntity<Object> response = statsServiceClient.addEndpointHits(batch);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sent.increment(batch.size());
+            } else {
+                failed.increment(batch.size());
+                log.warn("Сервер статистики отклонил {} просмотров: {}", batch.size(), response.getStatusCode());
+            }
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.warn("Не удалось отправить {} просмотров на сервер статистики: {}", batch.size(), e.getMessage());
+        } finally {
+            sendLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,181 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "stats-server.client", name = "mode", havingValue = "http", matchIfMissing = true)
+public class HttpStatsServiceClient extends BaseClient implements StatsServiceClient {
+    private static final String API_PREFIX_HIT = "/hit";
+    private static final String API_PREFIX_HITS = "/hits";
+    private static final String API_PREFIX_STATS = "/stats";
+    private static final String API_PREFIX_COUNTERS = "/stats/counters";
+
+    private final CircuitBreaker reportBreaker;
+    private final CircuitBreaker statsBreaker;
+    private final CircuitBreaker countersBreaker;
+    private final LastKnownHits lastKnownHits;
+
+    @Autowired
+    public HttpStatsServiceClient(@Value("${stats-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                  StatsClientProperties properties, MeterRegistry meterRegistry) {
+        super(
+                builder
+                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
+                        .requestFactory(() -> new OperationTimeoutRequestFactory(properties))
+                        .build()
+        );
+        this.reportBreaker = registerBreaker("report", properties, meterRegistry);
+        this.statsBreaker = registerBreaker("stats", properties, meterRegistry);
+        this.countersBreaker = registerBreaker("counters", properties, meterRegistry);
+        this.lastKnownHits = new LastKnownHits(properties.getLastKnownCapacity());
+    }
+
+    @Override
+    public ResponseEntity<Object> addEndpointHit(EndpointHitDto endpointHitDto) {
+        return report(API_PREFIX_HIT, endpointHitDto);
+    }
+
+    @Override
+    public ResponseEntity<Object> addEndpointHits(List<EndpointHitDto> endpointHitDtos) {
+        return report(API_PREFIX_HITS, endpointHitDtos);
+    }
+
+    @Override
+    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return get(API_PREFIX_STATS + "?start={start}&end={end}&uris={uris}&unique={unique}", statsParameters(start, end, uris, unique));
+    }
+
+    @Override
+    public List<ViewStatsDto> getViewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        if (!statsBreaker.tryAcquire()) {
+            throw new ResourceAccessException("Сервер статистики временно недоступен");
+        }
+        return guarded(statsBreaker, () -> exchange(HttpMethod.GET, API_PREFIX_STATS + "?start={start}&end={end}&uris={uris}&unique={unique}",
+                statsParameters(start, end, uris, unique), null, StatsResponseReader::readViewStats));
+    }
+
+    @Override
+    public StatsResult<Map<String, Long>> getUriHits(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        if (statsBreaker.tryAcquire()) {
+            try {
+                Map<String, Long> hits = guarded(statsBreaker, () -> exchange(HttpMethod.GET,
+                        API_PREFIX_STATS + "?start={start}&end={end}&uris={uris}&unique={unique}",
+                        statsParameters(start, end, uris, unique), null, StatsResponseReader::readUriHits));
+                for (String uri : uris) {
+                    lastKnownHits.put(uri, start, unique, hits.getOrDefault(uri, 0L));
+                }
+                return new StatsResult<>(hits, false);
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                log.debug("Просмотры взяты из локального кэша: {}", e.getMessage());
+            }
+        }
+        Map<String, Long> hits = new HashMap<>();
+        for (String uri : uris) {
+            hits.put(uri, lastKnownHits.get(uri, start, unique));
+        }
+        return new StatsResult<>(hits, true);
+    }
+
+    @Override
+    public ResponseEntity<Object> getCounters(List<StatsCounterRequestDto> counters) {
+        return post(API_PREFIX_COUNTERS, counters);
+    }
+
+    @Override
+    public StatsResult<long[]> getCounterHits(List<StatsCounterRequestDto> counters) {
+        if (countersBreaker.tryAcquire()) {
+            try {
+                long[] hits = guarded(countersBreaker, () -> exchange(HttpMethod.POST, API_PREFIX_COUNTERS, null, counters,
+                        parser -> StatsResponseReader.readCounterHits(parser, counters.size())));
+                for (int i = 0; i < hits.length; i++) {
+                    StatsCounterRequestDto counter = counters.get(i);
+                    lastKnownHits.put(counter.getUri(), counter.getStart(), counter.isUnique(), hits[i]);
+                }
+                return new StatsResult<>(hits, false);
+            } catch (HttpServerErrorException | ResourceAccessException e) {
+                log.debug("Просмотры взяты из локального кэша: {}", e.getMessage());
+            }
+        }
+        long[] hits = new long[counters.size()];
+        for (int i = 0; i < hits.length; i++) {
+            StatsCounterRequestDto counter = counters.get(i);
+            hits[i] = lastKnownHits.get(counter.getUri(), counter.getStart(), counter.isUnique());
+        }
+        return new StatsResult<>(hits, true);
+    }
+
+    private ResponseEntity<Object> report(String path, Object body) {
+        if (!reportBreaker.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        ResponseEntity<Object> response;
+        try {
+            response = post(path, body);
+        } catch (RuntimeException e) {
+            reportBreaker.onFailure();
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            reportBreaker.onFailure();
+        } else {
+            reportBreaker.onSuccess();
+        }
+        return response;
+    }
+
+    private <T> T guarded(CircuitBreaker breaker, Supplier<T> request) {
+        try {
+            T result = request.get();
+            breaker.onSuccess();
+            return result;
+        } catch (HttpClientErrorException e) {
+            breaker.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+    }
+
+    private CircuitBreaker registerBreaker(String operation, StatsClientProperties properties, MeterRegistry meterRegistry) {
+        CircuitBreaker breaker = new CircuitBreaker(operation, properties.getBreakerFailureThreshold(), properties.getBreakerOpenDuration());
+        Gauge.builder("stats.client.circuit.state", breaker, b -> b.getState().ordinal())
+                .tag("operation", operation)
+                .register(meterRegistry);
+        return breaker;
+    }
+
+    private Map<String, Object> statsParameters(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return Map.of(
+                "start", start.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                "end", end.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")),
+                "uris", String.join(",", uris),
+                "unique", unique
+        );
+    }
+}
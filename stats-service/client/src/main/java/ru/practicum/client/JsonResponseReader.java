@@ -0,0 +1,10 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface JsonResponseReader<T> {
+    T read(JsonParser parser) throws IOException;
+}
@@ -0,0 +1,31 @@
+package ru.practicum.client;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class LastKnownHits {
+
+    private final Map<String, Long> hits;
+
+    LastKnownHits(int capacity) {
+        this.hits = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    synchronized void put(String uri, LocalDateTime start, boolean unique, long value) {
+        hits.put(key(uri, start, unique), value);
+    }
+
+    synchronized long get(String uri, LocalDateTime start, boolean unique) {
+        return hits.getOrDefault(key(uri, start, unique), 0L);
+    }
+
+    private String key(String uri, LocalDateTime start, boolean unique) {
+        return uri + '|' + start + '|' + unique;
+    }
+}
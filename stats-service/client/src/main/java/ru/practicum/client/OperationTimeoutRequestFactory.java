@@ -0,0 +1,33 @@
+package ru.practicum.client;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+import java.time.Duration;
+
+class OperationTimeoutRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+    private final StatsClientProperties properties;
+
+    OperationTimeoutRequestFactory(StatsClientProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        Duration timeout = uri.getPath().endsWith("/hit") || uri.getPath().endsWith("/hits")
+                ? properties.getReportTimeout()
+                : properties.getReadTimeout();
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectTimeout((int) properties.getConnectTimeout().toMillis())
+                .setConnectionRequestTimeout((int) properties.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) timeout.toMillis())
+                .build());
+        return context;
+    }
+}
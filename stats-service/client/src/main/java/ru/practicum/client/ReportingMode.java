@@ -0,0 +1,6 @@
+package ru.practicum.client;
+
+public enum ReportingMode {
+    SYNC,
+    ASYNC
+}
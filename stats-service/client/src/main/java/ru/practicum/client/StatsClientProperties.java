@@ -0,0 +1,26 @@
+package ru.practicum.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "stats-server.client")
+public class StatsClientProperties {
+    private StatsClientMode mode = StatsClientMode.HTTP;
+    private ReportingMode reporting = ReportingMode.ASYNC;
+    private int queueCapacity = 10_000;
+    private int batchSize = 500;
+    private Duration flushInterval = Duration.ofSeconds(1);
+    private Duration connectTimeout = Duration.ofMillis(500);
+    private Duration readTimeout = Duration.ofSeconds(2);
+    private Duration reportTimeout = Duration.ofSeconds(1);
+    private int breakerFailureThreshold = 5;
+    private Duration breakerOpenDuration = Duration.ofSeconds(10);
+    private int lastKnownCapacity = 10_000;
+    private Duration coalescingWindow = Duration.ofMillis(5);
+    private int coalescingMaxBatch = 500;
+}
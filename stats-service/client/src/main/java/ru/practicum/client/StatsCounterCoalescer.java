@@ -0,0 +1,170 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.dto.StatsCounterRequestDto;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Component
+public class StatsCounterCoalescer {
+
+    private static final int FLUSH_THREADS = 2;
+
+    private final StatsServiceClient statsServiceClient;
+    private final StatsClientProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final Map<CounterKey, CompletableFuture<StatsResult<Long>>> inFlight = new ConcurrentHashMap<>();
+    private final Object pendingLock = new Object();
+    private final Counter joined;
+    private final Counter batched;
+    private final Counter calls;
+    private List<CounterKey> pending = new ArrayList<>();
+
+    public StatsCounterCoalescer(StatsServiceClient statsServiceClient, StatsClientProperties properties, MeterRegistry meterRegistry) {
+        this.statsServiceClient = statsServiceClient;
+        this.properties = properties;
+        this.scheduler = Executors.newScheduledThreadPool(FLUSH_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "stats-counter-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.joined = meterRegistry.counter("stats.client.counters", "result", "joined");
+        this.batched = meterRegistry.counter("stats.client.counters", "result", "batched");
+        this.calls = meterRegistry.counter("stats.client.counter.calls");
+    }
+
+    public StatsResult<long[]> getCounterHits(List<StatsCounterRequestDto> counters) {
+        if (properties.getCoalescingWindow().isZero()) {
+            calls.increment();
+            return statsServiceClient.getCounterHits(counters);
+        }
+        List<CompletableFuture<StatsResult<Long>>> futures = new ArrayList<>(counters.size());
+        for (StatsCounterRequestDto counter : counters) {
+            futures.add(submit(new CounterKey(counter.getUri(), counter.getStart(), counter.isUnique())));
+        }
+        Duration timeout = properties.getCoalescingWindow().plus(properties.getConnectTimeout()).plus(properties.getReadTimeout());
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long[] hits = new long[counters.size()];
+        boolean stale = false;
+        for (int i = 0; i < hits.length; i++) {
+            StatsResult<Long> result;
+            try {
+                result = futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new CompletionException(e.getCause());
+            } catch (TimeoutException e) {
+                throw new ResourceAccessException("Сервер статистики не ответил на запрос счетчиков за " + timeout);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("Прервано ожидание счетчиков просмотров");
+            }
+            hits[i] = result.getValue();
+            stale |= result.isStale();
+        }
+        return new StatsResult<>(hits, stale);
+    }
+
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+        synchronized (pendingLock) {
+            pending = new ArrayList<>();
+        }
+        ResourceAccessException closed = new ResourceAccessException("Клиент статистики остановлен");
+        for (CounterKey key : inFlight.keySet()) {
+            fail(key, closed);
+        }
+    }
+
+    private CompletableFuture<StatsResult<Long>> submit(CounterKey key) {
+        CompletableFuture<StatsResult<Long>> created = new CompletableFuture<>();
+        CompletableFuture<StatsResult<Long>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            joined.increment();
+            return existing;
+        }
+        batched.increment();
+        synchronized (pendingLock) {
+            pending.add(key);
+            try {
+                if (pending.size() == 1) {
+                    scheduler.schedule(this::flush, properties.getCoalescingWindow().toNanos(), TimeUnit.NANOSECONDS);
+                } else if (pending.size() >= properties.getCoalescingMaxBatch()) {
+                    scheduler.execute(this::flush);
+                }
+            } catch (RejectedExecutionException e) {
+                pending.remove(key);
+                fail(key, new ResourceAccessException("Клиент статистики остановлен"));
+            }
+        }
+        return created;
+    }
+
+    private void flush() {
+        List<CounterKey> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<StatsCounterRequestDto> counters = new ArrayList<>(batch.size());
+        for (CounterKey key : batch) {
+            counters.add(new StatsCounterRequestDto(key.getUri(), key.getStart(),
+                    key.getStart().isAfter(now) ? key.getStart() : now, key.isUnique()));
+        }
+        calls.increment();
+        StatsResult<long[]> result;
+        try {
+            result = statsServiceClient.getCounterHits(counters);
+        } catch (RuntimeException | Error e) {
+            for (CounterKey key : batch) {
+                fail(key, e);
+            }
+            throw e;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<StatsResult<Long>> future = inFlight.remove(batch.get(i));
+            if (future != null) {
+                future.complete(new StatsResult<>(result.getValue()[i], result.isStale()));
+            }
+        }
+    }
+
+    private void fail(CounterKey key, Throwable cause) {
+        CompletableFuture<StatsResult<Long>> future = inFlight.remove(key);
+        if (future != null) {
+            future.completeExceptionally(cause);
+        }
+    }
+
+    @Value
+    private static class CounterKey {
+        String uri;
+        LocalDateTime start;
+        boolean unique;
+    }
+}
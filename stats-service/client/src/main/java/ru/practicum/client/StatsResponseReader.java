@@ -0,0 +1,69 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.experimental.UtilityClass;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@UtilityClass
+class StatsResponseReader {
+
+    interface StatsVisitor {
+        void visit(String app, String uri, long hits);
+    }
+
+    List<ViewStatsDto> readViewStats(JsonParser parser) throws IOException {
+        List<ViewStatsDto> stats = new ArrayList<>();
+        forEachStats(parser, (app, uri, hits) -> stats.add(new ViewStatsDto(app, uri, hits)));
+        return stats;
+    }
+
+    Map<String, Long> readUriHits(JsonParser parser) throws IOException {
+        Map<String, Long> hitsByUri = new HashMap<>();
+        forEachStats(parser, (app, uri, hits) -> hitsByUri.merge(uri, hits, Long::sum));
+        return hitsByUri;
+    }
+
+    long[] readCounterHits(JsonParser parser, int expected) throws IOException {
+        long[] hits = new long[expected];
+        int[] index = {0};
+        forEachStats(parser, (app, uri, value) -> {
+            if (index[0] < hits.length) {
+                hits[index[0]++] = value;
+            }
+        });
+        return hits;
+    }
+
+    private void forEachStats(JsonParser parser, StatsVisitor visitor) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "Ожидался массив статистики");
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String app = null;
+            String uri = null;
+            long hits = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("app".equals(field)) {
+                    app = parser.getText();
+                } else if ("uri".equals(field)) {
+                    uri = parser.getText();
+                } else if ("hits".equals(field)) {
+                    hits = value == JsonToken.VALUE_NULL ? 0 : parser.getLongValue();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            visitor.visit(app, uri, hits);
+        }
+    }
+}
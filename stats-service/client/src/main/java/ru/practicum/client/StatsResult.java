@@ -0,0 +1,9 @@
+package ru.practicum.client;
+
+import lombok.Value;
+
+@Value
+public class StatsResult<T> {
+    T value;
+    boolean stale;
+}
@@ -0,0 +1,141 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HitReporterTest {
+
+    private final StatsServiceClient statsServiceClient = mock(StatsServiceClient.class);
+    private final StatsClientProperties properties = new StatsClientProperties();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+    private HitReporter hitReporter;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(3);
+        properties.setQueueCapacity(5);
+        properties.setFlushInterval(Duration.ofSeconds(30));
+        when(statsServiceClient.addEndpointHits(anyList())).thenAnswer(invocation -> {
+            List<EndpointHitDto> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(EndpointHitDto::getUri).collect(Collectors.toList()));
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hitReporter != null) {
+            hitReporter.stop();
+        }
+    }
+
+    @Test
+    void syncModeSendsEveryHitImmediately() {
+        properties.setReporting(ReportingMode.SYNC);
+        start();
+        EndpointHitDto endpointHitDto = hit(1);
+
+        hitReporter.report(endpointHitDto);
+
+        verify(statsServiceClient).addEndpointHit(endpointHitDto);
+        verify(statsServiceClient, never()).addEndpointHits(anyList());
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForFlushInterval() throws InterruptedException {
+        start();
+
+        for (int i = 1; i <= 3; i++) {
+            hitReporter.report(hit(i));
+        }
+
+        assertThat(batches.poll(5, TimeUnit.SECONDS)).containsExactly("/events/1", "/events/2", "/events/3");
+        hitReporter.stop();
+        assertThat(counter("sent")).isEqualTo(3);
+    }
+
+    @Test
+    void partialBatchIsSentAfterFlushInterval() throws InterruptedException {
+        properties.setFlushInterval(Duration.ofMillis(50));
+        start();
+
+        hitReporter.report(hit(1));
+
+        assertThat(batches.poll(5, TimeUnit.SECONDS)).containsExactly("/events/1");
+    }
+
+    @Test
+    void hitsBeyondQueueCapacityAreDropped() {
+        properties.setBatchSize(100);
+        start();
+
+        for (int i = 1; i <= 7; i++) {
+            hitReporter.report(hit(i));
+        }
+
+        assertThat(counter("dropped")).isEqualTo(2);
+    }
+
+    @Test
+    void stopSendsQueuedHits() {
+        start();
+        hitReporter.report(hit(1));
+        hitReporter.report(hit(2));
+
+        hitReporter.stop();
+
+        assertThat(batches).containsExactly(List.of("/events/1", "/events/2"));
+        assertThat(hitReporter.isRunning()).isFalse();
+    }
+
+    @Test
+    void rejectedAndFailedBatchesAreCounted() {
+        when(statsServiceClient.addEndpointHits(anyList()))
+                .thenReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .thenThrow(new ResourceAccessException("нет соединения"));
+        properties.setBatchSize(1);
+        start();
+        hitReporter.report(hit(1));
+        hitReporter.report(hit(2));
+
+        hitReporter.stop();
+
+        assertThat(counter("failed")).isEqualTo(2);
+        assertThat(counter("sent")).isZero();
+    }
+
+    private void start() {
+        hitReporter = new HitReporter(statsServiceClient, properties, meterRegistry);
+        hitReporter.start();
+    }
+
+    private double counter(String result) {
+        return meterRegistry.counter("stats.client.hits", "result", result).count();
+    }
+
+    private EndpointHitDto hit(int number) {
+        return EndpointHitDto.builder().app("ewm").uri("/events/" + number).ip("10.0.0.1").build();
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.dto.StatsCounterRequestDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StatsCounterCoalescerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private final StatsServiceClient statsServiceClient = mock(StatsServiceClient.class);
+    private final StatsClientProperties properties = new StatsClientProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private StatsCounterCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        coalescer.close();
+    }
+
+    @Test
+    void sameCounterInOneRequestIsFetchedOnce() {
+        when(statsServiceClient.getCounterHits(anyList())).thenReturn(new StatsResult<>(new long[]{7}, true));
+        coalescer = coalescer();
+
+        StatsResult<long[]> result = coalescer.getCounterHits(List.of(counter("/events/1"), counter("/events/1")));
+
+        assertThat(result.getValue()).containsExactly(7, 7);
+        assertThat(result.isStale()).isTrue();
+        verify(statsServiceClient, times(1)).getCounterHits(anyList());
+        assertThat(meterRegistry.counter("stats.client.counters", "result", "joined").count()).isEqualTo(1);
+    }
+
+    @Test
+    void waitIsBoundedByClientTimeouts() {
+        properties.setConnectTimeout(Duration.ofMillis(20));
+        properties.setReadTimeout(Duration.ofMillis(100));
+        when(statsServiceClient.getCounterHits(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return new StatsResult<>(new long[]{1}, false);
+        });
+        coalescer = coalescer();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> coalescer.getCounterHits(List.of(counter("/events/1"))))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void clientFailureReachesEveryWaiter() {
+        when(statsServiceClient.getCounterHits(anyList())).thenThrow(new ResourceAccessException("нет соединения"));
+        coalescer = coalescer();
+
+        assertThatThrownBy(() -> coalescer.getCounterHits(List.of(counter("/events/1"), counter("/events/2"))))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasMessage("нет соединения");
+    }
+
+    @Test
+    void closeFailsCountersStillWaitingForFlush() throws InterruptedException {
+        properties.setCoalescingWindow(Duration.ofMinutes(1));
+        properties.setReadTimeout(Duration.ofMinutes(1));
+        coalescer = coalescer();
+        CompletableFuture<StatsResult<long[]>> waiting =
+                CompletableFuture.supplyAsync(() -> coalescer.getCounterHits(List.of(counter("/events/1"))));
+        while (meterRegistry.counter("stats.client.counters", "result", "batched").count() == 0) {
+            Thread.sleep(5);
+        }
+
+        coalescer.close();
+
+        assertThatThrownBy(() -> waiting.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceAccessException.class);
+        verifyNoInteractions(statsServiceClient);
+    }
+
+    @Test
+    void requestAfterCloseFailsImmediately() {
+        coalescer = coalescer();
+        coalescer.close();
+
+        assertThatThrownBy(() -> coalescer.getCounterHits(List.of(counter("/events/1"))))
+                .isInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void zeroWindowCallsClientDirectly() {
+        properties.setCoalescingWindow(Duration.ZERO);
+        when(statsServiceClient.getCounterHits(anyList())).thenReturn(new StatsResult<>(new long[]{3, 4}, false));
+        coalescer = coalescer();
+
+        StatsResult<long[]> result = coalescer.getCounterHits(List.of(counter("/events/1"), counter("/events/1")));
+
+        assertThat(result.getValue()).containsExactly(3, 4);
+        assertThat(meterRegistry.counter("stats.client.counter.calls").count()).isEqualTo(1);
+    }
+
+    private StatsCounterCoalescer coalescer() {
+        return new StatsCounterCoalescer(statsServiceClient, properties, meterRegistry);
+    }
+
+    private StatsCounterRequestDto counter(String uri) {
+        return new StatsCounterRequestDto(uri, START, START.plusDays(1), false);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatsResponseReaderTest {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Test
+    void readViewStatsKeepsOrderAndSkipsUnknownFields() throws IOException {
+        String json = "[{\"app\":\"ewm\",\"uri\":\"/events/1\",\"hits\":5,\"extra\":{\"nested\":[1,2]}},"
+                + "{\"hits\":3,\"uri\":\"/events/2\",\"app\":\"ewm\"}]";
+
+        assertThat(StatsResponseReader.readViewStats(parser(json))).containsExactly(
+                new ViewStatsDto("ewm", "/events/1", 5L),
+                new ViewStatsDto("ewm", "/events/2", 3L));
+    }
+
+    @Test
+    void readUriHitsSumsAcrossApps() throws IOException {
+        String json = "[{\"app\":\"ewm\",\"uri\":\"/events/1\",\"hits\":5},"
+                + "{\"app\":\"admin\",\"uri\":\"/events/1\",\"hits\":2},"
+                + "{\"app\":\"ewm\",\"uri\":\"/events/2\",\"hits\":null}]";
+
+        assertThat(StatsResponseReader.readUriHits(parser(json)))
+                .containsEntry("/events/1", 7L)
+                .containsEntry("/events/2", 0L)
+                .hasSize(2);
+    }
+
+    @Test
+    void readCounterHitsFillsByPositionAndIgnoresExtraElements() throws IOException {
+        String json = "[{\"uri\":\"/events/1\",\"hits\":4},{\"uri\":\"/events/2\",\"hits\":9},{\"uri\":\"/events/3\",\"hits\":1}]";
+
+        assertThat(StatsResponseReader.readCounterHits(parser(json), 2)).containsExactly(4, 9);
+        assertThat(StatsResponseReader.readCounterHits(parser("[]"), 2)).containsExactly(0, 0);
+    }
+
+    @Test
+    void nonArrayResponseIsRejected() {
+        assertThatThrownBy(() -> StatsResponseReader.readViewStats(parser("{\"error\":\"bad\"}")))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    void truncatedResponseFails() {
+        assertThatThrownBy(() -> StatsResponseReader.readViewStats(parser("[{\"app\":\"ewm\",\"uri\":\"/events/1\",\"hi")))
+                .isInstanceOf(IOException.class);
+    }
+
+    private JsonParser parser(String json) throws IOException {
+        return JSON_FACTORY.createParser(json);
+    }
+}
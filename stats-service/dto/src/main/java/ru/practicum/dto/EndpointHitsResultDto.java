@@ -0,0 +1,22 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EndpointHitsResultDto {
+    @NotNull
+    @PositiveOrZero
+    private Long accepted;
+    @NotNull
+    @PositiveOrZero
+    private Long rejected;
+}
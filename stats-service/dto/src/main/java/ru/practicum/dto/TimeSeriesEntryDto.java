@@ -0,0 +1,17 @@
+package ru.practicum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TimeSeriesEntryDto {
+    private String app;
+    private String uri;
+    private Long total;
+    private long[] hits;
+}
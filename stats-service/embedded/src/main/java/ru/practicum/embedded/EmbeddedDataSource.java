@@ -0,0 +1,6 @@
+package ru.practicum.embedded;
+
+public enum EmbeddedDataSource {
+    SHARED,
+    SEPARATE
+}
@@ -0,0 +1,25 @@
+package ru.practicum.embedded;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.client.StatsServiceClient;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(EmbeddedStatsProperties.class)
+@ConditionalOnProperty(prefix = "stats-server.client", name = "mode", havingValue = "embedded")
+public class EmbeddedStatsConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public EmbeddedStatsServer embeddedStatsServer(EmbeddedStatsProperties properties, DataSource dataSource) {
+        return new EmbeddedStatsServer(properties, dataSource);
+    }
+
+    @Bean
+    public StatsServiceClient statsServiceClient(EmbeddedStatsServer embeddedStatsServer) {
+        return new EmbeddedStatsServiceClient(embeddedStatsServer.getStatsService());
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.embedded;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+public class EmbeddedStatsInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        context.getBeanFactory().registerSingleton(StatsServerExcludeFilter.class.getName(), new StatsServerExcludeFilter());
+    }
+}
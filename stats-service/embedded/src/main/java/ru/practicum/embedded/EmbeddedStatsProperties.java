@@ -0,0 +1,13 @@
+package ru.practicum.embedded;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.embedded")
+public class EmbeddedStatsProperties {
+    private EmbeddedDataSource datasource = EmbeddedDataSource.SHARED;
+    private String url;
+    private String username;
+    private String password;
+}
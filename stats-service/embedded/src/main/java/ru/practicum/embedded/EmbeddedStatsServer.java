@@ -0,0 +1,55 @@
+package ru.practicum.embedded;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import ru.practicum.server.StatsServerApplication;
+import ru.practicum.server.service.StatsService;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class EmbeddedStatsServer implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    public EmbeddedStatsServer(EmbeddedStatsProperties properties, DataSource sharedDataSource) {
+        Map<String, Object> overrides = new HashMap<>();
+        overrides.put("spring.config.name", StatsServerApplication.CONFIG_NAME);
+        if (properties.getDatasource() == EmbeddedDataSource.SEPARATE) {
+            overrides.put("spring.datasource.url", properties.getUrl());
+            overrides.put("spring.datasource.username", properties.getUsername());
+            overrides.put("spring.datasource.password", properties.getPassword());
+        }
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("embeddedStatsServer", overrides));
+
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(StatsServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .registerShutdownHook(false)
+                .environment(environment);
+        builder.application().setInitializers(builder.application().getInitializers().stream()
+                .filter(initializer -> !(initializer instanceof EmbeddedStatsInitializer))
+                .collect(Collectors.toList()));
+        if (properties.getDatasource() == EmbeddedDataSource.SHARED) {
+            builder.initializers(context -> context.getBeanFactory().registerSingleton("dataSource", sharedDataSource));
+        }
+        this.context = builder.run();
+    }
+
+    public StatsService getStatsService() {
+        return context.getBean(StatsService.class);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.embedded;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import ru.practicum.client.StatsResult;
+import ru.practicum.client.StatsServiceClient;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@RequiredArgsConstructor
+public class EmbeddedStatsServiceClient implements StatsServiceClient {
+
+    private final StatsService statsService;
+
+    @Override
+    public ResponseEntity<Object> addEndpointHit(EndpointHitDto endpointHitDto) {
+        return respond(HttpStatus.CREATED, () -> statsService.addEndpointHit(endpointHitDto));
+    }
+
+    @Override
+    public ResponseEntity<Object> addEndpointHits(List<EndpointHitDto> endpointHitDtos) {
+        return respond(HttpStatus.CREATED, () -> statsService.addEndpointHits(endpointHitDtos));
+    }
+
+    @Override
+    public ResponseEntity<Object> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return respond(HttpStatus.OK, () -> statsService.getStats(start, end, uris, unique));
+    }
+
+    @Override
+    public List<ViewStatsDto> getViewStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return call(() -> statsService.getStats(start, end, uris, unique));
+    }
+
+    @Override
+    public StatsResult<Map<String, Long>> getUriHits(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        Map<String, Long> hits = new HashMap<>();
+        for (ViewStatsDto viewStatsDto : getViewStats(start, end, uris, unique)) {
+            hits.merge(viewStatsDto.getUri(), viewStatsDto.getHits(), Long::sum);
+        }
+        return new StatsResult<>(hits, false);
+    }
+
+    @Override
+    public ResponseEntity<Object> getCounters(List<StatsCounterRequestDto> counters) {
+        return respond(HttpStatus.OK, () -> statsService.getCounters(counters));
+    }
+
+    @Override
+    public StatsResult<long[]> getCounterHits(List<StatsCounterRequestDto> counters) {
+        List<StatsCounterDto> counterDtos = call(() -> statsService.getCounters(counters));
+        long[] hits = new long[counters.size()];
+        for (int i = 0; i < hits.length && i < counterDtos.size(); i++) {
+            hits[i] = counterDtos.get(i).getHits();
+        }
+        return new StatsResult<>(hits, false);
+    }
+
+    private ResponseEntity<Object> respond(HttpStatus status, Supplier<Object> request) {
+        try {
+            return ResponseEntity.status(status).body(call(request));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getStatusText());
+        }
+    }
+
+    private <T> T call(Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+            HttpStatus status = responseStatus != null ? responseStatus.code() : HttpStatus.INTERNAL_SERVER_ERROR;
+            if (status.is4xxClientError()) {
+                throw new HttpClientErrorException(status, String.valueOf(e.getMessage()));
+            }
+            throw new HttpServerErrorException(status, String.valueOf(e.getMessage()));
+        }
+    }
+}
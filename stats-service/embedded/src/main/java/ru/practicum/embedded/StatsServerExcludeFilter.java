@@ -0,0 +1,26 @@
+package ru.practicum.embedded;
+
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import ru.practicum.server.StatsServerApplication;
+
+public class StatsServerExcludeFilter extends TypeExcludeFilter {
+
+    private static final String SERVER_PACKAGE = StatsServerApplication.class.getPackageName() + ".";
+
+    @Override
+    public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+        return metadataReader.getClassMetadata().getClassName().startsWith(SERVER_PACKAGE);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && getClass() == obj.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
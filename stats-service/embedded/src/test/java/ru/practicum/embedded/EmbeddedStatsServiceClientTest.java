@@ -0,0 +1,95 @@
+package ru.practicum.embedded;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.practicum.client.StatsResult;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmbeddedStatsServiceClientTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    private final StatsService statsService = mock(StatsService.class);
+    private final EmbeddedStatsServiceClient client = new EmbeddedStatsServiceClient(statsService);
+
+    @Test
+    void successfulHitIsCreated() {
+        EndpointHitDto endpointHitDto = EndpointHitDto.builder().app("ewm").uri("/events/1").ip("10.0.0.1").build();
+        when(statsService.addEndpointHit(endpointHitDto)).thenReturn(endpointHitDto);
+
+        ResponseEntity<Object> response = client.addEndpointHit(endpointHitDto);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isSameAs(endpointHitDto);
+    }
+
+    @Test
+    void annotatedExceptionsKeepTheirStatusInResponses() {
+        when(statsService.getStats(START, END, null, false)).thenThrow(new ValidationException("Начало после конца"));
+        when(statsService.addEndpointHits(anyList())).thenThrow(new IngestionRejectedException("Очередь переполнена"));
+
+        ResponseEntity<Object> stats = client.getStats(START, END, null, false);
+        ResponseEntity<Object> hits = client.addEndpointHits(List.of());
+
+        assertThat(stats.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(hits.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void typedCallsThrowClientErrorsForValidationFailures() {
+        when(statsService.getStats(START, END, null, false)).thenThrow(new ValidationException("Начало после конца"));
+
+        assertThatThrownBy(() -> client.getViewStats(START, END, null, false))
+                .isInstanceOfSatisfying(HttpClientErrorException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void unexpectedFailuresBecomeServerErrors() {
+        List<StatsCounterRequestDto> counters = List.of(new StatsCounterRequestDto("/events/1", START, END, true));
+        when(statsService.getCounters(counters)).thenThrow(new IllegalStateException("сбой"));
+
+        assertThatThrownBy(() -> client.getCounterHits(counters))
+                .isInstanceOfSatisfying(HttpServerErrorException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(client.getCounters(counters).getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void typedResultsAreNeverStale() {
+        List<StatsCounterRequestDto> counters = List.of(
+                new StatsCounterRequestDto("/events/1", START, END, true),
+                new StatsCounterRequestDto("/events/2", START, END, true));
+        when(statsService.getCounters(counters)).thenReturn(List.of(new StatsCounterDto("/events/1", 4L), new StatsCounterDto("/events/2", 0L)));
+        when(statsService.getStats(START, END, List.of("/events/1"), true)).thenReturn(List.of(
+                new ViewStatsDto("ewm", "/events/1", 2L), new ViewStatsDto("admin", "/events/1", 1L)));
+
+        StatsResult<long[]> counterHits = client.getCounterHits(counters);
+        StatsResult<Map<String, Long>> uriHits = client.getUriHits(START, END, List.of("/events/1"), true);
+
+        assertThat(counterHits.getValue()).containsExactly(4, 0);
+        assertThat(counterHits.isStale()).isFalse();
+        assertThat(uriHits.getValue()).containsExactly(Map.entry("/events/1", 3L));
+        assertThat(uriHits.isStale()).isFalse();
+    }
+}
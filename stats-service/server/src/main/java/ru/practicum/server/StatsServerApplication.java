@@ -1,11 +1,19 @@
 package ru.practicum.server;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
+@EnableScheduling
 public class StatsServerApplication {
+    public static final String CONFIG_NAME = "stats-server";
+
     public static void main(String[] args) {
-        SpringApplication.run(StatsServerApplication.class, args);
+        new SpringApplicationBuilder(StatsServerApplication.class)
+                .properties("spring.config.name=" + CONFIG_NAME)
+                .run(args);
     }
 }
@@ -0,0 +1,308 @@
+package ru.practicum.server.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.uri.UriPattern;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Component
+public class StatsCache {
+
+    private static final double EVICTION_FACTOR = 0.9;
+
+    private final StatsCacheProperties properties;
+    private final Map<StatsCacheKey, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<StatsCacheKey>> keysByUri = new ConcurrentHashMap<>();
+    private final Set<StatsCacheKey> keysForAllUris = ConcurrentHashMap.newKeySet();
+    private final Set<StatsCacheKey> keysWithPatterns = ConcurrentHashMap.newKeySet();
+    private final Map<String, Pattern> compiledPatterns = new ConcurrentHashMap<>();
+    private final Set<PendingLoad> pendingLoads = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+    private final Counter invalidations;
+
+    public StatsCache(StatsCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.hits = meterRegistry.counter("stats.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("stats.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("stats.cache.evictions", "cause", "size");
+        this.expiredEvictions = meterRegistry.counter("stats.cache.evictions", "cause", "expired");
+        this.invalidations = meterRegistry.counter("stats.cache.evictions", "cause", "invalidated");
+        Gauge.builder("stats.cache.size", this, StatsCache::size).register(meterRegistry);
+        Gauge.builder("stats.cache.hit.ratio", this, StatsCache::hitRatio).register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean accepts(LocalDateTime start, LocalDateTime end) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        if (properties.getKeyBucket().isZero()) {
+            return true;
+        }
+        return isAligned(start) && (isAligned(end) || isAligned(end.plusSeconds(1)));
+    }
+
+    public StatsCacheKey key(LocalDateTime start, LocalDateTime end, List<String> requestedUris, List<String> uris,
+                             boolean unique) {
+        List<String> patterns = requestedUris == null ? List.of() : requestedUris.stream()
+                .filter(UriPattern::isPattern)
+                .sorted()
+                .distinct()
+                .collect(Collectors.toList());
+        return new StatsCacheKey(start, end, uris == null ? null : List.copyOf(new TreeSet<>(uris)), patterns, unique);
+    }
+
+    public StatsCacheKey alignedKey(LocalDateTime start, LocalDateTime end, List<String> requestedUris, List<String> uris,
+                                    boolean unique) {
+        long bucket = bucketSeconds();
+        long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+        long alignedStart = Math.floorDiv(startSecond, bucket) * bucket;
+        if (alignedStart < startSecond || start.getNano() > 0) {
+            alignedStart += bucket;
+        }
+        long alignedEnd = Math.floorDiv(end.toEpochSecond(ZoneOffset.UTC), bucket) * bucket;
+        if (alignedStart >= alignedEnd) {
+            return null;
+        }
+        return key(LocalDateTime.ofEpochSecond(alignedStart, 0, ZoneOffset.UTC),
+                LocalDateTime.ofEpochSecond(alignedEnd, 0, ZoneOffset.UTC), requestedUris, uris, unique);
+    }
+
+    public List<ViewStatsDto> get(StatsCacheKey key, Supplier<List<ViewStatsDto>> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (now - entry.createdAt < properties.getTtl().toNanos()) {
+                entry.lastAccess = now;
+                hits.increment();
+                return entry.stats;
+            }
+            if (remove(key, entry)) {
+                expiredEvictions.increment();
+            }
+        }
+        misses.increment();
+        PendingLoad pendingLoad = new PendingLoad(key);
+        pendingLoads.add(pendingLoad);
+        try {
+            List<ViewStatsDto> stats = List.copyOf(loader.get());
+            put(pendingLoad, new Entry(stats, now));
+            return stats;
+        } finally {
+            pendingLoads.remove(pendingLoad);
+        }
+    }
+
+    public void invalidate(List<EndpointHit> endpointHits) {
+        Map<String, List<LocalDateTime>> timestampsByUri = new HashMap<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            timestampsByUri.computeIfAbsent(endpointHit.getUri(), uri -> new ArrayList<>()).add(endpointHit.getTimestamp());
+        }
+        for (PendingLoad pendingLoad : pendingLoads) {
+            if (isAffected(pendingLoad.key, timestampsByUri)) {
+                pendingLoad.stale = true;
+            }
+        }
+        Set<StatsCacheKey> affected = new HashSet<>();
+        for (StatsCacheKey key : keysForAllUris) {
+            if (isAffected(key, timestampsByUri)) {
+                affected.add(key);
+            }
+        }
+        for (StatsCacheKey key : keysWithPatterns) {
+            if (isAffected(key, timestampsByUri)) {
+                affected.add(key);
+            }
+        }
+        for (String uri : timestampsByUri.keySet()) {
+            for (StatsCacheKey key : keysByUri.getOrDefault(uri, Set.of())) {
+                if (isAffected(key, timestampsByUri)) {
+                    affected.add(key);
+                }
+            }
+        }
+        for (StatsCacheKey key : affected) {
+            if (remove(key, null)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    private void put(PendingLoad pendingLoad, Entry entry) {
+        if (pendingLoad.stale) {
+            return;
+        }
+        StatsCacheKey key = pendingLoad.key;
+        entries.compute(key, (k, previous) -> {
+            if (previous == null) {
+                index(k);
+            }
+            return entry;
+        });
+        if (pendingLoad.stale) {
+            remove(key, entry);
+            return;
+        }
+        if (entries.size() > properties.getMaximumSize()) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = entries.size() - (int) (properties.getMaximumSize() * EVICTION_FACTOR);
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<StatsCacheKey, Long>> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(Map.entry(key, entry.lastAccess)));
+            candidates.sort(Map.Entry.comparingByValue());
+            for (int i = 0; i < excess && i < candidates.size(); i++) {
+                if (remove(candidates.get(i).getKey(), null)) {
+                    sizeEvictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private boolean remove(StatsCacheKey key, Entry expected) {
+        AtomicBoolean removed = new AtomicBoolean();
+        entries.computeIfPresent(key, (k, entry) -> {
+            if (expected != null && entry != expected) {
+                return entry;
+            }
+            unindex(k);
+            removed.set(true);
+            return null;
+        });
+        return removed.get();
+    }
+
+    private void index(StatsCacheKey key) {
+        if (!key.getPatterns().isEmpty()) {
+            keysWithPatterns.add(key);
+        }
+        if (key.getUris() == null) {
+            keysForAllUris.add(key);
+            return;
+        }
+        for (String uri : key.getUris()) {
+            keysByUri.compute(uri, (u, keys) -> {
+                Set<StatsCacheKey> indexed = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                indexed.add(key);
+                return indexed;
+            });
+        }
+    }
+
+    private void unindex(StatsCacheKey key) {
+        keysWithPatterns.remove(key);
+        if (key.getUris() == null) {
+            keysForAllUris.remove(key);
+            return;
+        }
+        for (String uri : key.getUris()) {
+            keysByUri.computeIfPresent(uri, (u, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private boolean isAffected(StatsCacheKey key, Map<String, List<LocalDateTime>> timestampsByUri) {
+        for (Map.Entry<String, List<LocalDateTime>> entry : timestampsByUri.entrySet()) {
+            if (!matches(key, entry.getKey())) {
+                continue;
+            }
+            for (LocalDateTime timestamp : entry.getValue()) {
+                if (key.contains(timestamp)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(StatsCacheKey key, String uri) {
+        if (key.getUris() == null || key.getUris().contains(uri)) {
+            return true;
+        }
+        if (compiledPatterns.size() > properties.getMaximumSize()) {
+            compiledPatterns.clear();
+        }
+        for (String pattern : key.getPatterns()) {
+            if (compiledPatterns.computeIfAbsent(pattern, UriPattern::compile).matcher(uri).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int size() {
+        return entries.size();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private boolean isAligned(LocalDateTime dateTime) {
+        return dateTime.getNano() == 0 && Math.floorMod(dateTime.toEpochSecond(ZoneOffset.UTC), bucketSeconds()) == 0;
+    }
+
+    private long bucketSeconds() {
+        return Math.max(1, properties.getKeyBucket().getSeconds());
+    }
+
+    private static class Entry {
+        private final List<ViewStatsDto> stats;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        private Entry(List<ViewStatsDto> stats, long createdAt) {
+            this.stats = stats;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+    }
+
+    private static class PendingLoad {
+        private final StatsCacheKey key;
+        private volatile boolean stale;
+
+        private PendingLoad(StatsCacheKey key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.server.cache;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Value
+public class StatsCacheKey {
+    LocalDateTime start;
+    LocalDateTime end;
+    List<String> uris;
+    List<String> patterns;
+    boolean unique;
+
+    public boolean contains(LocalDateTime timestamp) {
+        return !timestamp.isBefore(start) && !timestamp.isAfter(end);
+    }
+}
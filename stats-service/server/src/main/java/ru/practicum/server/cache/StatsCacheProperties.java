@@ -0,0 +1,15 @@
+package ru.practicum.server.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.cache")
+public class StatsCacheProperties {
+    private boolean enabled = true;
+    private int maximumSize = 10_000;
+    private Duration ttl = Duration.ofSeconds(30);
+    private Duration keyBucket = Duration.ofMinutes(1);
+}
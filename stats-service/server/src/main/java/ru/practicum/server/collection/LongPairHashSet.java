@@ -0,0 +1,89 @@
+package ru.practicum.server.collection;
+
+public class LongPairHashSet {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] highs;
+    private long[] lows;
+    private int mask;
+    private int size;
+    private boolean hasZeroKey;
+
+    public LongPairHashSet() {
+        this(16);
+    }
+
+    public LongPairHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public boolean add(long high, long low) {
+        if (high == 0 && low == 0) {
+            if (hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+        int slot = mix(high, low) & mask;
+        while (highs[slot] != 0 || lows[slot] != 0) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        highs[slot] = high;
+        lows[slot] = low;
+        if (++size > highs.length * LOAD_FACTOR) {
+            rehash();
+        }
+        return true;
+    }
+
+    public boolean contains(long high, long low) {
+        if (high == 0 && low == 0) {
+            return hasZeroKey;
+        }
+        int slot = mix(high, low) & mask;
+        while (highs[slot] != 0 || lows[slot] != 0) {
+            if (highs[slot] == high && lows[slot] == low) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int mix(long high, long low) {
+        return LongHashSet.mix(high * 31 + low);
+    }
+
+    private void rehash() {
+        long[] oldHighs = highs;
+        long[] oldLows = lows;
+        allocate(oldHighs.length << 1);
+        for (int i = 0; i < oldHighs.length; i++) {
+            if (oldHighs[i] != 0 || oldLows[i] != 0) {
+                int slot = mix(oldHighs[i], oldLows[i]) & mask;
+                while (highs[slot] != 0 || lows[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                highs[slot] = oldHighs[i];
+                lows[slot] = oldLows[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        highs = new long[capacity];
+        lows = new long[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.server.columnar;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ColumnDictionary {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final DataOutputStream out;
+
+    public ColumnDictionary(Path file) throws IOException {
+        if (Files.exists(file)) {
+            byte[] bytes = Files.readAllBytes(file);
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(bytes);
+            DataInputStream in = new DataInputStream(inputStream);
+            long valid = 0;
+            try {
+                while (inputStream.available() > 0) {
+                    String name = in.readUTF();
+                    ids.put(name, names.size());
+                    names.add(name);
+                    valid = bytes.length - inputStream.available();
+                }
+            } catch (EOFException e) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        this.out = new DataOutputStream(new FileOutputStream(file.toFile(), true));
+    }
+
+    public Integer find(String name) {
+        return ids.get(name);
+    }
+
+    public int getOrCreate(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            try {
+                out.writeUTF(name);
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            id = names.size();
+            names.add(name);
+            ids.put(name, id);
+            return id;
+        }
+    }
+
+    public synchronized String getName(int id) {
+        return names.get(id);
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,279 @@
+package ru.practicum.server.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+class ColumnSegment {
+
+    static final String SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x48534547;
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final int rows;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int appWidth;
+    private final int uriWidth;
+    private final int ipWidth;
+    private final long[] blockTimestamps;
+    private final int[] blockOffsets;
+    private final int timestampsOffset;
+    private final int appsOffset;
+    private final int urisOffset;
+    private final int ipsOffset;
+
+    private ColumnSegment(Path file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Неизвестный формат сегмента");
+        }
+        rows = buffer.getInt(8);
+        minTimestamp = buffer.getLong(12);
+        maxTimestamp = buffer.getLong(20);
+        appWidth = buffer.get(28);
+        uriWidth = buffer.get(29);
+        ipWidth = buffer.get(30);
+        int blocks = buffer.getInt(32);
+        blockTimestamps = new long[blocks];
+        blockOffsets = new int[blocks];
+        int offset = 36;
+        for (int i = 0; i < blocks; i++) {
+            blockTimestamps[i] = buffer.getLong(offset);
+            blockOffsets[i] = buffer.getInt(offset + 8);
+            offset += 12;
+        }
+        int timestampsLength = buffer.getInt(offset);
+        timestampsOffset = offset + 4;
+        appsOffset = timestampsOffset + timestampsLength;
+        urisOffset = appsOffset + rows * appWidth;
+        ipsOffset = urisOffset + rows * uriWidth;
+    }
+
+    static ColumnSegment open(Path file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "r")) {
+            return new ColumnSegment(file, randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length()));
+        }
+    }
+
+    static ColumnSegment write(Path file, Memtable.Snapshot snapshot) throws IOException {
+        int rows = snapshot.timestamps.length;
+        int appWidth = width(max(snapshot.appIds));
+        int uriWidth = width(max(snapshot.uriIds));
+        int ipWidth = 4;
+        for (long ip : snapshot.ips) {
+            if (ip >>> 32 != 0) {
+                ipWidth = 8;
+                break;
+            }
+        }
+        int blocks = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        long[] blockTimestamps = new long[blocks];
+        int[] blockOffsets = new int[blocks];
+        ByteBuffer deltas = ByteBuffer.allocate(rows * 10);
+        for (int row = 0; row < rows; row++) {
+            if (row % BLOCK_SIZE == 0) {
+                blockTimestamps[row / BLOCK_SIZE] = snapshot.timestamps[row];
+                blockOffsets[row / BLOCK_SIZE] = deltas.position();
+            }
+            long previous = row % BLOCK_SIZE == 0 ? snapshot.timestamps[row] : snapshot.timestamps[row - 1];
+            writeVarLong(deltas, snapshot.timestamps[row] - previous);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream fileStream = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileStream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows);
+            out.writeLong(rows == 0 ? 0 : snapshot.timestamps[0]);
+            out.writeLong(rows == 0 ? 0 : snapshot.timestamps[rows - 1]);
+            out.writeByte(appWidth);
+            out.writeByte(uriWidth);
+            out.writeByte(ipWidth);
+            out.writeByte(0);
+            out.writeInt(blocks);
+            for (int i = 0; i < blocks; i++) {
+                out.writeLong(blockTimestamps[i]);
+                out.writeInt(blockOffsets[i]);
+            }
+            out.writeInt(deltas.position());
+            out.write(deltas.array(), 0, deltas.position());
+            writeColumn(out, snapshot.appIds, appWidth);
+            writeColumn(out, snapshot.uriIds, uriWidth);
+            for (long ip : snapshot.ips) {
+                if (ipWidth == 4) {
+                    out.writeInt((int) ip);
+                } else {
+                    out.writeLong(ip);
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int getRows() {
+        return rows;
+    }
+
+    boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    void release() {
+        if (references.decrementAndGet() == 0) {
+            unmap(buffer);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    void scan(long from, long to, boolean[] uriFilter, HitVisitor visitor) {
+        if (rows == 0 || maxTimestamp < from || minTimestamp > to) {
+            return;
+        }
+        int block = findBlock(from);
+        int position = timestampsOffset + blockOffsets[block];
+        long timestamp = blockTimestamps[block];
+        for (int row = block * BLOCK_SIZE; row < rows; row++) {
+            if (row % BLOCK_SIZE == 0) {
+                timestamp = blockTimestamps[row / BLOCK_SIZE];
+                position = timestampsOffset + blockOffsets[row / BLOCK_SIZE];
+            }
+            long delta = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer.get(position++);
+                delta |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0);
+            timestamp += delta;
+            if (timestamp < from) {
+                continue;
+            }
+            if (timestamp > to) {
+                return;
+            }
+            visitRow(timestamp, row, uriFilter, visitor);
+        }
+    }
+
+    private void visitRow(long timestamp, int row, boolean[] uriFilter, HitVisitor visitor) {
+        int uriId = read(urisOffset, uriWidth, row);
+        if (uriFilter == null || uriId < uriFilter.length && uriFilter[uriId]) {
+            long ip = ipWidth == 4 ? buffer.getInt(ipsOffset + row * 4) & 0xFFFFFFFFL : buffer.getLong(ipsOffset + row * 8);
+            visitor.visit(timestamp, read(appsOffset, appWidth, row), uriId, ip);
+        }
+    }
+
+    private int read(int offset, int width, int row) {
+        switch (width) {
+            case 1:
+                return buffer.get(offset + row) & 0xFF;
+            case 2:
+                return buffer.getShort(offset + row * 2) & 0xFFFF;
+            default:
+                return buffer.getInt(offset + row * 4);
+        }
+    }
+
+    private int findBlock(long timestamp) {
+        int low = 0;
+        int high = blockTimestamps.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blockTimestamps[middle] < timestamp) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static void unmap(ByteBuffer buffer) {
+        try {
+            Field field = Class.forName("sun.misc.Unsafe").getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+            invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Отображение сегмента будет освобождено сборщиком мусора", e);
+        }
+    }
+
+    private static int max(int[] values) {
+        int max = 0;
+        for (int value : values) {
+            max = Math.max(max, value);
+        }
+        return max;
+    }
+
+    private static int width(int max) {
+        if (max <= 0xFF) {
+            return 1;
+        }
+        return max <= 0xFFFF ? 2 : 4;
+    }
+
+    private static void writeColumn(DataOutputStream out, int[] values, int width) throws IOException {
+        for (int value : values) {
+            if (width == 1) {
+                out.writeByte(value);
+            } else if (width == 2) {
+                out.writeShort(value);
+            } else {
+                out.writeInt(value);
+            }
+        }
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
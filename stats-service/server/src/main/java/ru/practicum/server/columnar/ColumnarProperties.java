@@ -0,0 +1,18 @@
+package ru.practicum.server.columnar;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.storage.columnar")
+public class ColumnarProperties {
+    private String directory = "columnar";
+    private int memtableRows = 262_144;
+    private Duration flushInterval = Duration.ofMinutes(5);
+    private boolean forceOnAppend = true;
+    private int segmentRows = 4_194_304;
+    private int compactionSegments = 8;
+    private Duration compactionInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,249 @@
+package ru.practicum.server.columnar;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.TimeSeriesDto;
+import ru.practicum.dto.TopViewStatsDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.collection.LongHashSet;
+import ru.practicum.server.collection.LongLongHashMap;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.ingestion.AdmissionController;
+import ru.practicum.server.ingestion.EndpointHitStreamReader;
+import ru.practicum.server.mapper.EndpointHitMapper;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.service.StatsService;
+import ru.practicum.server.timeseries.TimeSeriesBuilder;
+import ru.practicum.server.top.TopResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stats-server.storage", name = "engine", havingValue = "columnar")
+public class ColumnarStatsService implements StatsService {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final LocalDateTime ALL_TIME_START = LocalDateTime.of(0, 1, 1, 0, 0);
+    private static final LocalDateTime ALL_TIME_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final ColumnarStore columnarStore;
+    private final EndpointHitStreamReader endpointHitStreamReader;
+    private final AdmissionController admissionController;
+
+    @Override
+    public EndpointHitDto addEndpointHit(EndpointHitDto endpointHitDto) {
+        EndpointHit endpointHit = EndpointHitMapper.toEndpointHit(endpointHitDto);
+        endpointHit.setTimestamp(LocalDateTime.now());
+        admissionController.submit(List.of(endpointHit), columnarStore::addAll);
+        return EndpointHitMapper.toEndpointHitDto(endpointHit);
+    }
+
+    @Override
+    public EndpointHitsResultDto addEndpointHits(InputStream inputStream) {
+        EndpointHitsResultDto result = new EndpointHitsResultDto(0L, 0L);
+        List<EndpointHit> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            endpointHitStreamReader.read(inputStream, endpointHitDto -> {
+                add(endpointHitDto, batch, result);
+                if (batch.size() >= BATCH_SIZE) {
+                    admissionController.submit(batch, columnarStore::addAll);
+                    batch.clear();
+                }
+            });
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректный формат просмотров после " + result.getAccepted() + " принятых: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            admissionController.submit(batch, columnarStore::addAll);
+        }
+        return result;
+    }
+
+    @Override
+    public EndpointHitsResultDto addEndpointHits(List<EndpointHitDto> endpointHitDtos) {
+        EndpointHitsResultDto result = new EndpointHitsResultDto(0L, 0L);
+        List<EndpointHit> batch = new ArrayList<>(endpointHitDtos.size());
+        endpointHitDtos.forEach(endpointHitDto -> add(endpointHitDto, batch, result));
+        admissionController.submit(batch, columnarStore::addAll);
+        return result;
+    }
+
+    private void add(EndpointHitDto endpointHitDto, List<EndpointHit> batch, EndpointHitsResultDto result) {
+        if (isBlank(endpointHitDto.getApp()) || isBlank(endpointHitDto.getUri()) || isBlank(endpointHitDto.getIp())) {
+            result.setRejected(result.getRejected() + 1);
+            return;
+        }
+        EndpointHit endpointHit = EndpointHitMapper.toEndpointHit(endpointHitDto);
+        endpointHit.setTimestamp(endpointHitDto.getTimestamp() != null ? endpointHitDto.getTimestamp() : LocalDateTime.now());
+        batch.add(endpointHit);
+        result.setAccepted(result.getAccepted() + 1);
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean isUnique) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        boolean[] uriFilter = uris == null ? null : columnarStore.uriFilter(uris);
+        List<ViewStatsDto> stats = new ArrayList<>();
+        aggregate(start, end, uriFilter, isUnique).forEach((key, hits) ->
+                stats.add(new ViewStatsDto(columnarStore.getApp((int) (key >>> 32)), columnarStore.getUri((int) key), hits)));
+        stats.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return stats;
+    }
+
+    @Override
+    public void streamStats(LocalDateTime start, LocalDateTime end, Boolean isUnique, Consumer<ViewStatsDto> consumer) {
+        getStats(start, end, null, isUnique).forEach(consumer);
+    }
+
+    @Override
+    public List<ViewStatsDto> getApproxUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return getStats(start, end, uris, true);
+    }
+
+    @Override
+    public double getApproxRelativeError() {
+        return 0;
+    }
+
+    @Override
+    public TopResult getTop(int k, LocalDateTime start, LocalDateTime end, Boolean isUnique) {
+        if (k <= 0) {
+            throw new ValidationException("Параметр k должен быть положительным");
+        }
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        List<TopViewStatsDto> top = getStats(start, end, null, isUnique).stream()
+                .limit(k)
+                .map(stats -> new TopViewStatsDto(stats.getApp(), stats.getUri(), stats.getHits(), 0L))
+                .collect(Collectors.toList());
+        return new TopResult(top, 0);
+    }
+
+    @Override
+    public List<StatsCounterDto> getCounters(List<StatsCounterRequestDto> counters) {
+        List<StatsCounterDto> result = new ArrayList<>(counters.size());
+        for (StatsCounterRequestDto counter : counters) {
+            if (counter.getUri() == null || counter.getStart() == null || counter.getEnd() == null) {
+                throw new ValidationException("Для счетчика должны быть указаны uri, start и end");
+            }
+            if (counter.getStart().isAfter(counter.getEnd())) {
+                throw new ValidationException("Начало искомого периода не может быть после конца");
+            }
+        }
+        for (StatsCounterRequestDto counter : counters) {
+            long[] hits = {0};
+            aggregate(counter.getStart(), counter.getEnd(), columnarStore.uriFilter(List.of(counter.getUri())), counter.isUnique())
+                    .forEach((key, value) -> hits[0] += value);
+            result.add(new StatsCounterDto(counter.getUri(), hits[0]));
+        }
+        return result;
+    }
+
+    @Override
+    public StatsCounterDto getPrefixHits(String prefix) {
+        long[] hits = {0};
+        columnarStore.scan(ALL_TIME_START, ALL_TIME_END, columnarStore.uriPrefixFilter(prefix), (timestamp, appId, uriId, ip) -> hits[0]++);
+        return new StatsCounterDto(prefix, hits[0]);
+    }
+
+    @Override
+    public TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime end, List<String> uris, String interval, Boolean isUnique) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        RollupGranularity granularity = TimeSeriesBuilder.parseInterval(interval);
+        TimeSeriesBuilder builder = new TimeSeriesBuilder(granularity, start, end.plusNanos(END_INCLUSIVE_NANOS));
+        boolean[] uriFilter = uris == null ? null : columnarStore.uriFilter(uris);
+        List<LocalDateTime> buckets = builder.getTimestamps();
+        long first = ColumnarStore.toMicros(buckets.get(0));
+        long width = granularity.getUnit().getDuration().toNanos() / 1_000;
+        LongLongHashMap slots = new LongLongHashMap();
+        List<Long> keys = new ArrayList<>();
+        List<long[]> counts = new ArrayList<>();
+        List<LongHashSet[]> ips = new ArrayList<>();
+        columnarStore.scan(start, end, uriFilter, (timestamp, appId, uriId, ip) -> {
+            int bucket = (int) ((timestamp - first) / width);
+            if (bucket < 0 || bucket >= buckets.size()) {
+                return;
+            }
+            long key = ((long) appId << 32) | uriId;
+            long slot = slots.get(key, -1);
+            if (slot < 0) {
+                slot = keys.size();
+                slots.addTo(key, slot);
+                keys.add(key);
+                counts.add(new long[buckets.size()]);
+                ips.add(isUnique ? new LongHashSet[buckets.size()] : null);
+            }
+            if (isUnique) {
+                LongHashSet[] sets = ips.get((int) slot);
+                if (sets[bucket] == null) {
+                    sets[bucket] = new LongHashSet();
+                }
+                if (!sets[bucket].add(ip)) {
+                    return;
+                }
+            }
+            counts.get((int) slot)[bucket]++;
+        });
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            String app = columnarStore.getApp((int) (key >>> 32));
+            String uri = columnarStore.getUri((int) key);
+            long[] hits = counts.get(i);
+            for (int bucket = 0; bucket < hits.length; bucket++) {
+                if (hits[bucket] > 0) {
+                    builder.add(app, uri, buckets.get(bucket), hits[bucket]);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private LongLongHashMap aggregate(LocalDateTime start, LocalDateTime end, boolean[] uriFilter, boolean unique) {
+        LongLongHashMap counts = new LongLongHashMap();
+        if (!unique) {
+            columnarStore.scan(start, end, uriFilter, (timestamp, appId, uriId, ip) -> counts.addTo(((long) appId << 32) | uriId, 1));
+            return counts;
+        }
+        List<LongHashSet> ips = new ArrayList<>();
+        LongLongHashMap slots = new LongLongHashMap();
+        columnarStore.scan(start, end, uriFilter, (timestamp, appId, uriId, ip) -> {
+            long key = ((long) appId << 32) | uriId;
+            long slot = slots.get(key, -1);
+            if (slot < 0) {
+                slot = ips.size();
+                slots.addTo(key, slot);
+                ips.add(new LongHashSet());
+            }
+            if (ips.get((int) slot).add(ip)) {
+                counts.addTo(key, 1);
+            }
+        });
+        return counts;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,381 @@
+package ru.practicum.server.columnar;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.mapper.IpMapper;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.uri.UriPattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "stats-server.storage", name = "engine", havingValue = "columnar")
+public class ColumnarStore {
+
+    private static final long IPV4_LIMIT = 1L << 32;
+
+    private final ColumnarProperties properties;
+    private final TaskScheduler taskScheduler;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock compactionLock = new ReentrantLock();
+    private final List<ColumnSegment> segments = new ArrayList<>();
+    private Path directory;
+    private ColumnDictionary apps;
+    private ColumnDictionary uris;
+    private ColumnDictionary ips;
+    private volatile Memtable active;
+    private Memtable flushing;
+    private long activeSegment;
+    private long nextSegment = 1;
+
+    public ColumnarStore(ColumnarProperties properties, TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+        apps = new ColumnDictionary(directory.resolve("apps.dict"));
+        uris = new ColumnDictionary(directory.resolve("uris.dict"));
+        ips = new ColumnDictionary(directory.resolve("ips.dict"));
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ColumnSegment.SUFFIX + ".tmp")) {
+            for (Path file : stream) {
+                Files.delete(file);
+            }
+        }
+        openSegments();
+        recoverJournals();
+        activeSegment = nextSegment++;
+        active = new Memtable(properties.getMemtableRows(), MemtableJournal.create(journalFile(activeSegment)));
+        long rows = segments.stream().mapToLong(ColumnSegment::getRows).sum();
+        log.info("Колоночное хранилище открыто: {} сегментов, {} просмотров", segments.size(), rows);
+        taskScheduler.scheduleWithFixedDelay(this::flush, properties.getFlushInterval());
+        taskScheduler.scheduleWithFixedDelay(this::compact, properties.getCompactionInterval());
+    }
+
+    private void openSegments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ColumnSegment.SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong((Path file) -> segmentIds(file)[1]).reversed()
+                .thenComparingLong(file -> segmentIds(file)[0]));
+        long mergedFrom = Long.MAX_VALUE;
+        for (Path file : files) {
+            long[] ids = segmentIds(file);
+            nextSegment = Math.max(nextSegment, ids[1] + 1);
+            if (ids[1] >= mergedFrom) {
+                log.info("Сегмент {} уже объединен в более крупный и удален", file.getFileName());
+                Files.delete(file);
+                continue;
+            }
+            segments.add(0, ColumnSegment.open(file));
+            mergedFrom = ids[0];
+        }
+    }
+
+    private void recoverJournals() throws IOException {
+        TreeMap<Long, Path> journals = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + MemtableJournal.SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                journals.put(Long.parseLong(name.substring(0, name.length() - MemtableJournal.SUFFIX.length())), file);
+            }
+        }
+        for (Map.Entry<Long, Path> journal : journals.entrySet()) {
+            long id = journal.getKey();
+            nextSegment = Math.max(nextSegment, id + 1);
+            if (segments.stream().map(segment -> segmentIds(segment.getFile())).anyMatch(ids -> ids[0] <= id && id <= ids[1])) {
+                Files.delete(journal.getValue());
+                continue;
+            }
+            Memtable memtable = new Memtable(properties.getMemtableRows());
+            int rows = MemtableJournal.replay(journal.getValue(), memtable);
+            if (rows == 0) {
+                Files.delete(journal.getValue());
+                continue;
+            }
+            int index = 0;
+            while (index < segments.size() && segmentIds(segments.get(index).getFile())[1] < id) {
+                index++;
+            }
+            segments.add(index, ColumnSegment.write(segmentFile(id, id), memtable.sortedSnapshot()));
+            Files.delete(journal.getValue());
+            log.info("Восстановлено {} просмотров из журнала {}", rows, journal.getValue().getFileName());
+        }
+    }
+
+    public void add(EndpointHit endpointHit) {
+        addAll(List.of(endpointHit));
+    }
+
+    public void addAll(List<EndpointHit> endpointHits) {
+        Set<Memtable> appended = new HashSet<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            long timestamp = toMicros(endpointHit.getTimestamp());
+            int appId = apps.getOrCreate(endpointHit.getApp());
+            int uriId = uris.getOrCreate(endpointHit.getUri());
+            long ip = encodeIp(endpointHit.getIp());
+            Memtable memtable = active;
+            while (!memtable.append(timestamp, appId, uriId, ip)) {
+                memtable = active;
+            }
+            appended.add(memtable);
+        }
+        if (properties.isForceOnAppend()) {
+            for (Memtable memtable : appended) {
+                try {
+                    memtable.force();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        if (active.size() >= properties.getMemtableRows()) {
+            flush(properties.getMemtableRows());
+        }
+    }
+
+    public void scan(LocalDateTime start, LocalDateTime end, boolean[] uriFilter, HitVisitor visitor) {
+        long from = toMicros(start);
+        long to = toMicros(end);
+        List<ColumnSegment> segmentSnapshot;
+        Memtable flushingSnapshot;
+        Memtable activeSnapshot;
+        lock.readLock().lock();
+        try {
+            segmentSnapshot = new ArrayList<>(segments.size());
+            for (ColumnSegment segment : segments) {
+                if (segment.retain()) {
+                    segmentSnapshot.add(segment);
+                }
+            }
+            flushingSnapshot = flushing;
+            activeSnapshot = active;
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            for (ColumnSegment segment : segmentSnapshot) {
+                segment.scan(from, to, uriFilter, visitor);
+            }
+        } finally {
+            segmentSnapshot.forEach(ColumnSegment::release);
+        }
+        if (flushingSnapshot != null) {
+            flushingSnapshot.scan(from, to, uriFilter, visitor);
+        }
+        activeSnapshot.scan(from, to, uriFilter, visitor);
+    }
+
+    public boolean[] uriFilter(Collection<String> names) {
+        boolean[] filter = new boolean[uris.size()];
+        for (String name : names) {
+            if (UriPattern.isPattern(name)) {
+                Pattern pattern = UriPattern.compile(name);
+                for (int id = 0; id < filter.length; id++) {
+                    filter[id] |= pattern.matcher(uris.getName(id)).matches();
+                }
+                continue;
+            }
+            Integer id = uris.find(name);
+            if (id != null && id < filter.length) {
+                filter[id] = true;
+            }
+        }
+        return filter;
+    }
+
+    public boolean[] uriPrefixFilter(String prefix) {
+        boolean[] filter = new boolean[uris.size()];
+        for (int id = 0; id < filter.length; id++) {
+            filter[id] = uris.getName(id).startsWith(prefix);
+        }
+        return filter;
+    }
+
+    public String getApp(int id) {
+        return apps.getName(id);
+    }
+
+    public String getUri(int id) {
+        return uris.getName(id);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flush();
+        if (active.size() == 0) {
+            active.deleteJournal();
+        }
+        apps.close();
+        uris.close();
+        ips.close();
+    }
+
+    public void flush() {
+        flush(1);
+    }
+
+    public void compact() {
+        if (!compactionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<ColumnSegment> snapshot;
+            lock.readLock().lock();
+            try {
+                snapshot = new ArrayList<>(segments);
+            } finally {
+                lock.readLock().unlock();
+            }
+            List<ColumnSegment> group = new ArrayList<>();
+            long rows = 0;
+            for (ColumnSegment segment : snapshot) {
+                if (!group.isEmpty() && rows + segment.getRows() > properties.getSegmentRows()) {
+                    merge(group);
+                    group = new ArrayList<>();
+                    rows = 0;
+                }
+                group.add(segment);
+                rows += segment.getRows();
+            }
+            merge(group);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            compactionLock.unlock();
+        }
+    }
+
+    private synchronized void flush(int minRows) {
+        Memtable memtable;
+        long segmentId;
+        lock.writeLock().lock();
+        try {
+            if (active.size() < minRows) {
+                return;
+            }
+            memtable = active;
+            segmentId = activeSegment;
+            flushing = memtable;
+            activeSegment = nextSegment++;
+            active = new Memtable(properties.getMemtableRows(), MemtableJournal.create(journalFile(activeSegment)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        memtable.seal();
+        ColumnSegment segment;
+        try {
+            segment = ColumnSegment.write(segmentFile(segmentId, segmentId), memtable.sortedSnapshot());
+        } catch (IOException e) {
+            lock.writeLock().lock();
+            try {
+                flushing = null;
+                Memtable current = active;
+                Memtable.Snapshot unsaved = memtable.sortedSnapshot();
+                for (int i = 0; i < unsaved.timestamps.length; i++) {
+                    while (!current.append(unsaved.timestamps[i], unsaved.appIds[i], unsaved.uriIds[i], unsaved.ips[i])) {
+                        current = active;
+                    }
+                }
+                current.force();
+                memtable.deleteJournal();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw new UncheckedIOException(e);
+        }
+        lock.writeLock().lock();
+        try {
+            segments.add(segment);
+            flushing = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            memtable.deleteJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void merge(List<ColumnSegment> group) throws IOException {
+        if (group.size() < Math.max(2, properties.getCompactionSegments())) {
+            return;
+        }
+        Memtable merged = new Memtable(group.stream().mapToInt(ColumnSegment::getRows).sum() + 1);
+        group.forEach(segment -> segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, merged::append));
+        Path file = segmentFile(segmentIds(group.get(0).getFile())[0], segmentIds(group.get(group.size() - 1).getFile())[1]);
+        ColumnSegment segment = ColumnSegment.write(file, merged.sortedSnapshot());
+        lock.writeLock().lock();
+        try {
+            int index = segments.indexOf(group.get(0));
+            segments.subList(index, index + group.size()).clear();
+            segments.add(index, segment);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        group.forEach(ColumnSegment::release);
+        log.debug("Объединено {} сегментов в {}, {} просмотров", group.size(), file.getFileName(), segment.getRows());
+    }
+
+    private Path segmentFile(long first, long last) {
+        return directory.resolve(first == last
+                ? String.format("%020d%s", first, ColumnSegment.SUFFIX)
+                : String.format("%020d-%020d%s", first, last, ColumnSegment.SUFFIX));
+    }
+
+    private Path journalFile(long id) {
+        return directory.resolve(String.format("%020d%s", id, MemtableJournal.SUFFIX));
+    }
+
+    private static long[] segmentIds(Path file) {
+        String name = file.getFileName().toString();
+        String[] ids = name.substring(0, name.length() - ColumnSegment.SUFFIX.length()).split("-");
+        return new long[]{Long.parseLong(ids[0]), Long.parseLong(ids[ids.length - 1])};
+    }
+
+    private long encodeIp(String ip) {
+        byte[] bytes = IpMapper.toBytes(ip);
+        if (bytes.length == 4) {
+            return ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFFL) << 16) | ((bytes[2] & 0xFFL) << 8) | (bytes[3] & 0xFFL);
+        }
+        return IPV4_LIMIT + ips.getOrCreate(IpMapper.toIp(bytes));
+    }
+
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,5 @@
+package ru.practicum.server.columnar;
+
+public interface HitVisitor {
+    void visit(long timestamp, int appId, int uriId, long ip);
+}
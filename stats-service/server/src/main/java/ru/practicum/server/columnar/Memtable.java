@@ -0,0 +1,130 @@
+package ru.practicum.server.columnar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+class Memtable {
+
+    private final MemtableJournal journal;
+    private long[] timestamps;
+    private int[] appIds;
+    private int[] uriIds;
+    private long[] ips;
+    private int size;
+    private boolean sealed;
+
+    Memtable(int capacity) {
+        this(capacity, null);
+    }
+
+    Memtable(int capacity, MemtableJournal journal) {
+        this.journal = journal;
+        timestamps = new long[capacity];
+        appIds = new int[capacity];
+        uriIds = new int[capacity];
+        ips = new long[capacity];
+    }
+
+    synchronized boolean append(long timestamp, int appId, int uriId, long ip) {
+        if (sealed) {
+            return false;
+        }
+        if (journal != null) {
+            try {
+                journal.append(timestamp, appId, uriId, ip);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (size == timestamps.length) {
+            int capacity = timestamps.length << 1;
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            appIds = Arrays.copyOf(appIds, capacity);
+            uriIds = Arrays.copyOf(uriIds, capacity);
+            ips = Arrays.copyOf(ips, capacity);
+        }
+        timestamps[size] = timestamp;
+        appIds[size] = appId;
+        uriIds[size] = uriId;
+        ips[size] = ip;
+        size++;
+        return true;
+    }
+
+    synchronized void seal() {
+        sealed = true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    void force() throws IOException {
+        if (journal != null) {
+            journal.force();
+        }
+    }
+
+    void deleteJournal() throws IOException {
+        if (journal != null) {
+            journal.delete();
+        }
+    }
+
+    void scan(long from, long to, boolean[] uriFilter, HitVisitor visitor) {
+        long[] timestamps;
+        int[] appIds;
+        int[] uriIds;
+        long[] ips;
+        int size;
+        synchronized (this) {
+            timestamps = this.timestamps;
+            appIds = this.appIds;
+            uriIds = this.uriIds;
+            ips = this.ips;
+            size = this.size;
+        }
+        for (int row = 0; row < size; row++) {
+            long timestamp = timestamps[row];
+            if (timestamp < from || timestamp > to) {
+                continue;
+            }
+            int uriId = uriIds[row];
+            if (uriFilter == null || uriId < uriFilter.length && uriFilter[uriId]) {
+                visitor.visit(timestamp, appIds[row], uriId, ips[row]);
+            }
+        }
+    }
+
+    synchronized Memtable.Snapshot sortedSnapshot() {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Long.compare(timestamps[left], timestamps[right]));
+        Snapshot snapshot = new Snapshot(size);
+        for (int i = 0; i < size; i++) {
+            int row = order[i];
+            snapshot.timestamps[i] = timestamps[row];
+            snapshot.appIds[i] = appIds[row];
+            snapshot.uriIds[i] = uriIds[row];
+            snapshot.ips[i] = ips[row];
+        }
+        return snapshot;
+    }
+
+    static class Snapshot {
+        final long[] timestamps;
+        final int[] appIds;
+        final int[] uriIds;
+        final long[] ips;
+
+        Snapshot(int size) {
+            timestamps = new long[size];
+            appIds = new int[size];
+            uriIds = new int[size];
+            ips = new long[size];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.server.columnar;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class MemtableJournal {
+
+    static final String SUFFIX = ".log";
+
+    private static final int RECORD_SIZE = 24;
+    private static final int READ_RECORDS = 4096;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+
+    private MemtableJournal(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    static MemtableJournal create(Path file) throws IOException {
+        return new MemtableJournal(file, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+    }
+
+    static int replay(Path file, Memtable memtable) throws IOException {
+        int rows = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * READ_RECORDS);
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    memtable.append(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getLong());
+                    rows++;
+                }
+                buffer.compact();
+            }
+        }
+        return rows;
+    }
+
+    void append(long timestamp, int appId, int uriId, long ip) throws IOException {
+        record.clear();
+        record.putLong(timestamp).putInt(appId).putInt(uriId).putLong(ip).flip();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    synchronized void force() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+        }
+    }
+
+    synchronized void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -3,19 +3,39 @@ package ru.practicum.server.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.TimeSeriesDto;
+import ru.practicum.dto.TopViewStatsDto;
 import ru.practicum.dto.ViewStatsDto;
 import ru.practicum.server.service.StatsService;
+import ru.practicum.server.streaming.ViewStatsStreamWriter;
+import ru.practicum.server.top.TopResult;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
+@Validated
 public class StatsController {
 
+    private static final String RELATIVE_ERROR_HEADER = "X-Stats-Relative-Error";
+    private static final String MAX_ERROR_HEADER = "X-Stats-Max-Error";
+
     private final StatsService statsService;
+    private final ViewStatsStreamWriter viewStatsStreamWriter;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -23,11 +43,70 @@ public class StatsController {
         return statsService.addEndpointHit(endpointHitDto);
     }
 
+    @PostMapping(value = "/hits", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public EndpointHitsResultDto addEndpointHits(HttpServletRequest request) throws IOException {
+        return statsService.addEndpointHits(request.getInputStream());
+    }
+
     @GetMapping("/stats")
-    public List<ViewStatsDto> getStats(@RequestParam(value = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+    public ResponseEntity<List<ViewStatsDto>> getStats(@RequestParam(value = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                                       @RequestParam(value = "end") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                                       @RequestParam(value = "uris", required = false) List<String> uris,
+                                                       @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+                                                       @RequestParam(value = "approx", defaultValue = "false") boolean approx) {
+        if (unique && approx) {
+            return ResponseEntity.ok()
+                    .header(RELATIVE_ERROR_HEADER, String.valueOf(statsService.getApproxRelativeError()))
+                    .body(statsService.getApproxUniqueStats(start, end, uris));
+        }
+        return ResponseEntity.ok(statsService.getStats(start, end, uris, unique));
+    }
+
+    @GetMapping(value = "/stats", params = {"!uris", "stream=true"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamStats(@RequestParam(value = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                            @RequestParam(value = "end") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                            @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+                            @RequestParam(value = "approx", defaultValue = "false") boolean approx,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        if (unique && approx) {
+            List<ViewStatsDto> stats = statsService.getApproxUniqueStats(start, end, null);
+            response.setHeader(RELATIVE_ERROR_HEADER, String.valueOf(statsService.getApproxRelativeError()));
+            viewStatsStreamWriter.write(response.getOutputStream(), stats::forEach);
+            return;
+        }
+        viewStatsStreamWriter.write(response.getOutputStream(),
+                consumer -> statsService.streamStats(start, end, unique, consumer));
+    }
+
+    @GetMapping("/stats/top")
+    public ResponseEntity<List<TopViewStatsDto>> getTop(@RequestParam(value = "k", defaultValue = "10") int k,
+                                                        @RequestParam(value = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
+                                                        @RequestParam(value = "end") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
+                                                        @RequestParam(value = "unique", defaultValue = "false") Boolean unique) {
+        TopResult top = statsService.getTop(k, start, end, unique);
+        return ResponseEntity.ok()
+                .header(MAX_ERROR_HEADER, String.valueOf(top.getMaxError()))
+                .body(top.getItems());
+    }
+
+    @GetMapping("/stats/timeseries")
+    public TimeSeriesDto getTimeSeries(@RequestParam(value = "start") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime start,
                                        @RequestParam(value = "end") @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime end,
                                        @RequestParam(value = "uris", required = false) List<String> uris,
-                                       @RequestParam(value = "unique", defaultValue = "false") Boolean isUnique) {
-        return statsService.getStats(start, end, uris, isUnique);
+                                       @RequestParam(value = "interval", defaultValue = "hour") String interval,
+                                       @RequestParam(value = "unique", defaultValue = "false") Boolean unique) {
+        return statsService.getTimeSeries(start, end, uris, interval, unique);
+    }
+
+    @GetMapping("/stats/prefix")
+    public StatsCounterDto getPrefixHits(@RequestParam(value = "prefix") String prefix) {
+        return statsService.getPrefixHits(prefix);
+    }
+
+    @PostMapping("/stats/counters")
+    public List<StatsCounterDto> getCounters(@RequestBody List<@NotNull @Valid StatsCounterRequestDto> counters) {
+        return statsService.getCounters(counters);
     }
 }
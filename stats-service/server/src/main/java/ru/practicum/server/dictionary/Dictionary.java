@@ -0,0 +1,13 @@
+package ru.practicum.server.dictionary;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum Dictionary {
+    APPS("apps"),
+    URIS("uris");
+
+    private final String table;
+}
@@ -0,0 +1,78 @@
+package ru.practicum.server.dictionary;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.repository.DictionaryRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class DictionaryCache {
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<Dictionary, Map<String, Integer>> ids = new EnumMap<>(Dictionary.class);
+
+    public DictionaryCache(DictionaryRepository dictionaryRepository) {
+        this.dictionaryRepository = dictionaryRepository;
+        for (Dictionary dictionary : Dictionary.values()) {
+            ids.put(dictionary, new ConcurrentHashMap<>());
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        for (Dictionary dictionary : Dictionary.values()) {
+            ids.get(dictionary).putAll(dictionaryRepository.findAll(dictionary));
+        }
+    }
+
+    public int getOrCreateId(Dictionary dictionary, String name) {
+        Integer cached = ids.get(dictionary).get(name);
+        if (cached != null) {
+            return cached;
+        }
+        dictionaryRepository.insertIfAbsent(dictionary, name);
+        Integer id = dictionaryRepository.findId(dictionary, name);
+        if (id == null) {
+            throw new IllegalStateException("Не удалось получить идентификатор " + name + " в словаре " + dictionary);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.get(dictionary).put(name, id);
+                }
+            });
+        } else {
+            ids.get(dictionary).put(name, id);
+        }
+        return id;
+    }
+
+    public List<Integer> findIds(Dictionary dictionary, Collection<String> names) {
+        Map<String, Integer> cached = ids.get(dictionary);
+        List<Integer> result = new ArrayList<>(names.size());
+        List<String> missing = new ArrayList<>();
+        for (String name : names) {
+            Integer id = cached.get(name);
+            if (id != null) {
+                result.add(id);
+            } else {
+                missing.add(name);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<String, Integer> found = dictionaryRepository.findIds(dictionary, missing);
+            cached.putAll(found);
+            result.addAll(found.values());
+        }
+        return result;
+    }
+}
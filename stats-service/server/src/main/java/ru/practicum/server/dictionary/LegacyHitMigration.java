@@ -0,0 +1,96 @@
+package ru.practicum.server.dictionary;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.partition.PartitionManager;
+import ru.practicum.server.partition.PartitionProperties;
+import ru.practicum.server.repository.EndpointHitBatchRepository;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.repository.LegacyHitRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class LegacyHitMigration {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final LegacyHitRepository legacyHitRepository;
+    private final EndpointHitBatchRepository endpointHitBatchRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final PartitionManager partitionManager;
+    private final PartitionProperties partitionProperties;
+    private final LegacyMigrationProperties legacyMigrationProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    public LegacyHitMigration(LegacyHitRepository legacyHitRepository, EndpointHitBatchRepository endpointHitBatchRepository,
+                              HitRollupRepository hitRollupRepository, PartitionManager partitionManager, PartitionProperties partitionProperties,
+                              LegacyMigrationProperties legacyMigrationProperties, PlatformTransactionManager transactionManager) {
+        this.legacyHitRepository = legacyHitRepository;
+        this.endpointHitBatchRepository = endpointHitBatchRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.partitionManager = partitionManager;
+        this.partitionProperties = partitionProperties;
+        this.legacyMigrationProperties = legacyMigrationProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        if (!legacyHitRepository.exists()) {
+            return;
+        }
+        LocalDateTime[] range = legacyHitRepository.findRange();
+        if (range != null) {
+            log.info("Перенос просмотров из {} в словарный формат, период {} - {}", LegacyHitRepository.TABLE, range[0], range[1]);
+            LocalDateTime start = partitionProperties.getInterval().floor(range[0]);
+            while (!start.isAfter(range[1])) {
+                LocalDateTime chunkStart = start;
+                LocalDateTime chunkEnd = partitionProperties.getInterval().next(start);
+                Integer moved = transactionTemplate.execute(status -> migrateChunk(chunkStart, chunkEnd));
+                log.info("Перенесено {} просмотров за период {} - {}", moved, chunkStart, chunkEnd);
+                start = chunkEnd;
+            }
+        }
+        if (!legacyMigrationProperties.isDropLegacyTable()) {
+            log.info("Таблица {} сохранена после переноса, для удаления включите stats-server.legacy-migration.drop-legacy-table",
+                    LegacyHitRepository.TABLE);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> legacyHitRepository.drop());
+        log.info("Таблица {} удалена после переноса", LegacyHitRepository.TABLE);
+    }
+
+    private int migrateChunk(LocalDateTime start, LocalDateTime end) {
+        List<EndpointHit> batch = new ArrayList<>(BATCH_SIZE);
+        legacyHitRepository.forEachHit(start, end, rs -> {
+            batch.add(EndpointHit.builder()
+                    .app(rs.getString("app"))
+                    .uri(rs.getString("uri"))
+                    .ip(rs.getString("ip"))
+                    .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                    .build());
+            if (batch.size() >= BATCH_SIZE) {
+                save(batch);
+            }
+        });
+        save(batch);
+        hitRollupRepository.rebuild(start, end);
+        return legacyHitRepository.delete(start, end);
+    }
+
+    private void save(List<EndpointHit> batch) {
+        if (!batch.isEmpty()) {
+            partitionManager.ensurePartitions(batch);
+            endpointHitBatchRepository.saveAll(batch);
+            batch.clear();
+        }
+    }
+}
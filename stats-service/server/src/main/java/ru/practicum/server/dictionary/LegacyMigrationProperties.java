@@ -0,0 +1,10 @@
+package ru.practicum.server.dictionary;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.legacy-migration")
+public class LegacyMigrationProperties {
+    private boolean dropLegacyTable = false;
+}
@@ -0,0 +1,11 @@
+package ru.practicum.server.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class IngestionThrottledException extends RuntimeException {
+    public IngestionThrottledException(String message) {
+        super(message);
+    }
+}
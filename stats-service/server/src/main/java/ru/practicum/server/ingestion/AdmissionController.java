@@ -0,0 +1,105 @@
+package ru.practicum.server.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.exception.IngestionThrottledException;
+import ru.practicum.server.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Component
+public class AdmissionController {
+
+    private final AdmissionProperties properties;
+    private final Semaphore permits;
+    private final Counter accepted;
+    private final Counter shed;
+    private final Counter sampledOut;
+
+    public AdmissionController(AdmissionProperties properties, HitBuffer hitBuffer, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.permits = new Semaphore(properties.getMaxInFlight());
+        this.accepted = meterRegistry.counter("stats.ingestion.hits", "result", "accepted");
+        this.shed = meterRegistry.counter("stats.ingestion.hits", "result", "shed");
+        this.sampledOut = meterRegistry.counter("stats.ingestion.hits", "result", "sampled");
+        FunctionCounter.builder("stats.ingestion.hits", hitBuffer, HitBuffer::getDropped)
+                .tag("result", "dropped")
+                .register(meterRegistry);
+        Gauge.builder("stats.ingestion.in.flight", this, AdmissionController::inFlight).register(meterRegistry);
+        Gauge.builder("stats.ingestion.queued", hitBuffer, HitBuffer::size).register(meterRegistry);
+    }
+
+    public void submit(List<EndpointHit> endpointHits, Consumer<List<EndpointHit>> writer) {
+        if (endpointHits.isEmpty()) {
+            return;
+        }
+        if (!properties.isEnabled()) {
+            writer.accept(endpointHits);
+            accepted.increment(endpointHits.size());
+            return;
+        }
+        List<EndpointHit> admitted = permits.tryAcquire() ? endpointHits : overflow(endpointHits);
+        if (admitted.isEmpty()) {
+            return;
+        }
+        try {
+            writer.accept(admitted);
+            accepted.increment(admitted.size());
+        } finally {
+            permits.release();
+        }
+    }
+
+    private List<EndpointHit> overflow(List<EndpointHit> endpointHits) {
+        switch (properties.getPolicy()) {
+            case THROTTLE:
+                shed.increment(endpointHits.size());
+                throw new IngestionThrottledException("Слишком много одновременных запросов на запись просмотров");
+            case DROP:
+                shed.increment(endpointHits.size());
+                return List.of();
+            case SAMPLE:
+                List<EndpointHit> sampled = sample(endpointHits);
+                sampledOut.increment(endpointHits.size() - sampled.size());
+                if (sampled.isEmpty()) {
+                    return sampled;
+                }
+                try {
+                    if (permits.tryAcquire(properties.getSampleTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                        return sampled;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                shed.increment(sampled.size());
+                return List.of();
+            default:
+                shed.increment(endpointHits.size());
+                throw new IngestionRejectedException("Превышен лимит одновременной записи просмотров");
+        }
+    }
+
+    private int inFlight() {
+        return properties.getMaxInFlight() - permits.availablePermits();
+    }
+
+    private List<EndpointHit> sample(List<EndpointHit> endpointHits) {
+        List<EndpointHit> sampled = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (EndpointHit endpointHit : endpointHits) {
+            if (random.nextDouble() < properties.getSampleRate()) {
+                sampled.add(endpointHit);
+            }
+        }
+        return sampled;
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.server.ingestion;
+
+public enum AdmissionPolicy {
+    REJECT,
+    THROTTLE,
+    DROP,
+    SAMPLE
+}
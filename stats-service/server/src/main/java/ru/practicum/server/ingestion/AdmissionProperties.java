@@ -0,0 +1,16 @@
+package ru.practicum.server.ingestion;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.ingestion.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private int maxInFlight = 64;
+    private AdmissionPolicy policy = AdmissionPolicy.REJECT;
+    private double sampleRate = 0.1;
+    private Duration sampleTimeout = Duration.ofMillis(500);
+}
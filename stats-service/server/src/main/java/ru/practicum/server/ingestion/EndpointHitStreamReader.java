@@ -0,0 +1,42 @@
+package ru.practicum.server.ingestion;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.server.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+@Component
+@RequiredArgsConstructor
+public class EndpointHitStreamReader {
+
+    private final ObjectMapper objectMapper;
+
+    public void read(InputStream inputStream, Consumer<EndpointHitDto> consumer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(EndpointHitDto.class);
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new ValidationException("Ожидался объект просмотра, получено " + token);
+                }
+                consumer.accept(reader.readValue(parser));
+                token = parser.nextToken();
+            }
+            if (array && token == null) {
+                throw new ValidationException("Массив просмотров не закрыт");
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package ru.practicum.server.ingestion;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.model.EndpointHit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class HitBuffer implements SmartLifecycle {
+
+    private final IngestionProperties properties;
+    private final HitWriter hitWriter;
+    private final BlockingQueue<EndpointHit> queue;
+    private final List<EndpointHit> batch;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread writer;
+
+    public HitBuffer(IngestionProperties properties, HitWriter hitWriter) {
+        this.properties = properties;
+        this.hitWriter = hitWriter;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.batch = new ArrayList<>(properties.getBatchSize());
+    }
+
+    public void add(EndpointHit endpointHit) {
+        Lock lock = stateLock.readLock();
+        lock.lock();
+        try {
+            if (running) {
+                enqueue(endpointHit);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        hitWriter.save(endpointHit);
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (properties.getMode() != IngestionMode.ASYNC) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "hit-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        Lock lock = stateLock.writeLock();
+        lock.lock();
+        try {
+            running = false;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        while (!batch.isEmpty() || queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            try {
+                hitWriter.saveAll(batch);
+            } catch (DataAccessException e) {
+                log.error("Не удалось сохранить {} просмотров при остановке", batch.size() + queue.size(), e);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void enqueue(EndpointHit endpointHit) {
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                try {
+                    if (!queue.offer(endpointHit, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                        throw new IngestionRejectedException("Очередь просмотров переполнена");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IngestionRejectedException("Ожидание места в очереди просмотров прервано");
+                }
+                break;
+            case DROP:
+                if (!queue.offer(endpointHit)) {
+                    dropped.incrementAndGet();
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(endpointHit)) {
+                    if (queue.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case REJECT:
+                if (!queue.offer(endpointHit)) {
+                    throw new IngestionRejectedException("Очередь просмотров переполнена");
+                }
+                break;
+        }
+    }
+
+    private void writeLoop() {
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        while (running) {
+            try {
+                EndpointHit first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < properties.getBatchSize()) {
+                    queue.drainTo(batch, properties.getBatchSize() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getBatchSize() || remaining <= 0) {
+                        break;
+                    }
+                    EndpointHit next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void flush() throws InterruptedException {
+        while (true) {
+            try {
+                hitWriter.saveAll(batch);
+                batch.clear();
+                return;
+            } catch (DataAccessException e) {
+                log.warn("Не удалось сохранить пакет из {} просмотров, повтор через {}", batch.size(), properties.getFlushInterval(), e);
+                if (!running) {
+                    return;
+                }
+                Thread.sleep(properties.getFlushInterval().toMillis());
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.server.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.wal.WalLog;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class HitIngestionService {
+
+    private final HitWriter hitWriter;
+    private final HitBuffer hitBuffer;
+    private final WalLog walLog;
+    private final IngestionProperties properties;
+    private final AdmissionController admissionController;
+
+    public EndpointHit add(EndpointHit endpointHit) {
+        admissionController.submit(List.of(endpointHit), this::write);
+        return endpointHit;
+    }
+
+    public void addAll(List<EndpointHit> endpointHits) {
+        admissionController.submit(endpointHits, this::write);
+    }
+
+    public int getBatchSize() {
+        return properties.getBatchSize();
+    }
+
+    private void write(List<EndpointHit> endpointHits) {
+        if (properties.getMode() == IngestionMode.WAL) {
+            walLog.appendAll(endpointHits);
+            return;
+        }
+        if (properties.getMode() == IngestionMode.ASYNC) {
+            for (EndpointHit endpointHit : endpointHits) {
+                hitBuffer.add(endpointHit);
+            }
+            return;
+        }
+        if (endpointHits.size() == 1) {
+            hitWriter.save(endpointHits.get(0));
+        } else {
+            hitWriter.saveAll(endpointHits);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.server.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.cache.StatsCache;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.partition.PartitionManager;
+import ru.practicum.server.repository.EndpointHitBatchRepository;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.repository.StatsRepository;
+import ru.practicum.server.sketch.SketchService;
+import ru.practicum.server.top.TopService;
+import ru.practicum.server.uri.UriTrie;
+import ru.practicum.server.window.HotWindow;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class HitWriter {
+
+    private final StatsRepository statsRepository;
+    private final EndpointHitBatchRepository endpointHitBatchRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final SketchService sketchService;
+    private final PartitionManager partitionManager;
+    private final HotWindow hotWindow;
+    private final StatsCache statsCache;
+    private final TopService topService;
+    private final UriTrie uriTrie;
+
+    @Transactional
+    public EndpointHit save(EndpointHit endpointHit) {
+        partitionManager.ensurePartitions(List.of(endpointHit));
+        EndpointHit saved = statsRepository.save(endpointHit);
+        saveAggregates(List.of(saved));
+        return saved;
+    }
+
+    @Transactional
+    public void saveAll(List<EndpointHit> endpointHits) {
+        partitionManager.ensurePartitions(endpointHits);
+        endpointHitBatchRepository.saveAll(endpointHits);
+        saveAggregates(endpointHits);
+    }
+
+    private void saveAggregates(List<EndpointHit> endpointHits) {
+        hitRollupRepository.increment(endpointHits);
+        if (sketchService.isEnabled()) {
+            sketchService.add(endpointHits);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                if (hotWindow.isEnabled()) {
+                    hotWindow.add(endpointHits);
+                }
+                if (uriTrie.isEnabled()) {
+                    uriTrie.add(endpointHits);
+                }
+                if (statsCache.isEnabled()) {
+                    statsCache.invalidate(endpointHits);
+                }
+                if (topService.isEnabled()) {
+                    topService.add(endpointHits);
+                }
+            }
+        });
+    }
+}
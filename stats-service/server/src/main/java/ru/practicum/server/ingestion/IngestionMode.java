@@ -0,0 +1,7 @@
+package ru.practicum.server.ingestion;
+
+public enum IngestionMode {
+    SYNC,
+    ASYNC,
+    WAL
+}
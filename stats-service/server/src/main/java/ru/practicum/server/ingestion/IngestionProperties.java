@@ -0,0 +1,17 @@
+package ru.practicum.server.ingestion;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.ingestion")
+public class IngestionProperties {
+    private IngestionMode mode = IngestionMode.SYNC;
+    private int queueCapacity = 100_000;
+    private int batchSize = 1_000;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private Duration offerTimeout = Duration.ofSeconds(1);
+}
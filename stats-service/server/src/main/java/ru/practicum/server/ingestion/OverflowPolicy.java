@@ -0,0 +1,8 @@
+package ru.practicum.server.ingestion;
+
+public enum OverflowPolicy {
+    BLOCK,
+    DROP,
+    DROP_OLDEST,
+    REJECT
+}
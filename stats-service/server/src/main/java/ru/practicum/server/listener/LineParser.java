@@ -0,0 +1,104 @@
+package ru.practicum.server.listener;
+
+import ru.practicum.server.model.EndpointHit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+class LineParser {
+
+    private static final byte SEPARATOR = '|';
+    private static final int MAX_FIELD_LENGTH = 125;
+
+    private final FieldCache apps = new FieldCache();
+    private final FieldCache uris = new FieldCache();
+    private final FieldCache ips = new FieldCache();
+    private final byte[] scratch = new byte[MAX_FIELD_LENGTH * 4];
+    private final int[] bounds = new int[8];
+
+    EndpointHit parse(ByteBuffer buffer, int from, int to) {
+        if (to > from && buffer.get(to - 1) == '\r') {
+            to--;
+        }
+        int fields = 0;
+        bounds[fields++] = from;
+        for (int i = from; i < to && fields < bounds.length; i++) {
+            if (buffer.get(i) == SEPARATOR) {
+                bounds[fields++] = i + 1;
+            }
+        }
+        if (fields < 3 || fields > 4) {
+            return null;
+        }
+        String app = apps.decode(buffer, bounds[0], bounds[1] - 1);
+        String uri = uris.decode(buffer, bounds[1], bounds[2] - 1);
+        String ip = ips.decode(buffer, bounds[2], fields == 4 ? bounds[3] - 1 : to);
+        if (app == null || uri == null || ip == null) {
+            return null;
+        }
+        LocalDateTime timestamp;
+        if (fields == 4) {
+            long millis = parseLong(buffer, bounds[3], to);
+            if (millis < 0) {
+                return null;
+            }
+            timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        } else {
+            timestamp = LocalDateTime.now();
+        }
+        EndpointHit endpointHit = new EndpointHit();
+        endpointHit.setApp(app);
+        endpointHit.setUri(uri);
+        endpointHit.setIp(ip);
+        endpointHit.setTimestamp(timestamp);
+        return endpointHit;
+    }
+
+    private long parseLong(ByteBuffer buffer, int from, int to) {
+        if (from == to || to - from > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private class FieldCache {
+        private byte[] bytes = new byte[0];
+        private String value;
+
+        String decode(ByteBuffer buffer, int from, int to) {
+            int length = to - from;
+            if (length <= 0 || length > scratch.length) {
+                return null;
+            }
+            boolean same = length == bytes.length;
+            for (int i = 0; i < length; i++) {
+                scratch[i] = buffer.get(from + i);
+                if (same && scratch[i] != bytes[i]) {
+                    same = false;
+                }
+            }
+            if (same) {
+                return value;
+            }
+            String decoded = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            if (decoded.isBlank() || decoded.length() > MAX_FIELD_LENGTH) {
+                return null;
+            }
+            bytes = Arrays.copyOf(scratch, length);
+            value = decoded;
+            return decoded;
+        }
+    }
+}
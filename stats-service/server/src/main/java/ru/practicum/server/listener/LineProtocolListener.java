@@ -0,0 +1,280 @@
+package ru.practicum.server.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.server.ingestion.IngestionProperties;
+import ru.practicum.server.mapper.EndpointHitMapper;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.service.StatsService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "stats-server.listener", name = "enabled", havingValue = "true")
+public class LineProtocolListener implements SmartLifecycle {
+
+    private static final long SELECT_TIMEOUT_MILLIS = 500;
+
+    private final StatsService statsService;
+    private final ListenerProperties properties;
+    private final int batchSize;
+    private final List<EndpointHit> batch;
+    private final ThreadPoolExecutor writer;
+    private final Counter accepted;
+    private final Counter rejected;
+    private volatile boolean running;
+    private Selector selector;
+    private Thread listener;
+
+    public LineProtocolListener(StatsService statsService, IngestionProperties ingestionProperties, ListenerProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.statsService = statsService;
+        this.properties = properties;
+        this.batchSize = ingestionProperties.getBatchSize();
+        this.batch = new ArrayList<>(batchSize);
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                runnable -> new Thread(runnable, "hit-listener-writer"));
+        this.accepted = meterRegistry.counter("stats.listener.hits", "result", "accepted");
+        this.rejected = meterRegistry.counter("stats.listener.hits", "result", "rejected");
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            if (properties.getTcpPort() > 0) {
+                ServerSocketChannel server = ServerSocketChannel.open();
+                server.configureBlocking(false);
+                server.bind(new InetSocketAddress(properties.getHost(), properties.getTcpPort()));
+                server.register(selector, SelectionKey.OP_ACCEPT);
+            }
+            if (properties.getUdpPort() > 0) {
+                DatagramChannel udp = DatagramChannel.open();
+                udp.configureBlocking(false);
+                udp.bind(new InetSocketAddress(properties.getHost(), properties.getUdpPort()));
+                udp.register(selector, SelectionKey.OP_READ, new Connection(allocateBuffer()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть порты приема просмотров", e);
+        }
+        running = true;
+        listener = new Thread(this::listenLoop, "hit-listener");
+        listener.start();
+        log.info("Прием просмотров по строковому протоколу: {} tcp {}, udp {}",
+                properties.getHost(), properties.getTcpPort(), properties.getUdpPort());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        selector.wakeup();
+        try {
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            closeQuietly(key);
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть селектор приема просмотров", e);
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Не все принятые по строковому протоколу просмотры записаны за {}", properties.getShutdownTimeout());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept(key);
+                    } else if (key.isReadable()) {
+                        read(key);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Ошибка приема просмотров", e);
+            }
+            flush();
+        }
+        flush();
+    }
+
+    private void accept(SelectionKey key) throws IOException {
+        SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(allocateBuffer()));
+        }
+    }
+
+    private void read(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        ByteBuffer buffer = connection.buffer;
+        try {
+            if (key.channel() instanceof DatagramChannel) {
+                DatagramChannel channel = (DatagramChannel) key.channel();
+                buffer.clear();
+                while (channel.receive(buffer) != null) {
+                    buffer.flip();
+                    parseLines(connection, true);
+                    buffer.clear();
+                }
+                return;
+            }
+            int read = ((SocketChannel) key.channel()).read(buffer);
+            buffer.flip();
+            parseLines(connection, read < 0);
+            buffer.compact();
+            if (!buffer.hasRemaining()) {
+                if (!connection.discarding) {
+                    rejected.increment();
+                }
+                connection.discarding = true;
+                buffer.clear();
+            }
+            if (read < 0) {
+                closeQuietly(key);
+            }
+        } catch (IOException e) {
+            log.debug("Соединение приема просмотров закрыто с ошибкой", e);
+            closeQuietly(key);
+        }
+    }
+
+    private void parseLines(Connection connection, boolean lastLineComplete) {
+        ByteBuffer buffer = connection.buffer;
+        int lineStart = buffer.position();
+        int limit = buffer.limit();
+        for (int i = lineStart; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(connection, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (lastLineComplete && lineStart < limit) {
+            parseLine(connection, lineStart, limit);
+            lineStart = limit;
+        }
+        buffer.position(lineStart);
+    }
+
+    private void parseLine(Connection connection, int from, int to) {
+        if (connection.discarding) {
+            connection.discarding = false;
+            return;
+        }
+        if (from == to) {
+            return;
+        }
+        EndpointHit endpointHit = connection.parser.parse(connection.buffer, from, to);
+        if (endpointHit == null) {
+            rejected.increment();
+            return;
+        }
+        batch.add(endpointHit);
+        if (batch.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<EndpointHitDto> endpointHits = batch.stream().map(EndpointHitMapper::toEndpointHitDto).collect(Collectors.toList());
+        batch.clear();
+        try {
+            writer.execute(() -> write(endpointHits));
+        } catch (RejectedExecutionException e) {
+            rejected.increment(endpointHits.size());
+            log.warn("Очередь записи просмотров заполнена, отброшено {} просмотров", endpointHits.size());
+        }
+    }
+
+    private void write(List<EndpointHitDto> endpointHits) {
+        try {
+            EndpointHitsResultDto result = statsService.addEndpointHits(endpointHits);
+            accepted.increment(result.getAccepted());
+            rejected.increment(result.getRejected());
+        } catch (RuntimeException e) {
+            rejected.increment(endpointHits.size());
+            log.warn("Не удалось принять {} просмотров: {}", endpointHits.size(), e.getMessage());
+        }
+    }
+
+    private ByteBuffer allocateBuffer() {
+        return ByteBuffer.allocateDirect((int) properties.getBufferSize().toBytes());
+    }
+
+    private void closeQuietly(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+            log.debug("Не удалось закрыть канал приема просмотров", e);
+        }
+    }
+
+    private static class Connection {
+        private final ByteBuffer buffer;
+        private final LineParser parser = new LineParser();
+        private boolean discarding;
+
+        Connection(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
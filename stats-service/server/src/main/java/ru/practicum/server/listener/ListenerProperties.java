@@ -0,0 +1,19 @@
+package ru.practicum.server.listener;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.listener")
+public class ListenerProperties {
+    private boolean enabled = false;
+    private String host = "0.0.0.0";
+    private int tcpPort = 9091;
+    private int udpPort = 9091;
+    private DataSize bufferSize = DataSize.ofKilobytes(64);
+    private int queueCapacity = 16;
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+}
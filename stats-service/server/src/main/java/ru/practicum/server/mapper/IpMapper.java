@@ -0,0 +1,93 @@
+package ru.practicum.server.mapper;
+
+import lombok.experimental.UtilityClass;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+@UtilityClass
+public class IpMapper {
+
+    private static final int IPV4_LENGTH = 4;
+    private static final int IPV6_LENGTH = 16;
+    private static final byte TEXT_MARKER = (byte) 0xFF;
+
+    public byte[] toBytes(String ip) {
+        byte[] address = parseIpv4(ip);
+        if (address == null && ip.indexOf(':') >= 0) {
+            address = parseIpv6(ip);
+        }
+        if (address != null) {
+            return address;
+        }
+        byte[] text = ip.getBytes(StandardCharsets.UTF_8);
+        int prefix = text.length + 1 == IPV4_LENGTH || text.length + 1 == IPV6_LENGTH ? 2 : 1;
+        byte[] result = new byte[text.length + prefix];
+        Arrays.fill(result, 0, prefix, TEXT_MARKER);
+        System.arraycopy(text, 0, result, prefix, text.length);
+        return result;
+    }
+
+    public String toIp(byte[] bytes) {
+        if (bytes.length == IPV4_LENGTH) {
+            return (bytes[0] & 0xff) + "." + (bytes[1] & 0xff) + "." + (bytes[2] & 0xff) + "." + (bytes[3] & 0xff);
+        }
+        if (bytes.length == IPV6_LENGTH) {
+            try {
+                return InetAddress.getByAddress(bytes).getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        int offset = 0;
+        while (offset < bytes.length && bytes[offset] == TEXT_MARKER) {
+            offset++;
+        }
+        return new String(bytes, offset, bytes.length - offset, StandardCharsets.UTF_8);
+    }
+
+    public String normalize(String ip) {
+        return ip == null ? null : toIp(toBytes(ip));
+    }
+
+    private byte[] parseIpv4(String ip) {
+        byte[] address = new byte[IPV4_LENGTH];
+        int part = 0;
+        int value = -1;
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return null;
+                }
+            } else if (c == '.' && value >= 0 && part < IPV4_LENGTH - 1) {
+                address[part++] = (byte) value;
+                value = -1;
+            } else {
+                return null;
+            }
+        }
+        if (value < 0 || part != IPV4_LENGTH - 1) {
+            return null;
+        }
+        address[part] = (byte) value;
+        return address;
+    }
+
+    private byte[] parseIpv6(String ip) {
+        for (int i = 0; i < ip.length(); i++) {
+            char c = ip.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.' && c != '[' && c != ']') {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.server.parallel;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.parallel-query")
+public class ParallelQueryProperties {
+    private boolean enabled = true;
+    private Duration threshold = Duration.ofDays(7);
+    private Duration slice = Duration.ofDays(1);
+    private int parallelism = 0;
+}
@@ -0,0 +1,117 @@
+package ru.practicum.server.parallel;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.dictionary.DictionaryCache;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.repository.StatsRepository;
+import ru.practicum.server.unique.ExactUniqueCounter;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+@Slf4j
+@Component
+public class ParallelStatsAggregator {
+
+    private final StatsRepository statsRepository;
+    private final DictionaryCache dictionaryCache;
+    private final ExactUniqueCounter exactUniqueCounter;
+    private final ParallelQueryProperties properties;
+    private final ForkJoinPool pool;
+
+    public ParallelStatsAggregator(StatsRepository statsRepository, DictionaryCache dictionaryCache,
+                                   ExactUniqueCounter exactUniqueCounter, ParallelQueryProperties properties) {
+        this.statsRepository = statsRepository;
+        this.dictionaryCache = dictionaryCache;
+        this.exactUniqueCounter = exactUniqueCounter;
+        this.properties = properties;
+        int parallelism = properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(parallelism);
+        log.info("Параллельная агрегация статистики: {} потоков, порог {}, срез {}", parallelism, properties.getThreshold(), properties.getSlice());
+    }
+
+    public boolean accepts(LocalDateTime start, LocalDateTime end, boolean unique) {
+        return properties.isEnabled() && pool.getParallelism() > 1 && (!unique || exactUniqueCounter.isEnabled())
+                && Duration.between(start, end).compareTo(properties.getThreshold()) >= 0;
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime endExclusive, List<String> uris, boolean unique) {
+        List<Integer> uriIds = null;
+        if (uris != null) {
+            uriIds = dictionaryCache.findIds(Dictionary.URIS, uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+        }
+        List<StatsSlice> slices = unique ? ipSlices(start, endExclusive) : timeSlices(start, endExclusive);
+        List<Integer> filter = uriIds;
+        Map<AppUri, Long> merged;
+        try {
+            merged = pool.submit(() -> slices.parallelStream()
+                    .map(slice -> unique
+                            ? exactUniqueCounter.getStats(slice, filter)
+                            : statsRepository.getSliceStats(slice, filter, false))
+                    .collect(HashMap<AppUri, Long>::new, ParallelStatsAggregator::merge, ParallelStatsAggregator::merge)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Прервано ожидание параллельной агрегации", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+        List<ViewStatsDto> stats = new ArrayList<>(merged.size());
+        merged.forEach((appUri, hits) -> stats.add(new ViewStatsDto(appUri.getApp(), appUri.getUri(), hits)));
+        stats.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return stats;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdown();
+    }
+
+    private List<StatsSlice> timeSlices(LocalDateTime start, LocalDateTime endExclusive) {
+        List<StatsSlice> slices = new ArrayList<>();
+        for (LocalDateTime from = start; from.isBefore(endExclusive); ) {
+            LocalDateTime to = from.plus(properties.getSlice());
+            if (to.isAfter(endExclusive)) {
+                to = endExclusive;
+            }
+            slices.add(new StatsSlice(from, to, 1, 0));
+            from = to;
+        }
+        return slices;
+    }
+
+    private List<StatsSlice> ipSlices(LocalDateTime start, LocalDateTime endExclusive) {
+        int parts = pool.getParallelism();
+        List<StatsSlice> slices = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            slices.add(new StatsSlice(start, endExclusive, parts, part));
+        }
+        return slices;
+    }
+
+    private static void merge(Map<AppUri, Long> target, List<ViewStatsDto> stats) {
+        for (ViewStatsDto row : stats) {
+            target.merge(new AppUri(row.getApp(), row.getUri()), row.getHits(), Long::sum);
+        }
+    }
+
+    private static void merge(Map<AppUri, Long> target, Map<AppUri, Long> other) {
+        other.forEach((key, hits) -> target.merge(key, hits, Long::sum));
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.server.parallel;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class StatsSlice {
+    LocalDateTime start;
+    LocalDateTime end;
+    int ipParts;
+    int ipPart;
+}
@@ -0,0 +1,143 @@
+package ru.practicum.server.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.PartitionRepository;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@Slf4j
+@Component
+public class PartitionManager {
+
+    private static final String PARTITION_PREFIX = PartitionRepository.TABLE + "_p";
+    private static final DateTimeFormatter UNALIGNED_NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final PartitionRepository partitionRepository;
+    private final PartitionProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentNavigableMap<LocalDateTime, PartitionRange> partitions = new ConcurrentSkipListMap<>();
+
+    public PartitionManager(PartitionRepository partitionRepository, PartitionProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.partitionRepository = partitionRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+        premake();
+    }
+
+    public void ensurePartitions(List<EndpointHit> endpointHits) {
+        for (EndpointHit endpointHit : endpointHits) {
+            if (!isCovered(endpointHit.getTimestamp())) {
+                create(endpointHit.getTimestamp());
+            }
+        }
+    }
+
+    @Scheduled(cron = "${stats-server.partitions.maintenance-cron:0 5 0 * * *}")
+    public void maintain() {
+        reload();
+        premake();
+        applyRetention();
+    }
+
+    private void reload() {
+        partitions.clear();
+        for (PartitionRange partition : partitionRepository.findPartitions()) {
+            partitions.put(partition.getStart(), partition);
+        }
+    }
+
+    private void premake() {
+        LocalDateTime start = properties.getInterval().floor(LocalDateTime.now());
+        for (int i = 0; i <= properties.getPremake(); i++) {
+            LocalDateTime timestamp = start.plus(i, properties.getInterval().getUnit());
+            if (!isCovered(timestamp)) {
+                create(timestamp);
+            }
+        }
+    }
+
+    private void applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        if (properties.getRetentionAction() != RetentionAction.NONE) {
+            LocalDateTime cutoff = now.minus(properties.getRetention());
+            for (PartitionRange partition : new ArrayList<>(partitions.values())) {
+                if (partition.getEnd().isAfter(cutoff)) {
+                    continue;
+                }
+                if (properties.getRetentionAction() == RetentionAction.DETACH) {
+                    transactionTemplate.executeWithoutResult(status -> partitionRepository.detachPartition(partition.getName()));
+                    log.info("Секция {} отключена в архив", partition.getName());
+                } else {
+                    transactionTemplate.executeWithoutResult(status -> partitionRepository.dropPartition(partition.getName()));
+                    log.info("Секция {} удалена", partition.getName());
+                }
+                partitions.remove(partition.getStart());
+            }
+        }
+        if (properties.getMinuteRollupRetention() != null) {
+            Integer deleted = transactionTemplate.execute(status ->
+                    partitionRepository.deleteMinuteRollupsBefore(now.minus(properties.getMinuteRollupRetention())));
+            log.info("Удалено {} поминутных агрегатов, старше {}", deleted, properties.getMinuteRollupRetention());
+        }
+    }
+
+    private boolean isCovered(LocalDateTime timestamp) {
+        Map.Entry<LocalDateTime, PartitionRange> entry = partitions.floorEntry(timestamp);
+        return entry != null && entry.getValue().contains(timestamp);
+    }
+
+    private synchronized void create(LocalDateTime timestamp) {
+        if (isCovered(timestamp)) {
+            return;
+        }
+        LocalDateTime start = properties.getInterval().floor(timestamp);
+        LocalDateTime end = properties.getInterval().next(timestamp);
+        Map.Entry<LocalDateTime, PartitionRange> lower = partitions.floorEntry(timestamp);
+        if (lower != null && lower.getValue().getEnd().isAfter(start)) {
+            start = lower.getValue().getEnd();
+        }
+        Map.Entry<LocalDateTime, PartitionRange> higher = partitions.higherEntry(timestamp);
+        if (higher != null && higher.getKey().isBefore(end)) {
+            end = higher.getKey();
+        }
+        PartitionRange partition = new PartitionRange(name(start), start, end);
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    partitionRepository.createPartition(partition.getName(), partition.getStart(), partition.getEnd()));
+            partitions.put(partition.getStart(), partition);
+        } catch (DataAccessException e) {
+            reload();
+            if (!isCovered(timestamp)) {
+                throw e;
+            }
+        }
+    }
+
+    private String name(LocalDateTime start) {
+        PartitionInterval interval = properties.getInterval();
+        return PARTITION_PREFIX + (interval.floor(start).equals(start)
+                ? start.format(interval.getNameFormatter())
+                : start.format(UNALIGNED_NAME_FORMATTER));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.server.partition;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.partitions")
+public class PartitionProperties {
+    private PartitionInterval interval = PartitionInterval.DAY;
+    private int premake = 3;
+    private RetentionAction retentionAction = RetentionAction.NONE;
+    private Duration retention = Duration.ofDays(400);
+    private Duration minuteRollupRetention;
+}
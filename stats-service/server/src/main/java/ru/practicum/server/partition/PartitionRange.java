@@ -0,0 +1,16 @@
+package ru.practicum.server.partition;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class PartitionRange {
+    String name;
+    LocalDateTime start;
+    LocalDateTime end;
+
+    public boolean contains(LocalDateTime timestamp) {
+        return !timestamp.isBefore(start) && timestamp.isBefore(end);
+    }
+}
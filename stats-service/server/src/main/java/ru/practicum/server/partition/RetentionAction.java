@@ -0,0 +1,7 @@
+package ru.practicum.server.partition;
+
+public enum RetentionAction {
+    NONE,
+    DETACH,
+    DROP
+}
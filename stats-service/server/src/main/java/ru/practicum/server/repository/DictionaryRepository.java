@@ -0,0 +1,54 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.dictionary.Dictionary;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class DictionaryRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public Map<String, Integer> findAll(Dictionary dictionary) {
+        Map<String, Integer> ids = new HashMap<>();
+        namedParameterJdbcTemplate.getJdbcTemplate().query("SELECT id, name FROM " + dictionary.getTable(),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getInt("id")));
+        return ids;
+    }
+
+    public Map<String, Integer> findIds(Dictionary dictionary, Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, name FROM " + dictionary.getTable() + " WHERE name IN (:names)",
+                new MapSqlParameterSource("names", names),
+                (RowCallbackHandler) rs -> ids.put(rs.getString("name"), rs.getInt("id")));
+        return ids;
+    }
+
+    public Map<Integer, String> findNames(Dictionary dictionary, Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        namedParameterJdbcTemplate.query("SELECT id, name FROM " + dictionary.getTable() + " WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", ids),
+                (RowCallbackHandler) rs -> names.put(rs.getInt("id"), rs.getString("name")));
+        return names;
+    }
+
+    public Integer findId(Dictionary dictionary, String name) {
+        List<Integer> ids = namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForList("SELECT id FROM " + dictionary.getTable() + " WHERE name = ?", Integer.class, name);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    public void insertIfAbsent(Dictionary dictionary, String name) {
+        namedParameterJdbcTemplate.getJdbcTemplate()
+                .update("INSERT INTO " + dictionary.getTable() + " (name) VALUES (?) ON CONFLICT (name) DO NOTHING", name);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.dictionary.DictionaryCache;
+import ru.practicum.server.mapper.IpMapper;
+import ru.practicum.server.model.EndpointHit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class EndpointHitBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO hits (timestamp, app_id, uri_id, ip) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DictionaryCache dictionaryCache;
+
+    public void saveAll(List<EndpointHit> hits) {
+        int[] appIds = new int[hits.size()];
+        int[] uriIds = new int[hits.size()];
+        Map<String, Integer> apps = new HashMap<>();
+        Map<String, Integer> uris = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            appIds[i] = apps.computeIfAbsent(hits.get(i).getApp(), app -> dictionaryCache.getOrCreateId(Dictionary.APPS, app));
+            uriIds[i] = uris.computeIfAbsent(hits.get(i).getUri(), uri -> dictionaryCache.getOrCreateId(Dictionary.URIS, uri));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                EndpointHit hit = hits.get(i);
+                ps.setTimestamp(1, Timestamp.valueOf(hit.getTimestamp()));
+                ps.setInt(2, appIds[i]);
+                ps.setInt(3, uriIds[i]);
+                ps.setBytes(4, IpMapper.toBytes(hit.getIp()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return hits.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,193 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.rollup.BucketKey;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupSegment;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitRollupRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO %s (app, uri, bucket, hits) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (app, uri, bucket) DO UPDATE SET hits = %<s.hits + EXCLUDED.hits";
+
+    private static final List<RollupGranularity> GRANULARITIES = List.of(RollupGranularity.MINUTE, RollupGranularity.HOUR, RollupGranularity.DAY);
+
+    private static final int BUCKET_FETCH_SIZE = 10_000;
+    private static final RowMapper<ViewStatsDto> VIEW_STATS_ROW_MAPPER =
+            (rs, rowNum) -> new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void increment(List<EndpointHit> hits) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            Map<BucketKey, Long> buckets = new TreeMap<>();
+            for (EndpointHit hit : hits) {
+                buckets.merge(new BucketKey(hit.getApp(), hit.getUri(), hit.getTimestamp().truncatedTo(granularity.getUnit())), 1L, Long::sum);
+            }
+            List<Map.Entry<BucketKey, Long>> entries = new ArrayList<>(buckets.entrySet());
+            namedParameterJdbcTemplate.getJdbcTemplate().batchUpdate(String.format(UPSERT_SQL, granularity.getTable()),
+                    entries, entries.size(), (ps, entry) -> {
+                        ps.setString(1, entry.getKey().getApp());
+                        ps.setString(2, entry.getKey().getUri());
+                        ps.setTimestamp(3, Timestamp.valueOf(entry.getKey().getBucket()));
+                        ps.setLong(4, entry.getValue());
+                    });
+        }
+    }
+
+    public void rebuild(LocalDateTime start, LocalDateTime end) {
+        JdbcTemplate jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        for (RollupGranularity granularity : GRANULARITIES) {
+            String unit = granularity.name().toLowerCase();
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable() + " WHERE bucket >= ? AND bucket < ?",
+                    Timestamp.valueOf(start), Timestamp.valueOf(end));
+            jdbcTemplate.update("INSERT INTO " + granularity.getTable() + " (app, uri, bucket, hits) " +
+                            "SELECT a.name, u.name, h.bucket, h.hits FROM (" +
+                            "SELECT app_id, uri_id, date_trunc('" + unit + "', timestamp) AS bucket, COUNT(*) AS hits FROM hits " +
+                            "WHERE timestamp >= ? AND timestamp < ? GROUP BY app_id, uri_id, date_trunc('" + unit + "', timestamp)) h " +
+                            "JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id",
+                    Timestamp.valueOf(start), Timestamp.valueOf(end));
+        }
+    }
+
+    public void forEachSecondBucket(LocalDateTime start, BiConsumer<BucketKey, Long> consumer) {
+        String sql = "SELECT a.name AS app, u.name AS uri, h.bucket, h.hits FROM (" +
+                "SELECT app_id, uri_id, CASE WHEN timestamp = date_trunc('second', timestamp) THEN timestamp " +
+                "ELSE date_trunc('second', timestamp) + INTERVAL '1 microsecond' END AS bucket, COUNT(*) AS hits FROM hits " +
+                "WHERE timestamp >= ? GROUP BY app_id, uri_id, bucket) h " +
+                "JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id";
+        namedParameterJdbcTemplate.getJdbcTemplate().query(sql, (RowCallbackHandler) rs -> consumer.accept(
+                new BucketKey(rs.getString("app"), rs.getString("uri"), rs.getTimestamp("bucket").toLocalDateTime()),
+                rs.getLong("hits")), Timestamp.valueOf(start));
+    }
+
+    public void forEachBucket(RollupGranularity granularity, BiConsumer<BucketKey, Long> consumer) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        jdbcTemplate.setFetchSize(BUCKET_FETCH_SIZE);
+        jdbcTemplate.query("SELECT app, uri, bucket, hits FROM " + granularity.getTable() + " ORDER BY bucket",
+                (RowCallbackHandler) rs -> consumer.accept(
+                        new BucketKey(rs.getString("app"), rs.getString("uri"), rs.getTimestamp("bucket").toLocalDateTime()),
+                        rs.getLong("hits")));
+    }
+
+    public Map<LocalDateTime, Long> getBucketTotals(RollupGranularity granularity, LocalDateTime start) {
+        Map<LocalDateTime, Long> totals = new TreeMap<>();
+        namedParameterJdbcTemplate.getJdbcTemplate().query(
+                "SELECT bucket, SUM(hits) AS hits FROM " + granularity.getTable() + " WHERE bucket >= ? GROUP BY bucket",
+                (RowCallbackHandler) rs -> totals.put(rs.getTimestamp("bucket").toLocalDateTime(), rs.getLong("hits")),
+                Timestamp.valueOf(start));
+        return totals;
+    }
+
+    public void forEachUriTotal(boolean fromRollups, BiConsumer<String, Long> consumer) {
+        String sql = fromRollups
+                ? "SELECT uri, SUM(hits) AS hits FROM " + RollupGranularity.DAY.getTable() + " GROUP BY uri"
+                : "SELECT u.name AS uri, h.hits FROM (SELECT uri_id, COUNT(*) AS hits FROM hits GROUP BY uri_id) h " +
+                "JOIN uris u ON u.id = h.uri_id";
+        namedParameterJdbcTemplate.getJdbcTemplate().query(sql,
+                (RowCallbackHandler) rs -> consumer.accept(rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    public List<ViewStatsDto> getStats(List<RollupSegment> segments, List<String> uris) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String sql = buildStatsQuery(segments, uris, parameters);
+        return namedParameterJdbcTemplate.query(sql, parameters, VIEW_STATS_ROW_MAPPER);
+    }
+
+    public void forEachStats(List<RollupSegment> segments, int fetchSize, Consumer<ViewStatsDto> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        String sql = buildStatsQuery(segments, null, parameters);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        jdbcTemplate.setFetchSize(fetchSize);
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(sql, parameters,
+                (RowCallbackHandler) rs -> consumer.accept(VIEW_STATS_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    public void forEachSeriesBucket(List<RollupSegment> segments, RollupGranularity interval, List<String> uris, boolean unique,
+                                    BiConsumer<BucketKey, Long> consumer) {
+        String unit = interval.name().toLowerCase();
+        MapSqlParameterSource parameters = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder("SELECT app, uri, bucket, SUM(hits) AS hits FROM (");
+        for (int i = 0; i < segments.size(); i++) {
+            RollupSegment segment = segments.get(i);
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            if (segment.isRaw()) {
+                sql.append("SELECT a.name AS app, u.name AS uri, date_trunc('").append(unit).append("', h.timestamp) AS bucket, ")
+                        .append(unique ? "COUNT(DISTINCT h.ip)" : "COUNT(*)").append(" AS hits FROM hits h ")
+                        .append("JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id ")
+                        .append("WHERE h.timestamp >= :start").append(i).append(" AND h.timestamp < :end").append(i);
+                if (uris != null) {
+                    sql.append(" AND u.name IN (:uris)");
+                }
+                sql.append(" GROUP BY a.name, u.name, date_trunc('").append(unit).append("', h.timestamp)");
+            } else {
+                sql.append("SELECT app, uri, date_trunc('").append(unit).append("', bucket) AS bucket, SUM(hits) AS hits FROM ")
+                        .append(segment.getGranularity().getTable())
+                        .append(" WHERE bucket >= :start").append(i).append(" AND bucket < :end").append(i);
+                if (uris != null) {
+                    sql.append(" AND uri IN (:uris)");
+                }
+                sql.append(" GROUP BY app, uri, date_trunc('").append(unit).append("', bucket)");
+            }
+            parameters.addValue("start" + i, Timestamp.valueOf(segment.getStart()));
+            parameters.addValue("end" + i, Timestamp.valueOf(segment.getEnd()));
+        }
+        sql.append(") s GROUP BY app, uri, bucket");
+        parameters.addValue("uris", uris);
+        namedParameterJdbcTemplate.query(sql.toString(), parameters, (RowCallbackHandler) rs -> consumer.accept(
+                new BucketKey(rs.getString("app"), rs.getString("uri"), rs.getTimestamp("bucket").toLocalDateTime()),
+                rs.getLong("hits")));
+    }
+
+    private String buildStatsQuery(List<RollupSegment> segments, List<String> uris, MapSqlParameterSource parameters) {
+        StringBuilder sql = new StringBuilder("SELECT app, uri, SUM(hits) AS hits FROM (");
+        for (int i = 0; i < segments.size(); i++) {
+            RollupSegment segment = segments.get(i);
+            if (i > 0) {
+                sql.append(" UNION ALL ");
+            }
+            if (segment.isRaw()) {
+                sql.append("SELECT a.name AS app, u.name AS uri, COUNT(*) AS hits FROM hits h ")
+                        .append("JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id ")
+                        .append("WHERE h.timestamp >= :start").append(i).append(" AND h.timestamp < :end").append(i);
+                if (uris != null) {
+                    sql.append(" AND u.name IN (:uris)");
+                }
+                sql.append(" GROUP BY a.name, u.name");
+            } else {
+                sql.append("SELECT app, uri, SUM(hits) AS hits FROM ").append(segment.getGranularity().getTable())
+                        .append(" WHERE bucket >= :start").append(i).append(" AND bucket < :end").append(i);
+                if (uris != null) {
+                    sql.append(" AND uri IN (:uris)");
+                }
+                sql.append(" GROUP BY app, uri");
+            }
+            parameters.addValue("start" + i, Timestamp.valueOf(segment.getStart()));
+            parameters.addValue("end" + i, Timestamp.valueOf(segment.getEnd()));
+        }
+        sql.append(") s GROUP BY app, uri ORDER BY SUM(hits) DESC");
+        parameters.addValue("uris", uris);
+        return sql.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.mapper.IpMapper;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.rollup.BucketKey;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupSegment;
+import ru.practicum.server.sketch.HyperLogLog;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitSketchRepository {
+
+    private static final byte[] EMPTY_REGISTERS = new byte[0];
+    private static final int BACKFILL_FETCH_SIZE = 10_000;
+    private static final String ENSURE_SQL = "INSERT INTO %s (app, uri, bucket, registers) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (app, uri, bucket) DO NOTHING";
+    private static final String LOCK_SQL = "SELECT s.app, s.uri, s.bucket, s.registers FROM %s s " +
+            "JOIN UNNEST(?::varchar[], ?::varchar[], ?::timestamp[]) AS k(app, uri, bucket) " +
+            "ON s.app = k.app AND s.uri = k.uri AND s.bucket = k.bucket " +
+            "ORDER BY s.app, s.uri, s.bucket FOR UPDATE OF s";
+    private static final String UPDATE_SQL = "UPDATE %s SET registers = ? WHERE app = ? AND uri = ? AND bucket = ?";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void merge(RollupGranularity granularity, Map<BucketKey, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        JdbcTemplate jdbcTemplate = namedParameterJdbcTemplate.getJdbcTemplate();
+        List<BucketKey> keys = new ArrayList<>(sketches.keySet());
+        jdbcTemplate.batchUpdate(String.format(ENSURE_SQL, granularity.getSketchTable()), keys, keys.size(), (ps, key) -> {
+            ps.setString(1, key.getApp());
+            ps.setString(2, key.getUri());
+            ps.setTimestamp(3, Timestamp.valueOf(key.getBucket()));
+            ps.setBytes(4, EMPTY_REGISTERS);
+        });
+        String[] apps = new String[keys.size()];
+        String[] uris = new String[keys.size()];
+        Timestamp[] buckets = new Timestamp[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            apps[i] = keys.get(i).getApp();
+            uris[i] = keys.get(i).getUri();
+            buckets[i] = Timestamp.valueOf(keys.get(i).getBucket());
+        }
+        jdbcTemplate.query(String.format(LOCK_SQL, granularity.getSketchTable()), ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("varchar", apps));
+            ps.setArray(2, connection.createArrayOf("varchar", uris));
+            ps.setArray(3, connection.createArrayOf("timestamp", buckets));
+        }, (RowCallbackHandler) rs -> {
+            byte[] registers = rs.getBytes("registers");
+            if (registers.length > 0) {
+                BucketKey key = new BucketKey(rs.getString("app"), rs.getString("uri"), rs.getTimestamp("bucket").toLocalDateTime());
+                sketches.put(key, sketches.get(key).union(HyperLogLog.fromBytes(registers)));
+            }
+        });
+        jdbcTemplate.batchUpdate(String.format(UPDATE_SQL, granularity.getSketchTable()), keys, keys.size(), (ps, key) -> {
+            ps.setBytes(1, sketches.get(key).toBytes());
+            ps.setString(2, key.getApp());
+            ps.setString(3, key.getUri());
+            ps.setTimestamp(4, Timestamp.valueOf(key.getBucket()));
+        });
+    }
+
+    public void forEachSketch(RollupSegment segment, List<String> uris, BiConsumer<AppUri, HyperLogLog> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(segment.getStart()))
+                .addValue("end", Timestamp.valueOf(segment.getEnd()))
+                .addValue("uris", uris);
+        String sql = "SELECT app, uri, registers FROM " + segment.getGranularity().getSketchTable() +
+                " WHERE bucket >= :start AND bucket < :end" + (uris != null ? " AND uri IN (:uris)" : "");
+        namedParameterJdbcTemplate.query(sql, parameters, (RowCallbackHandler) rs -> {
+            byte[] registers = rs.getBytes("registers");
+            if (registers.length > 0) {
+                consumer.accept(new AppUri(rs.getString("app"), rs.getString("uri")), HyperLogLog.fromBytes(registers));
+            }
+        });
+    }
+
+    public void forEachDistinctIp(RollupSegment segment, List<String> uris, BiConsumer<AppUri, String> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(segment.getStart()))
+                .addValue("end", Timestamp.valueOf(segment.getEnd()))
+                .addValue("uris", uris);
+        String sql = "SELECT DISTINCT a.name AS app, u.name AS uri, h.ip FROM hits h " +
+                "JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id " +
+                "WHERE h.timestamp >= :start AND h.timestamp < :end" + (uris != null ? " AND u.name IN (:uris)" : "");
+        namedParameterJdbcTemplate.query(sql, parameters, (RowCallbackHandler) rs ->
+                consumer.accept(new AppUri(rs.getString("app"), rs.getString("uri")), IpMapper.toIp(rs.getBytes("ip"))));
+    }
+
+    public boolean isEmpty(RollupGranularity granularity) {
+        Boolean exists = namedParameterJdbcTemplate.getJdbcTemplate()
+                .queryForObject("SELECT EXISTS (SELECT 1 FROM " + granularity.getSketchTable() + ")", Boolean.class);
+        return !Boolean.TRUE.equals(exists);
+    }
+
+    public LocalDateTime[] findHitRange() {
+        return namedParameterJdbcTemplate.getJdbcTemplate().queryForObject("SELECT MIN(timestamp), MAX(timestamp) FROM hits",
+                (rs, rowNum) -> rs.getTimestamp(1) == null ? null
+                        : new LocalDateTime[]{rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()});
+    }
+
+    public void forEachHit(LocalDateTime start, LocalDateTime end, RowCallbackHandler handler) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        jdbcTemplate.setFetchSize(BACKFILL_FETCH_SIZE);
+        jdbcTemplate.query("SELECT a.name AS app, u.name AS uri, h.ip, h.timestamp FROM hits h " +
+                        "JOIN apps a ON a.id = h.app_id JOIN uris u ON u.id = h.uri_id " +
+                        "WHERE h.timestamp >= ? AND h.timestamp < ?", handler,
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+}
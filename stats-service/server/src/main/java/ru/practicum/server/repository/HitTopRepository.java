@@ -0,0 +1,91 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.top.SpaceSaving;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class HitTopRepository {
+
+    private static final String ENSURE_SQL = "INSERT INTO %s (bucket, summary) VALUES (?, ?) ON CONFLICT (bucket) DO NOTHING";
+    private static final String LOCK_SQL = "SELECT bucket, summary FROM %s WHERE bucket = ANY (?) ORDER BY bucket FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE %s SET summary = ? WHERE bucket = ?";
+    private static final String REPLACE_SQL = "INSERT INTO %s (bucket, summary) VALUES (?, ?) " +
+            "ON CONFLICT (bucket) DO UPDATE SET summary = EXCLUDED.summary";
+    private static final byte[] EMPTY_SUMMARY = new byte[0];
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void merge(RollupGranularity granularity, Map<LocalDateTime, SpaceSaving> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        List<LocalDateTime> buckets = new ArrayList<>(summaries.keySet());
+        jdbcTemplate.batchUpdate(String.format(ENSURE_SQL, granularity.getTopTable()), buckets, buckets.size(), (ps, bucket) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(bucket));
+            ps.setBytes(2, EMPTY_SUMMARY);
+        });
+        Timestamp[] timestamps = buckets.stream().map(Timestamp::valueOf).toArray(Timestamp[]::new);
+        jdbcTemplate.query(String.format(LOCK_SQL, granularity.getTopTable()), ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("timestamp", timestamps));
+        }, (RowCallbackHandler) rs -> {
+            byte[] summary = rs.getBytes("summary");
+            if (summary.length > 0) {
+                LocalDateTime bucket = rs.getTimestamp("bucket").toLocalDateTime();
+                summaries.put(bucket, summaries.get(bucket).merge(SpaceSaving.fromBytes(summary)));
+            }
+        });
+        jdbcTemplate.batchUpdate(String.format(UPDATE_SQL, granularity.getTopTable()), buckets, buckets.size(), (ps, bucket) -> {
+            ps.setBytes(1, summaries.get(bucket).toBytes());
+            ps.setTimestamp(2, Timestamp.valueOf(bucket));
+        });
+    }
+
+    public void replace(RollupGranularity granularity, Map<LocalDateTime, SpaceSaving> summaries) {
+        List<LocalDateTime> buckets = new ArrayList<>(summaries.keySet());
+        jdbcTemplate.batchUpdate(String.format(REPLACE_SQL, granularity.getTopTable()), buckets, buckets.size(), (ps, bucket) -> {
+            ps.setTimestamp(1, Timestamp.valueOf(bucket));
+            ps.setBytes(2, summaries.get(bucket).toBytes());
+        });
+    }
+
+    public Map<LocalDateTime, Long> getTotals(RollupGranularity granularity, LocalDateTime start) {
+        Map<LocalDateTime, Long> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT bucket, summary FROM " + granularity.getTopTable() + " WHERE bucket >= ?",
+                (RowCallbackHandler) rs -> {
+                    byte[] summary = rs.getBytes("summary");
+                    totals.put(rs.getTimestamp("bucket").toLocalDateTime(),
+                            summary.length > 0 ? SpaceSaving.fromBytes(summary).getTotal() : 0L);
+                }, Timestamp.valueOf(start));
+        return totals;
+    }
+
+    public void forEachSummary(RollupGranularity granularity, LocalDateTime start, LocalDateTime end, Consumer<SpaceSaving> consumer) {
+        jdbcTemplate.query("SELECT summary FROM " + granularity.getTopTable() + " WHERE bucket >= ? AND bucket < ?",
+                (RowCallbackHandler) rs -> {
+                    byte[] summary = rs.getBytes("summary");
+                    if (summary.length > 0) {
+                        consumer.accept(SpaceSaving.fromBytes(summary));
+                    }
+                }, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public boolean isEmpty(RollupGranularity granularity) {
+        Boolean exists = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + granularity.getTopTable() + ")", Boolean.class);
+        return !Boolean.TRUE.equals(exists);
+    }
+}
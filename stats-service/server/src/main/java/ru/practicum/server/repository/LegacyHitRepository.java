@@ -0,0 +1,47 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Repository
+@RequiredArgsConstructor
+public class LegacyHitRepository {
+
+    public static final String TABLE = "endpoint_hits";
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean exists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, TABLE));
+    }
+
+    public LocalDateTime[] findRange() {
+        return jdbcTemplate.queryForObject("SELECT MIN(timestamp), MAX(timestamp) FROM " + TABLE,
+                (rs, rowNum) -> rs.getTimestamp(1) == null ? null
+                        : new LocalDateTime[]{rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()});
+    }
+
+    public void forEachHit(LocalDateTime start, LocalDateTime end, RowCallbackHandler handler) {
+        JdbcTemplate fetchingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        fetchingTemplate.setFetchSize(FETCH_SIZE);
+        fetchingTemplate.query("SELECT app, uri, ip, timestamp FROM " + TABLE + " WHERE timestamp >= ? AND timestamp < ?", handler,
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public int delete(LocalDateTime start, LocalDateTime end) {
+        return jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE timestamp >= ? AND timestamp < ?",
+                Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public void drop() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE + " CASCADE");
+        jdbcTemplate.execute("DROP SEQUENCE IF EXISTS endpoint_hits_id_seq");
+    }
+}
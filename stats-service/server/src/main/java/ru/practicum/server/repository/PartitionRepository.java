@@ -0,0 +1,94 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.partition.PartitionRange;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Repository
+@RequiredArgsConstructor
+public class PartitionRepository {
+
+    public static final String TABLE = "hits";
+
+    private static final Pattern BOUND_PATTERN = Pattern.compile("FROM \\((.+?)\\) TO \\((.+?)\\)");
+    private static final String DEFAULT_BOUND = "DEFAULT";
+    private static final DateTimeFormatter BOUND_FORMATTER = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .toFormatter();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<PartitionRange> findPartitions() {
+        List<PartitionRange> partitions = new ArrayList<>();
+        jdbcTemplate.query("SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound " +
+                        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass(?)",
+                (RowCallbackHandler) rs -> {
+                    String bound = rs.getString("bound");
+                    if (DEFAULT_BOUND.equals(bound)) {
+                        return;
+                    }
+                    Matcher matcher = BOUND_PATTERN.matcher(bound);
+                    if (!matcher.find()) {
+                        throw new IllegalStateException("Неизвестная граница секции " + rs.getString("relname") + ": " + bound);
+                    }
+                    partitions.add(new PartitionRange(rs.getString("relname"), parseBound(matcher.group(1)), parseBound(matcher.group(2))));
+                }, TABLE);
+        return partitions;
+    }
+
+    public void createPartition(String name, LocalDateTime start, LocalDateTime end) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + identifier(name) + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM (" + boundLiteral(start) + ") TO (" + boundLiteral(end) + ")");
+    }
+
+    public void detachPartition(String name) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + identifier(name));
+    }
+
+    public void dropPartition(String name) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + identifier(name));
+    }
+
+    public int deleteMinuteRollupsBefore(LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM hit_rollups_minute WHERE bucket < ?", Timestamp.valueOf(cutoff));
+    }
+
+    private String boundLiteral(LocalDateTime bound) {
+        if (bound.equals(LocalDateTime.MIN)) {
+            return "MINVALUE";
+        }
+        if (bound.equals(LocalDateTime.MAX)) {
+            return "MAXVALUE";
+        }
+        return "TIMESTAMP '" + bound.format(BOUND_FORMATTER) + "'";
+    }
+
+    private String identifier(String name) {
+        return '"' + name.replace("\"", "\"\"") + '"';
+    }
+
+    private LocalDateTime parseBound(String bound) {
+        if ("MINVALUE".equals(bound)) {
+            return LocalDateTime.MIN;
+        }
+        if ("MAXVALUE".equals(bound)) {
+            return LocalDateTime.MAX;
+        }
+        return LocalDateTime.parse(bound.replace("'", ""), BOUND_FORMATTER);
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.dto.StatsCounterRequestDto;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class StatsCounterRepository {
+
+    private static final String COUNTERS_SQL = "SELECT q.idx, " +
+            "CASE WHEN q.is_unique THEN COUNT(DISTINCT eh.ip) " +
+            "ELSE COUNT(eh.ip) END AS hits " +
+            "FROM UNNEST(?::varchar[], ?::timestamp[], ?::timestamp[], ?::boolean[]) " +
+            "WITH ORDINALITY AS q(uri, start_ts, end_ts, is_unique, idx) " +
+            "LEFT JOIN uris u ON u.name = q.uri " +
+            "LEFT JOIN hits eh ON eh.uri_id = u.id AND eh.timestamp BETWEEN q.start_ts AND q.end_ts " +
+            "AND eh.timestamp BETWEEN ? AND ? " +
+            "GROUP BY q.idx, q.is_unique";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public long[] getCounters(List<StatsCounterRequestDto> counters) {
+        long[] hits = new long[counters.size()];
+        if (counters.isEmpty()) {
+            return hits;
+        }
+        String[] uris = new String[counters.size()];
+        Timestamp[] starts = new Timestamp[counters.size()];
+        Timestamp[] ends = new Timestamp[counters.size()];
+        Boolean[] uniques = new Boolean[counters.size()];
+        Timestamp minStart = null;
+        Timestamp maxEnd = null;
+        for (int i = 0; i < counters.size(); i++) {
+            StatsCounterRequestDto counter = counters.get(i);
+            uris[i] = counter.getUri();
+            starts[i] = Timestamp.valueOf(counter.getStart());
+            ends[i] = Timestamp.valueOf(counter.getEnd());
+            uniques[i] = counter.isUnique();
+            minStart = minStart == null || starts[i].before(minStart) ? starts[i] : minStart;
+            maxEnd = maxEnd == null || ends[i].after(maxEnd) ? ends[i] : maxEnd;
+        }
+        Timestamp lowerBound = minStart;
+        Timestamp upperBound = maxEnd;
+        jdbcTemplate.query(COUNTERS_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("varchar", uris));
+            ps.setArray(2, connection.createArrayOf("timestamp", starts));
+            ps.setArray(3, connection.createArrayOf("timestamp", ends));
+            ps.setArray(4, connection.createArrayOf("boolean", uniques));
+            ps.setTimestamp(5, lowerBound);
+            ps.setTimestamp(6, upperBound);
+        }, rs -> {
+            hits[rs.getInt("idx") - 1] = rs.getLong("hits");
+        });
+        return hits;
+    }
+}
@@ -1,44 +1,131 @@
 package ru.practicum.server.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import ru.practicum.server.model.EndpointHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.dictionary.DictionaryCache;
+import ru.practicum.server.mapper.IpMapper;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.parallel.StatsSlice;
+import ru.practicum.server.unique.HitRowHandler;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class StatsRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO hits (timestamp, app_id, uri_id, ip) VALUES (?, ?, ?, ?) RETURNING id";
+    private static final String STATS_SQL = "SELECT a.name AS app, u.name AS uri, s.hits FROM (" +
+            "SELECT app_id, uri_id, %s AS hits FROM hits " +
+            "WHERE timestamp BETWEEN :start AND :end%s " +
+            "GROUP BY app_id, uri_id) s " +
+            "JOIN apps a ON a.id = s.app_id " +
+            "JOIN uris u ON u.id = s.uri_id " +
+            "ORDER BY s.hits DESC";
+
+    private static final String SLICE_STATS_SQL = "SELECT a.name AS app, u.name AS uri, s.hits FROM (" +
+            "SELECT app_id, uri_id, %s AS hits FROM hits " +
+            "WHERE %s " +
+            "GROUP BY app_id, uri_id) s " +
+            "JOIN apps a ON a.id = s.app_id " +
+            "JOIN uris u ON u.id = s.uri_id";
+
+    private static final String SLICE_HITS_SQL = "SELECT app_id, uri_id, ip FROM hits WHERE %s";
+
+    private static final RowMapper<ViewStatsDto> VIEW_STATS_ROW_MAPPER =
+            (rs, rowNum) -> new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits"));
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DictionaryCache dictionaryCache;
+
+    public EndpointHit save(EndpointHit endpointHit) {
+        Long id = namedParameterJdbcTemplate.getJdbcTemplate().queryForObject(INSERT_SQL, Long.class,
+                Timestamp.valueOf(endpointHit.getTimestamp()),
+                dictionaryCache.getOrCreateId(Dictionary.APPS, endpointHit.getApp()),
+                dictionaryCache.getOrCreateId(Dictionary.URIS, endpointHit.getUri()),
+                IpMapper.toBytes(endpointHit.getIp()));
+        endpointHit.setId(id);
+        return endpointHit;
+    }
+
+    public List<ViewStatsDto> getAllStats(LocalDateTime start, LocalDateTime end) {
+        return getStats(start, end, null, false);
+    }
+
+    public List<ViewStatsDto> getStatsByUris(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return getStats(start, end, uris, false);
+    }
+
+    public List<ViewStatsDto> getStatsByUniqueIp(LocalDateTime start, LocalDateTime end) {
+        return getStats(start, end, null, true);
+    }
+
+    public List<ViewStatsDto> getStatsByUrisAndUniqueIp(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return getStats(start, end, uris, true);
+    }
+
+    public void forEachStats(LocalDateTime start, LocalDateTime end, boolean unique, int fetchSize, Consumer<ViewStatsDto> consumer) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        jdbcTemplate.setFetchSize(fetchSize);
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(buildStatsQuery(unique, false), parameters,
+                (RowCallbackHandler) rs -> consumer.accept(VIEW_STATS_ROW_MAPPER.mapRow(rs, 0)));
+    }
+
+    public List<ViewStatsDto> getSliceStats(StatsSlice slice, List<Integer> uriIds, boolean unique) {
+        String sql = String.format(SLICE_STATS_SQL, unique ? "COUNT(DISTINCT ip)" : "COUNT(*)", sliceCondition(slice, uriIds));
+        return namedParameterJdbcTemplate.query(sql, sliceParameters(slice, uriIds), VIEW_STATS_ROW_MAPPER);
+    }
+
+    public void forEachHit(StatsSlice slice, List<Integer> uriIds, int fetchSize, HitRowHandler handler) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource());
+        jdbcTemplate.setFetchSize(fetchSize);
+        new NamedParameterJdbcTemplate(jdbcTemplate).query(String.format(SLICE_HITS_SQL, sliceCondition(slice, uriIds)), sliceParameters(slice, uriIds),
+                (RowCallbackHandler) rs -> handler.accept(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getBytes("ip")));
+    }
+
+    private List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        if (uris != null) {
+            List<Integer> uriIds = dictionaryCache.findIds(Dictionary.URIS, uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+            parameters.addValue("uriIds", uriIds);
+        }
+        return namedParameterJdbcTemplate.query(buildStatsQuery(unique, uris != null), parameters, VIEW_STATS_ROW_MAPPER);
+    }
+
+    private MapSqlParameterSource sliceParameters(StatsSlice slice, List<Integer> uriIds) {
+        return new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(slice.getStart()))
+                .addValue("end", Timestamp.valueOf(slice.getEnd()))
+                .addValue("uriIds", uriIds)
+                .addValue("ipParts", slice.getIpParts())
+                .addValue("ipPart", slice.getIpPart());
+    }
 
-public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
-
-    @Query("SELECT new ru.practicum.dto.ViewStatsDto(eh.app, eh.uri, COUNT(eh.ip)) " +
-            "FROM EndpointHit eh " +
-            "WHERE eh.timestamp BETWEEN :start AND :end " +
-            "GROUP BY eh.app, eh.uri " +
-            "ORDER BY COUNT(eh) DESC")
-    List<ViewStatsDto> getAllStats(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    @Query("SELECT new ru.practicum.dto.ViewStatsDto(eh.app, eh.uri, COUNT(eh.ip)) " +
-            "FROM EndpointHit eh " +
-            "WHERE eh.timestamp BETWEEN :start AND :end " +
-            "AND eh.uri IN :uris " +
-            "GROUP BY eh.app, eh.uri " +
-            "ORDER BY COUNT(eh) DESC")
-    List<ViewStatsDto> getStatsByUris(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("uris") List<String> uris);
-
-    @Query("SELECT new ru.practicum.dto.ViewStatsDto(eh.app, eh.uri, COUNT(DISTINCT eh.ip)) " +
-            "FROM EndpointHit eh " +
-            "WHERE eh.timestamp BETWEEN :start AND :end " +
-            "GROUP BY eh.app, eh.uri " +
-            "ORDER BY COUNT(DISTINCT eh) DESC")
-    List<ViewStatsDto> getStatsByUniqueIp(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
-
-    @Query("SELECT new ru.practicum.dto.ViewStatsDto(eh.app, eh.uri, COUNT(DISTINCT eh.ip)) " +
-            "FROM EndpointHit eh " +
-            "WHERE eh.timestamp BETWEEN :start AND :end " +
-            "AND eh.uri IN :uris " +
-            "GROUP BY eh.app, eh.uri " +
-            "ORDER BY COUNT(DISTINCT eh) DESC")
-    List<ViewStatsDto> getStatsByUrisAndUniqueIp(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end, @Param("uris") List<String> uris);
+    private String sliceCondition(StatsSlice slice, List<Integer> uriIds) {
+        return "timestamp >= :start AND timestamp < :end"
+                + (uriIds != null ? " AND uri_id IN (:uriIds)" : "")
+                + (slice.getIpParts() > 1 ? " AND get_byte(ip, octet_length(ip) - 1) % :ipParts = :ipPart" : "");
+    }
 
+    private String buildStatsQuery(boolean unique, boolean filterUris) {
+        return String.format(STATS_SQL, unique ? "COUNT(DISTINCT ip)" : "COUNT(*)", filterUris ? " AND uri_id IN (:uriIds)" : "");
+    }
 }
@@ -0,0 +1,27 @@
+package ru.practicum.server.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.server.wal.WalPosition;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class WalCheckpointRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WalPosition find() {
+        List<WalPosition> positions = jdbcTemplate.query("SELECT segment, position FROM wal_checkpoint WHERE id = 1",
+                (rs, rowNum) -> new WalPosition(rs.getLong("segment"), rs.getInt("position")));
+        return positions.isEmpty() ? new WalPosition(0, 0) : positions.get(0);
+    }
+
+    public void save(WalPosition position) {
+        jdbcTemplate.update("INSERT INTO wal_checkpoint (id, segment, position) VALUES (1, ?, ?) " +
+                "ON CONFLICT (id) DO UPDATE SET segment = EXCLUDED.segment, position = EXCLUDED.position",
+                position.getSegment(), position.getOffset());
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.server.rollup;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+@Value
+public class BucketKey implements Comparable<BucketKey> {
+    private static final Comparator<BucketKey> ORDER = Comparator.comparing(BucketKey::getApp)
+            .thenComparing(BucketKey::getUri)
+            .thenComparing(BucketKey::getBucket);
+
+    String app;
+    String uri;
+    LocalDateTime bucket;
+
+    @Override
+    public int compareTo(BucketKey other) {
+        return ORDER.compare(this, other);
+    }
+}
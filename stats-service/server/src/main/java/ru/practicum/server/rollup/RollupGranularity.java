@@ -0,0 +1,28 @@
+package ru.practicum.server.rollup;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupGranularity {
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    public String getTable() {
+        return "hit_rollups_" + name().toLowerCase();
+    }
+
+    public String getSketchTable() {
+        return "hit_sketches_" + name().toLowerCase();
+    }
+
+    public String getTopTable() {
+        return "hit_top_" + name().toLowerCase();
+    }
+}
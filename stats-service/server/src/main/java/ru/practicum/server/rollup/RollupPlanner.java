@@ -0,0 +1,51 @@
+package ru.practicum.server.rollup;
+
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+public class RollupPlanner {
+
+    public List<RollupSegment> plan(LocalDateTime start, LocalDateTime endExclusive) {
+        return plan(start, endExclusive, RollupGranularity.MINUTE, RollupGranularity.HOUR, RollupGranularity.DAY);
+    }
+
+    public List<RollupSegment> plan(LocalDateTime start, LocalDateTime endExclusive, RollupGranularity... tiers) {
+        List<RollupSegment> segments = new ArrayList<>();
+        plan(segments, null, start, endExclusive, tiers, 0);
+        return segments;
+    }
+
+    private void plan(List<RollupSegment> segments, RollupGranularity granularity, LocalDateTime start, LocalDateTime end,
+                      RollupGranularity[] tiers, int next) {
+        if (next == tiers.length) {
+            add(segments, granularity, start, end);
+            return;
+        }
+        ChronoUnit unit = tiers[next].getUnit();
+        LocalDateTime innerStart = ceil(start, unit);
+        LocalDateTime innerEnd = end.truncatedTo(unit);
+        if (!innerStart.isBefore(innerEnd)) {
+            add(segments, granularity, start, end);
+            return;
+        }
+        add(segments, granularity, start, innerStart);
+        plan(segments, tiers[next], innerStart, innerEnd, tiers, next + 1);
+        add(segments, granularity, innerEnd, end);
+    }
+
+    private void add(List<RollupSegment> segments, RollupGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        if (start.isBefore(end)) {
+            segments.add(new RollupSegment(granularity, start, end));
+        }
+    }
+
+    private LocalDateTime ceil(LocalDateTime dateTime, ChronoUnit unit) {
+        LocalDateTime truncated = dateTime.truncatedTo(unit);
+        return truncated.equals(dateTime) ? truncated : truncated.plus(1, unit);
+    }
+}
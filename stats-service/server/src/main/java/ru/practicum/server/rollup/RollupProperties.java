@@ -0,0 +1,10 @@
+package ru.practicum.server.rollup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.rollups")
+public class RollupProperties {
+    private boolean enabled = true;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.server.rollup;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class RollupSegment {
+    private final RollupGranularity granularity;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    public boolean isRaw() {
+        return granularity == null;
+    }
+}
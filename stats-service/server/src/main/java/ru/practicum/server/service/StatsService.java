@@ -1,14 +1,41 @@
 package ru.practicum.server.service;
 
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.TimeSeriesDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.top.TopResult;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface StatsService {
 
+    long END_INCLUSIVE_NANOS = 1_000;
+
     EndpointHitDto addEndpointHit(EndpointHitDto endpointHitDto);
 
+    EndpointHitsResultDto addEndpointHits(InputStream inputStream);
+
+    EndpointHitsResultDto addEndpointHits(List<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean isUnique);
+
+    void streamStats(LocalDateTime start, LocalDateTime end, Boolean isUnique, Consumer<ViewStatsDto> consumer);
+
+    List<ViewStatsDto> getApproxUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris);
+
+    double getApproxRelativeError();
+
+    TopResult getTop(int k, LocalDateTime start, LocalDateTime end, Boolean isUnique);
+
+    List<StatsCounterDto> getCounters(List<StatsCounterRequestDto> counters);
+
+    StatsCounterDto getPrefixHits(String prefix);
+
+    TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime end, List<String> uris, String interval, Boolean isUnique);
 }
@@ -1,25 +1,119 @@
 package ru.practicum.server.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.dto.StatsCounterDto;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.dto.TimeSeriesDto;
 import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.cache.StatsCache;
+import ru.practicum.server.cache.StatsCacheKey;
 import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.ingestion.EndpointHitStreamReader;
+import ru.practicum.server.ingestion.HitIngestionService;
 import ru.practicum.server.mapper.EndpointHitMapper;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.parallel.ParallelStatsAggregator;
+import ru.practicum.server.rollup.RollupPlanner;
+import ru.practicum.server.rollup.RollupProperties;
+import ru.practicum.server.sketch.SketchService;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.repository.StatsCounterRepository;
 import ru.practicum.server.repository.StatsRepository;
+import ru.practicum.server.streaming.StreamingProperties;
+import ru.practicum.server.timeseries.TimeSeriesBuilder;
+import ru.practicum.server.timeseries.TimeSeriesService;
+import ru.practicum.server.top.TopResult;
+import ru.practicum.server.top.TopService;
+import ru.practicum.server.unique.ExactUniqueCounter;
+import ru.practicum.server.uri.UriPattern;
+import ru.practicum.server.uri.UriTrie;
+import ru.practicum.server.window.HotWindow;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "stats-server.storage", name = "engine", havingValue = "jdbc", matchIfMissing = true)
 public class StatsServiceImpl implements StatsService {
 
     private final StatsRepository statsRepository;
+    private final StatsCounterRepository statsCounterRepository;
+    private final HitIngestionService hitIngestionService;
+    private final EndpointHitStreamReader endpointHitStreamReader;
+    private final HitRollupRepository hitRollupRepository;
+    private final RollupProperties rollupProperties;
+    private final SketchService sketchService;
+    private final HotWindow hotWindow;
+    private final StatsCache statsCache;
+    private final StreamingProperties streamingProperties;
+    private final TopService topService;
+    private final ParallelStatsAggregator parallelStatsAggregator;
+    private final ExactUniqueCounter exactUniqueCounter;
+    private final UriTrie uriTrie;
+    private final TimeSeriesService timeSeriesService;
 
     @Override
     public EndpointHitDto addEndpointHit(EndpointHitDto endpointHitDto) {
-        return EndpointHitMapper.toEndpointHitDto(statsRepository.save(EndpointHitMapper.toEndpointHit(endpointHitDto)));
+        EndpointHit endpointHit = EndpointHitMapper.toEndpointHit(endpointHitDto);
+        endpointHit.setTimestamp(LocalDateTime.now());
+        return EndpointHitMapper.toEndpointHitDto(hitIngestionService.add(endpointHit));
+    }
+
+    @Override
+    public EndpointHitsResultDto addEndpointHits(InputStream inputStream) {
+        List<EndpointHit> batch = new ArrayList<>(hitIngestionService.getBatchSize());
+        EndpointHitsResultDto result = new EndpointHitsResultDto(0L, 0L);
+        try {
+            endpointHitStreamReader.read(inputStream, endpointHitDto -> addToBatch(endpointHitDto, batch, result));
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Некорректный формат просмотров после " + result.getAccepted() + " принятых: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            flushBatch(batch);
+        }
+        return result;
+    }
+
+    @Override
+    public EndpointHitsResultDto addEndpointHits(List<EndpointHitDto> endpointHitDtos) {
+        List<EndpointHit> batch = new ArrayList<>(hitIngestionService.getBatchSize());
+        EndpointHitsResultDto result = new EndpointHitsResultDto(0L, 0L);
+        endpointHitDtos.forEach(endpointHitDto -> addToBatch(endpointHitDto, batch, result));
+        flushBatch(batch);
+        return result;
+    }
+
+    private void addToBatch(EndpointHitDto endpointHitDto, List<EndpointHit> batch, EndpointHitsResultDto result) {
+        if (isBlank(endpointHitDto.getApp()) || isBlank(endpointHitDto.getUri()) || isBlank(endpointHitDto.getIp())) {
+            result.setRejected(result.getRejected() + 1);
+            return;
+        }
+        EndpointHit endpointHit = EndpointHitMapper.toEndpointHit(endpointHitDto);
+        endpointHit.setTimestamp(endpointHitDto.getTimestamp() != null ? endpointHitDto.getTimestamp() : LocalDateTime.now());
+        batch.add(endpointHit);
+        result.setAccepted(result.getAccepted() + 1);
+        if (batch.size() >= hitIngestionService.getBatchSize()) {
+            hitIngestionService.addAll(batch);
+            batch.clear();
+        }
     }
 
     @Override
@@ -27,6 +121,51 @@ public class StatsServiceImpl implements StatsService {
         if (start.isAfter(end)) {
             throw new ValidationException("Начало искомого периода не может быть после конца");
         }
+        List<String> expandedUris = expandUris(uris);
+        if (statsCache.accepts(start, end)) {
+            return statsCache.get(statsCache.key(start, end, uris, expandedUris, isUnique),
+                    () -> loadStats(start, end, expandedUris, isUnique));
+        }
+        StatsCacheKey key = statsCache.isEnabled() && !isUnique
+                ? statsCache.alignedKey(start, end, uris, expandedUris, false) : null;
+        if (key == null) {
+            return loadStats(start, end, expandedUris, isUnique);
+        }
+        Map<AppUri, Long> merged = new HashMap<>();
+        mergeStats(statsCache.get(key, () -> loadStats(key.getStart(), key.getEnd(), expandedUris, false)), merged);
+        if (start.isBefore(key.getStart())) {
+            mergeStats(loadStats(start, key.getStart().minusNanos(END_INCLUSIVE_NANOS), expandedUris, false), merged);
+        }
+        if (end.isAfter(key.getEnd())) {
+            mergeStats(loadStats(key.getEnd().plusNanos(END_INCLUSIVE_NANOS), end, expandedUris, false), merged);
+        }
+        return merged.entrySet().stream()
+                .map(entry -> new ViewStatsDto(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void mergeStats(List<ViewStatsDto> stats, Map<AppUri, Long> merged) {
+        for (ViewStatsDto viewStats : stats) {
+            merged.merge(new AppUri(viewStats.getApp(), viewStats.getUri()), viewStats.getHits(), Long::sum);
+        }
+    }
+
+    private List<ViewStatsDto> loadStats(LocalDateTime start, LocalDateTime end, List<String> uris, boolean isUnique) {
+        if (!isUnique && (uris == null || !uris.isEmpty())) {
+            if (hotWindow.isEnabled() && hotWindow.covers(start)) {
+                return hotWindow.getStats(start, end.plusNanos(END_INCLUSIVE_NANOS), uris);
+            }
+            if (rollupProperties.isEnabled()) {
+                return hitRollupRepository.getStats(RollupPlanner.plan(start, end.plusNanos(END_INCLUSIVE_NANOS)), uris);
+            }
+        }
+        if (parallelStatsAggregator.accepts(start, end, isUnique)) {
+            return parallelStatsAggregator.getStats(start, end.plusNanos(END_INCLUSIVE_NANOS), uris, isUnique);
+        }
+        if (isUnique && exactUniqueCounter.isEnabled()) {
+            return exactUniqueCounter.getStats(start, end.plusNanos(END_INCLUSIVE_NANOS), uris);
+        }
         if (uris == null) {
             if (isUnique) {
                 return statsRepository.getStatsByUniqueIp(start, end);
@@ -41,4 +180,109 @@ public class StatsServiceImpl implements StatsService {
             }
         }
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, Boolean isUnique, Consumer<ViewStatsDto> consumer) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        if (!streamingProperties.isEnabled()) {
+            getStats(start, end, null, isUnique).forEach(consumer);
+            return;
+        }
+        if (!isUnique && rollupProperties.isEnabled()) {
+            hitRollupRepository.forEachStats(RollupPlanner.plan(start, end.plusNanos(END_INCLUSIVE_NANOS)),
+                    streamingProperties.getFetchSize(), consumer);
+            return;
+        }
+        statsRepository.forEachStats(start, end, isUnique, streamingProperties.getFetchSize(), consumer);
+    }
+
+    @Override
+    public List<ViewStatsDto> getApproxUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        if (!sketchService.isEnabled()) {
+            throw new ValidationException("Приближенный подсчет уникальных просмотров отключен");
+        }
+        List<String> expandedUris = expandUris(uris);
+        if (expandedUris != null && expandedUris.isEmpty()) {
+            return List.of();
+        }
+        return sketchService.getStats(start, end.plusNanos(END_INCLUSIVE_NANOS), expandedUris);
+    }
+
+    @Override
+    public double getApproxRelativeError() {
+        return sketchService.getRelativeError();
+    }
+
+    @Override
+    public TopResult getTop(int k, LocalDateTime start, LocalDateTime end, Boolean isUnique) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        if (k <= 0) {
+            throw new ValidationException("Параметр k должен быть положительным");
+        }
+        if (!topService.isEnabled()) {
+            throw new ValidationException("Подсчет популярных адресов отключен");
+        }
+        if (isUnique && !sketchService.isEnabled()) {
+            throw new ValidationException("Приближенный подсчет уникальных просмотров отключен");
+        }
+        return topService.getTop(k, start, end.plusNanos(END_INCLUSIVE_NANOS), isUnique);
+    }
+
+    @Override
+    public List<StatsCounterDto> getCounters(List<StatsCounterRequestDto> counters) {
+        for (StatsCounterRequestDto counter : counters) {
+            if (counter.getStart().isAfter(counter.getEnd())) {
+                throw new ValidationException("Начало искомого периода не может быть после конца");
+            }
+        }
+        long[] hits = statsCounterRepository.getCounters(counters);
+        List<StatsCounterDto> result = new ArrayList<>(counters.size());
+        for (int i = 0; i < counters.size(); i++) {
+            result.add(new StatsCounterDto(counters.get(i).getUri(), hits[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public StatsCounterDto getPrefixHits(String prefix) {
+        if (!uriTrie.isEnabled()) {
+            throw new ValidationException("Дерево адресов отключено");
+        }
+        return new StatsCounterDto(prefix, uriTrie.getPrefixHits(prefix));
+    }
+
+    @Override
+    public TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime end, List<String> uris, String interval, Boolean isUnique) {
+        if (start.isAfter(end)) {
+            throw new ValidationException("Начало искомого периода не может быть после конца");
+        }
+        return timeSeriesService.getTimeSeries(start, end.plusNanos(END_INCLUSIVE_NANOS), expandUris(uris),
+                TimeSeriesBuilder.parseInterval(interval), isUnique);
+    }
+
+    private List<String> expandUris(List<String> uris) {
+        if (!uriTrie.isEnabled() || !UriPattern.hasPatterns(uris)) {
+            return uris;
+        }
+        return uriTrie.expand(uris);
+    }
+
+    private void flushBatch(List<EndpointHit> batch) {
+        if (!batch.isEmpty()) {
+            hitIngestionService.addAll(batch);
+            batch.clear();
+        }
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
 }
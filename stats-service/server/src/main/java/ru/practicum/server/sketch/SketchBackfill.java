@@ -0,0 +1,43 @@
+package ru.practicum.server.sketch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.repository.HitSketchRepository;
+import ru.practicum.server.rollup.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SketchBackfill implements ApplicationRunner {
+
+    private final SketchService sketchService;
+    private final HitSketchRepository hitSketchRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!sketchService.isEnabled() || !hitSketchRepository.isEmpty(RollupGranularity.HOUR)) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "sketch-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfill() {
+        LocalDateTime[] range = hitSketchRepository.findHitRange();
+        if (range == null) {
+            return;
+        }
+        log.info("Заполнение HyperLogLog скетчей по просмотрам с {} по {}", range[0], range[1]);
+        for (LocalDateTime day = range[0].truncatedTo(ChronoUnit.DAYS); !day.isAfter(range[1]); day = day.plusDays(1)) {
+            sketchService.backfill(day);
+        }
+        log.info("Заполнение HyperLogLog скетчей завершено");
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.server.sketch;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.sketches")
+public class SketchProperties {
+    private boolean enabled = false;
+    private int precision = 12;
+}
@@ -0,0 +1,90 @@
+package ru.practicum.server.sketch;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.mapper.IpMapper;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.HitSketchRepository;
+import ru.practicum.server.rollup.BucketKey;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupPlanner;
+import ru.practicum.server.rollup.RollupSegment;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SketchService {
+
+    private static final List<RollupGranularity> GRANULARITIES = List.of(RollupGranularity.HOUR, RollupGranularity.DAY);
+
+    private final HitSketchRepository hitSketchRepository;
+    private final SketchProperties properties;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public double getRelativeError() {
+        return HyperLogLog.relativeError(properties.getPrecision());
+    }
+
+    public void add(List<EndpointHit> hits) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            Map<BucketKey, HyperLogLog> sketches = new TreeMap<>();
+            for (EndpointHit hit : hits) {
+                addToSketch(sketches, granularity, hit.getApp(), hit.getUri(),
+                        IpMapper.normalize(hit.getIp()), hit.getTimestamp());
+            }
+            hitSketchRepository.merge(granularity, sketches);
+        }
+    }
+
+    @Transactional
+    public void backfill(LocalDateTime dayStart) {
+        Map<BucketKey, HyperLogLog> hourSketches = new TreeMap<>();
+        Map<BucketKey, HyperLogLog> daySketches = new TreeMap<>();
+        hitSketchRepository.forEachHit(dayStart, dayStart.plusDays(1), rs -> {
+            LocalDateTime timestamp = rs.getTimestamp("timestamp").toLocalDateTime();
+            String app = rs.getString("app");
+            String uri = rs.getString("uri");
+            String ip = IpMapper.toIp(rs.getBytes("ip"));
+            addToSketch(hourSketches, RollupGranularity.HOUR, app, uri, ip, timestamp);
+            addToSketch(daySketches, RollupGranularity.DAY, app, uri, ip, timestamp);
+        });
+        hitSketchRepository.merge(RollupGranularity.HOUR, hourSketches);
+        hitSketchRepository.merge(RollupGranularity.DAY, daySketches);
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime endExclusive, List<String> uris) {
+        Map<AppUri, HyperLogLog> merged = new HashMap<>();
+        for (RollupSegment segment : RollupPlanner.plan(start, endExclusive, RollupGranularity.HOUR, RollupGranularity.DAY)) {
+            if (segment.isRaw()) {
+                hitSketchRepository.forEachDistinctIp(segment, uris, (appUri, ip) -> merged
+                        .computeIfAbsent(appUri, key -> new HyperLogLog(properties.getPrecision()))
+                        .add(HyperLogLog.hash(ip)));
+            } else {
+                hitSketchRepository.forEachSketch(segment, uris, (appUri, sketch) -> merged.merge(appUri, sketch, HyperLogLog::union));
+            }
+        }
+        return merged.entrySet().stream()
+                .map(entry -> new ViewStatsDto(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private void addToSketch(Map<BucketKey, HyperLogLog> sketches, RollupGranularity granularity,
+                             String app, String uri, String ip, LocalDateTime timestamp) {
+        sketches.computeIfAbsent(new BucketKey(app, uri, timestamp.truncatedTo(granularity.getUnit())),
+                key -> new HyperLogLog(properties.getPrecision())).add(HyperLogLog.hash(ip));
+    }
+}
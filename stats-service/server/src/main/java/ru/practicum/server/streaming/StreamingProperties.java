@@ -0,0 +1,11 @@
+package ru.practicum.server.streaming;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.streaming")
+public class StreamingProperties {
+    private boolean enabled = true;
+    private int fetchSize = 1_000;
+}
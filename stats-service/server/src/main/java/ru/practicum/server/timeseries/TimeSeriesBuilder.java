@@ -0,0 +1,68 @@
+package ru.practicum.server.timeseries;
+
+import ru.practicum.dto.TimeSeriesDto;
+import ru.practicum.dto.TimeSeriesEntryDto;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.rollup.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TimeSeriesBuilder {
+
+    private static final int MAX_POINTS = 10_000;
+
+    private final RollupGranularity interval;
+    private final List<LocalDateTime> timestamps = new ArrayList<>();
+    private final Map<AppUri, long[]> series = new HashMap<>();
+
+    public TimeSeriesBuilder(RollupGranularity interval, LocalDateTime start, LocalDateTime endExclusive) {
+        this.interval = interval;
+        if (interval.getUnit().between(start.truncatedTo(interval.getUnit()), endExclusive) >= MAX_POINTS) {
+            throw new ValidationException("Временной ряд не может содержать больше " + MAX_POINTS + " интервалов");
+        }
+        for (LocalDateTime bucket = start.truncatedTo(interval.getUnit()); bucket.isBefore(endExclusive);
+             bucket = bucket.plus(1, interval.getUnit())) {
+            timestamps.add(bucket);
+        }
+    }
+
+    public static RollupGranularity parseInterval(String interval) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            if (granularity.name().equalsIgnoreCase(interval)) {
+                return granularity;
+            }
+        }
+        throw new ValidationException("Параметр interval должен быть minute, hour или day");
+    }
+
+    public List<LocalDateTime> getTimestamps() {
+        return timestamps;
+    }
+
+    public void add(String app, String uri, LocalDateTime bucket, long hits) {
+        int index = (int) interval.getUnit().between(timestamps.get(0), bucket);
+        if (index < 0 || index >= timestamps.size()) {
+            return;
+        }
+        series.computeIfAbsent(new AppUri(app, uri), key -> new long[timestamps.size()])[index] += hits;
+    }
+
+    public TimeSeriesDto build() {
+        List<TimeSeriesEntryDto> entries = new ArrayList<>(series.size());
+        series.forEach((appUri, hits) -> {
+            long total = 0;
+            for (long value : hits) {
+                total += value;
+            }
+            entries.add(new TimeSeriesEntryDto(appUri.getApp(), appUri.getUri(), total, hits));
+        });
+        entries.sort(Comparator.comparing(TimeSeriesEntryDto::getTotal).reversed());
+        return new TimeSeriesDto(interval.name().toLowerCase(), timestamps, entries);
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.server.timeseries;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.practicum.dto.TimeSeriesDto;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupPlanner;
+import ru.practicum.server.rollup.RollupProperties;
+import ru.practicum.server.rollup.RollupSegment;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TimeSeriesService {
+
+    private final HitRollupRepository hitRollupRepository;
+    private final RollupProperties rollupProperties;
+
+    public TimeSeriesDto getTimeSeries(LocalDateTime start, LocalDateTime endExclusive, List<String> uris,
+                                       RollupGranularity interval, boolean unique) {
+        TimeSeriesBuilder builder = new TimeSeriesBuilder(interval, start, endExclusive);
+        if (uris != null && uris.isEmpty()) {
+            return builder.build();
+        }
+        List<RollupSegment> segments = unique || !rollupProperties.isEnabled()
+                ? List.of(new RollupSegment(null, start, endExclusive))
+                : RollupPlanner.plan(start, endExclusive, Arrays.stream(RollupGranularity.values())
+                .filter(granularity -> granularity.compareTo(interval) <= 0)
+                .toArray(RollupGranularity[]::new));
+        hitRollupRepository.forEachSeriesBucket(segments, interval, uris, unique,
+                (key, hits) -> builder.add(key.getApp(), key.getUri(), key.getBucket(), hits));
+        return builder.build();
+    }
+}
@@ -0,0 +1,194 @@
+package ru.practicum.server.top;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.server.model.AppUri;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class SpaceSaving {
+
+    private static final Comparator<Counter> ORDER = Comparator.comparingLong((Counter counter) -> counter.count)
+            .thenComparingLong(counter -> counter.sequence);
+
+    private final int capacity;
+    private final Map<AppUri, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(ORDER);
+    private long floor;
+    private long total;
+    private long sequence;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public static SpaceSaving fromCounts(int capacity, Map<AppUri, Long> counts) {
+        SpaceSaving summary = new SpaceSaving(capacity);
+        for (Map.Entry<AppUri, Long> entry : counts.entrySet()) {
+            summary.put(entry.getKey(), entry.getValue(), 0);
+            summary.total += entry.getValue();
+        }
+        summary.truncate();
+        return summary;
+    }
+
+    public void offer(AppUri item, long increment) {
+        total += increment;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count += increment;
+            ordered.add(counter);
+            return;
+        }
+        long absent = getFloor();
+        if (counters.size() >= capacity) {
+            Counter evicted = ordered.pollFirst();
+            counters.remove(evicted.item);
+        }
+        put(item, absent + increment, absent);
+    }
+
+    public SpaceSaving merge(SpaceSaving other) {
+        return new Merger(capacity).add(this).add(other).build();
+    }
+
+    public List<Entry> top(int k) {
+        List<Entry> result = new ArrayList<>(Math.min(k, counters.size()));
+        for (Counter counter : ordered.descendingSet()) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(new Entry(counter.item, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    public long getFloor() {
+        return counters.size() >= capacity ? Math.max(floor, ordered.first().count) : floor;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(capacity);
+            out.writeLong(floor);
+            out.writeLong(total);
+            out.writeInt(counters.size());
+            for (Counter counter : ordered) {
+                out.writeUTF(counter.item.getApp());
+                out.writeUTF(counter.item.getUri());
+                out.writeLong(counter.count);
+                out.writeLong(counter.error);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static SpaceSaving fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            SpaceSaving summary = new SpaceSaving(in.readInt());
+            summary.floor = in.readLong();
+            summary.total = in.readLong();
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                AppUri item = new AppUri(in.readUTF(), in.readUTF());
+                summary.put(item, in.readLong(), in.readLong());
+            }
+            return summary;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(AppUri item, long count, long error) {
+        Counter counter = new Counter(item, count, error, sequence++);
+        counters.put(item, counter);
+        ordered.add(counter);
+    }
+
+    private void truncate() {
+        while (counters.size() > capacity) {
+            Counter evicted = ordered.pollFirst();
+            counters.remove(evicted.item);
+            floor = Math.max(floor, evicted.count);
+        }
+    }
+
+    public static class Merger {
+        private final Map<AppUri, long[]> sums = new HashMap<>();
+        private int capacity;
+        private long floor;
+        private long total;
+
+        public Merger(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Merger add(SpaceSaving summary) {
+            long summaryFloor = summary.getFloor();
+            for (Counter counter : summary.counters.values()) {
+                long[] sum = sums.computeIfAbsent(counter.item, item -> new long[3]);
+                sum[0] += counter.count;
+                sum[1] += counter.error;
+                sum[2] += summaryFloor;
+            }
+            capacity = Math.max(capacity, summary.capacity);
+            floor += summaryFloor;
+            total += summary.total;
+            return this;
+        }
+
+        public SpaceSaving build() {
+            SpaceSaving merged = new SpaceSaving(capacity);
+            for (Map.Entry<AppUri, long[]> entry : sums.entrySet()) {
+                long[] sum = entry.getValue();
+                long absent = floor - sum[2];
+                merged.put(entry.getKey(), sum[0] + absent, sum[1] + absent);
+            }
+            merged.floor = floor;
+            merged.total = total;
+            merged.truncate();
+            return merged;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final AppUri item;
+        private final long count;
+        private final long error;
+    }
+
+    private static class Counter {
+        private final AppUri item;
+        private long count;
+        private final long error;
+        private final long sequence;
+
+        private Counter(AppUri item, long count, long error, long sequence) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.server.top;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.top")
+public class TopProperties {
+    private boolean enabled = true;
+    private int capacity = 1_000;
+    private Duration flushInterval = Duration.ofSeconds(10);
+    private Duration rebuildWindow = Duration.ofHours(24);
+}
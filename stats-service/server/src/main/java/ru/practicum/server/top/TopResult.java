@@ -0,0 +1,12 @@
+package ru.practicum.server.top;
+
+import lombok.Value;
+import ru.practicum.dto.TopViewStatsDto;
+
+import java.util.List;
+
+@Value
+public class TopResult {
+    List<TopViewStatsDto> items;
+    long maxError;
+}
@@ -0,0 +1,282 @@
+package ru.practicum.server.top;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.TopViewStatsDto;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.repository.HitTopRepository;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupPlanner;
+import ru.practicum.server.rollup.RollupProperties;
+import ru.practicum.server.rollup.RollupSegment;
+import ru.practicum.server.sketch.SketchService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@DependsOn("legacyHitMigration")
+public class TopService {
+
+    private static final List<RollupGranularity> GRANULARITIES = List.of(RollupGranularity.HOUR, RollupGranularity.DAY);
+    private static final int BACKFILL_BATCH_SIZE = 100;
+
+    private final HitTopRepository hitTopRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final SketchService sketchService;
+    private final RollupProperties rollupProperties;
+    private final TopProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> pending = newPending();
+
+    public TopService(HitTopRepository hitTopRepository, HitRollupRepository hitRollupRepository, SketchService sketchService,
+                      RollupProperties rollupProperties, TopProperties properties, PlatformTransactionManager transactionManager,
+                      TaskScheduler taskScheduler) {
+        this.hitTopRepository = hitTopRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.sketchService = sketchService;
+        this.rollupProperties = rollupProperties;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (rollupProperties.isEnabled()) {
+            if (hitTopRepository.isEmpty(RollupGranularity.HOUR)) {
+                backfill();
+            } else {
+                rebuildRecent();
+            }
+        }
+        taskScheduler.scheduleWithFixedDelay(this::flush, properties.getFlushInterval());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public synchronized void add(List<EndpointHit> hits) {
+        for (RollupGranularity granularity : GRANULARITIES) {
+            TreeMap<LocalDateTime, SpaceSaving> summaries = pending.get(granularity);
+            for (EndpointHit hit : hits) {
+                summaries.computeIfAbsent(hit.getTimestamp().truncatedTo(granularity.getUnit()),
+                                bucket -> new SpaceSaving(properties.getCapacity()))
+                        .offer(new AppUri(hit.getApp(), hit.getUri()), 1);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flush() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        flushLock.writeLock().lock();
+        try {
+            Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> flushing;
+            synchronized (this) {
+                flushing = pending;
+                pending = newPending();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    for (RollupGranularity granularity : GRANULARITIES) {
+                        hitTopRepository.merge(granularity, new TreeMap<>(flushing.get(granularity)));
+                    }
+                });
+            } catch (RuntimeException e) {
+                log.warn("Не удалось сохранить сводки популярных адресов, повтор при следующем сбросе", e);
+                synchronized (this) {
+                    for (RollupGranularity granularity : GRANULARITIES) {
+                        flushing.get(granularity).forEach((bucket, summary) ->
+                                pending.get(granularity).merge(bucket, summary, SpaceSaving::merge));
+                    }
+                }
+            }
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    public TopResult getTop(int k, LocalDateTime start, LocalDateTime endExclusive, boolean unique) {
+        SpaceSaving.Merger merger = new SpaceSaving.Merger(properties.getCapacity());
+        for (RollupSegment segment : RollupPlanner.plan(start, endExclusive, RollupGranularity.HOUR, RollupGranularity.DAY)) {
+            if (segment.isRaw()) {
+                merger.add(getExact(segment));
+            } else {
+                addSummaries(segment, merger);
+            }
+        }
+        SpaceSaving merged = merger.build();
+        if (!unique) {
+            List<TopViewStatsDto> items = merged.top(k).stream()
+                    .map(entry -> new TopViewStatsDto(entry.getItem().getApp(), entry.getItem().getUri(), entry.getCount(), entry.getError()))
+                    .collect(Collectors.toList());
+            return new TopResult(items, merged.getFloor());
+        }
+        Set<AppUri> candidates = merged.top(properties.getCapacity()).stream()
+                .map(SpaceSaving.Entry::getItem)
+                .collect(Collectors.toSet());
+        List<TopViewStatsDto> items = List.of();
+        if (!candidates.isEmpty()) {
+            List<String> uris = new ArrayList<>(candidates.stream().map(AppUri::getUri).collect(Collectors.toSet()));
+            double relativeError = sketchService.getRelativeError();
+            items = sketchService.getStats(start, endExclusive, uris).stream()
+                    .filter(stats -> candidates.contains(new AppUri(stats.getApp(), stats.getUri())))
+                    .limit(k)
+                    .map(stats -> new TopViewStatsDto(stats.getApp(), stats.getUri(), stats.getHits(),
+                            (long) Math.ceil(stats.getHits() * relativeError)))
+                    .collect(Collectors.toList());
+        }
+        return new TopResult(items, merged.getFloor());
+    }
+
+    private void addSummaries(RollupSegment segment, SpaceSaving.Merger merger) {
+        flushLock.readLock().lock();
+        try {
+            hitTopRepository.forEachSummary(segment.getGranularity(), segment.getStart(), segment.getEnd(), merger::add);
+            synchronized (this) {
+                for (SpaceSaving summary : pending.get(segment.getGranularity())
+                        .subMap(segment.getStart(), segment.getEnd()).values()) {
+                    merger.add(summary);
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+    }
+
+    private SpaceSaving getExact(RollupSegment segment) {
+        List<RollupSegment> segments = rollupProperties.isEnabled()
+                ? RollupPlanner.plan(segment.getStart(), segment.getEnd())
+                : List.of(segment);
+        Map<AppUri, Long> counts = new HashMap<>();
+        for (ViewStatsDto stats : hitRollupRepository.getStats(segments, null)) {
+            counts.put(new AppUri(stats.getApp(), stats.getUri()), stats.getHits());
+        }
+        return SpaceSaving.fromCounts(properties.getCapacity(), counts);
+    }
+
+    private void backfill() {
+        log.info("Заполнение сводок популярных адресов по почасовым агрегатам");
+        transactionTemplate.executeWithoutResult(status -> backfillFromRollups());
+    }
+
+    private void backfillFromRollups() {
+        Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> summaries = newPending();
+        Map<RollupGranularity, Map<AppUri, Long>> counts = new EnumMap<>(RollupGranularity.class);
+        Map<RollupGranularity, LocalDateTime> current = new EnumMap<>(RollupGranularity.class);
+        for (RollupGranularity granularity : GRANULARITIES) {
+            counts.put(granularity, new HashMap<>());
+        }
+        hitRollupRepository.forEachBucket(RollupGranularity.HOUR, (key, hits) -> {
+            for (RollupGranularity granularity : GRANULARITIES) {
+                LocalDateTime bucket = key.getBucket().truncatedTo(granularity.getUnit());
+                if (!bucket.equals(current.get(granularity))) {
+                    completeBucket(summaries, counts, current, granularity);
+                    current.put(granularity, bucket);
+                }
+                counts.get(granularity).merge(new AppUri(key.getApp(), key.getUri()), hits, Long::sum);
+            }
+            if (summaries.get(RollupGranularity.HOUR).size() >= BACKFILL_BATCH_SIZE) {
+                saveBackfill(summaries);
+            }
+        });
+        for (RollupGranularity granularity : GRANULARITIES) {
+            completeBucket(summaries, counts, current, granularity);
+        }
+        saveBackfill(summaries);
+    }
+
+    private void rebuildRecent() {
+        LocalDateTime since = LocalDateTime.now().minus(properties.getRebuildWindow()).truncatedTo(ChronoUnit.HOURS);
+        Map<LocalDateTime, Long> summaryTotals = hitTopRepository.getTotals(RollupGranularity.HOUR, since);
+        Set<LocalDateTime> hours = new TreeSet<>();
+        hitRollupRepository.getBucketTotals(RollupGranularity.HOUR, since).forEach((hour, hits) -> {
+            if (!hits.equals(summaryTotals.get(hour))) {
+                hours.add(hour);
+            }
+        });
+        if (hours.isEmpty()) {
+            return;
+        }
+        log.warn("Сводки популярных адресов за {} часов расходятся с агрегатами, пересчёт с {}", hours.size(), since);
+        Set<LocalDateTime> days = hours.stream()
+                .map(hour -> hour.truncatedTo(ChronoUnit.DAYS))
+                .collect(Collectors.toCollection(TreeSet::new));
+        transactionTemplate.executeWithoutResult(status -> {
+            hitTopRepository.replace(RollupGranularity.HOUR, summariesFromRollups(RollupGranularity.HOUR, hours));
+            hitTopRepository.replace(RollupGranularity.DAY, summariesFromRollups(RollupGranularity.DAY, days));
+        });
+    }
+
+    private Map<LocalDateTime, SpaceSaving> summariesFromRollups(RollupGranularity granularity, Set<LocalDateTime> buckets) {
+        Map<LocalDateTime, SpaceSaving> summaries = new TreeMap<>();
+        for (LocalDateTime bucket : buckets) {
+            RollupSegment segment = new RollupSegment(granularity, bucket, bucket.plus(1, granularity.getUnit()));
+            Map<AppUri, Long> counts = new HashMap<>();
+            for (ViewStatsDto stats : hitRollupRepository.getStats(List.of(segment), null)) {
+                counts.put(new AppUri(stats.getApp(), stats.getUri()), stats.getHits());
+            }
+            summaries.put(bucket, SpaceSaving.fromCounts(properties.getCapacity(), counts));
+        }
+        return summaries;
+    }
+
+    private void completeBucket(Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> summaries,
+                                Map<RollupGranularity, Map<AppUri, Long>> counts,
+                                Map<RollupGranularity, LocalDateTime> current, RollupGranularity granularity) {
+        Map<AppUri, Long> bucketCounts = counts.get(granularity);
+        if (!bucketCounts.isEmpty()) {
+            summaries.get(granularity).put(current.get(granularity), SpaceSaving.fromCounts(properties.getCapacity(), bucketCounts));
+            bucketCounts.clear();
+        }
+    }
+
+    private void saveBackfill(Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> summaries) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (RollupGranularity granularity : GRANULARITIES) {
+                hitTopRepository.merge(granularity, summaries.get(granularity));
+            }
+        });
+        for (RollupGranularity granularity : GRANULARITIES) {
+            summaries.get(granularity).clear();
+        }
+    }
+
+    private Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> newPending() {
+        Map<RollupGranularity, TreeMap<LocalDateTime, SpaceSaving>> summaries = new EnumMap<>(RollupGranularity.class);
+        for (RollupGranularity granularity : GRANULARITIES) {
+            summaries.put(granularity, new TreeMap<>());
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.server.unique;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.collection.LongLongHashMap;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.dictionary.DictionaryCache;
+import ru.practicum.server.parallel.StatsSlice;
+import ru.practicum.server.repository.DictionaryRepository;
+import ru.practicum.server.repository.StatsRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class ExactUniqueCounter {
+
+    private final StatsRepository statsRepository;
+    private final DictionaryRepository dictionaryRepository;
+    private final DictionaryCache dictionaryCache;
+    private final ExactUniqueProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExactUniqueCounter(StatsRepository statsRepository, DictionaryRepository dictionaryRepository, DictionaryCache dictionaryCache,
+                              ExactUniqueProperties properties, PlatformTransactionManager transactionManager) {
+        this.statsRepository = statsRepository;
+        this.dictionaryRepository = dictionaryRepository;
+        this.dictionaryCache = dictionaryCache;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime endExclusive, List<String> uris) {
+        List<Integer> uriIds = null;
+        if (uris != null) {
+            uriIds = dictionaryCache.findIds(Dictionary.URIS, uris);
+            if (uriIds.isEmpty()) {
+                return List.of();
+            }
+        }
+        return getStats(new StatsSlice(start, endExclusive, 1, 0), uriIds);
+    }
+
+    public List<ViewStatsDto> getStats(StatsSlice slice, List<Integer> uriIds) {
+        LongLongHashMap slots = new LongLongHashMap();
+        List<IpSet> ipSets = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status ->
+                statsRepository.forEachHit(slice, uriIds, properties.getFetchSize(), (appId, uriId, ip) -> {
+                    long key = ((long) appId << 32) | uriId;
+                    long slot = slots.get(key, -1);
+                    if (slot < 0) {
+                        slot = ipSets.size();
+                        slots.addTo(key, slot);
+                        ipSets.add(new IpSet());
+                        keys.add(key);
+                    }
+                    ipSets.get((int) slot).add(ip);
+                }));
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        Set<Integer> appIds = new HashSet<>();
+        Set<Integer> uriIdSet = new HashSet<>();
+        for (long key : keys) {
+            appIds.add((int) (key >>> 32));
+            uriIdSet.add((int) key);
+        }
+        Map<Integer, String> apps = dictionaryRepository.findNames(Dictionary.APPS, appIds);
+        Map<Integer, String> uris = dictionaryRepository.findNames(Dictionary.URIS, uriIdSet);
+        List<ViewStatsDto> stats = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            long key = keys.get(i);
+            stats.add(new ViewStatsDto(apps.get((int) (key >>> 32)), uris.get((int) key), (long) ipSets.get(i).size()));
+        }
+        stats.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return stats;
+    }
+}
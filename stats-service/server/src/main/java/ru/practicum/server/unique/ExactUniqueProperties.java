@@ -0,0 +1,11 @@
+package ru.practicum.server.unique;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.exact-unique")
+public class ExactUniqueProperties {
+    private boolean enabled = false;
+    private int fetchSize = 10_000;
+}
@@ -0,0 +1,6 @@
+package ru.practicum.server.unique;
+
+@FunctionalInterface
+public interface HitRowHandler {
+    void accept(int appId, int uriId, byte[] ip);
+}
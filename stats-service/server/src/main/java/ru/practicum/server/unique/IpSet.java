@@ -0,0 +1,44 @@
+package ru.practicum.server.unique;
+
+import ru.practicum.server.collection.IntHashSet;
+import ru.practicum.server.collection.LongPairHashSet;
+import ru.practicum.server.mapper.IpMapper;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class IpSet {
+
+    private final IntHashSet ipv4 = new IntHashSet();
+    private LongPairHashSet ipv6;
+    private Set<String> other;
+
+    public boolean add(byte[] ip) {
+        if (ip.length == 4) {
+            return ipv4.add(readInt(ip, 0));
+        }
+        if (ip.length == 16) {
+            if (ipv6 == null) {
+                ipv6 = new LongPairHashSet();
+            }
+            return ipv6.add(readLong(ip, 0), readLong(ip, 8));
+        }
+        if (other == null) {
+            other = new HashSet<>();
+        }
+        return other.add(IpMapper.toIp(ip));
+    }
+
+    public int size() {
+        return ipv4.size() + (ipv6 == null ? 0 : ipv6.size()) + (other == null ? 0 : other.size());
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                | (bytes[offset + 2] & 0xff) << 8 | (bytes[offset + 3] & 0xff);
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        return (readInt(bytes, offset) & 0xffffffffL) << 32 | (readInt(bytes, offset + 4) & 0xffffffffL);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.server.uri;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+@UtilityClass
+public class UriPattern {
+
+    public static final char WILDCARD = '*';
+
+    public boolean isPattern(String uri) {
+        return uri.indexOf(WILDCARD) >= 0;
+    }
+
+    public boolean hasPatterns(List<String> uris) {
+        return uris != null && uris.stream().anyMatch(UriPattern::isPattern);
+    }
+
+    public Pattern compile(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) != WILDCARD) {
+                continue;
+            }
+            if (literalStart < i) {
+                regex.append(Pattern.quote(pattern.substring(literalStart, i)));
+            }
+            if (i + 1 < pattern.length() && pattern.charAt(i + 1) == WILDCARD) {
+                regex.append(".*");
+                i++;
+            } else {
+                regex.append("[^/]*");
+            }
+            literalStart = i + 1;
+        }
+        if (literalStart < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,257 @@
+package ru.practicum.server.uri;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.DictionaryRepository;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.rollup.RollupProperties;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+@DependsOn("legacyHitMigration")
+public class UriTrie {
+
+    private final DictionaryRepository dictionaryRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final RollupProperties rollupProperties;
+    private final UriTrieProperties properties;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private volatile boolean ready;
+
+    public UriTrie(DictionaryRepository dictionaryRepository, HitRollupRepository hitRollupRepository,
+                   RollupProperties rollupProperties, UriTrieProperties properties) {
+        this.dictionaryRepository = dictionaryRepository;
+        this.hitRollupRepository = hitRollupRepository;
+        this.rollupProperties = rollupProperties;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String uri : dictionaryRepository.findAll(Dictionary.URIS).keySet()) {
+            add(uri, 0);
+        }
+        hitRollupRepository.forEachUriTotal(rollupProperties.isEnabled(), this::add);
+        ready = true;
+        log.info("Дерево адресов построено: {} адресов, {} просмотров", root.uris, root.hits.sum());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void add(List<EndpointHit> endpointHits) {
+        if (!ready) {
+            return;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        for (EndpointHit endpointHit : endpointHits) {
+            counts.merge(endpointHit.getUri(), 1L, Long::sum);
+        }
+        counts.forEach(this::add);
+    }
+
+    public List<String> expand(List<String> uris) {
+        Set<String> expanded = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (String uri : uris) {
+                if (UriPattern.isPattern(uri)) {
+                    match(root, root.label.length(), uri, 0, expanded);
+                } else {
+                    expanded.add(uri);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(expanded);
+    }
+
+    public long getPrefixHits(String prefix) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int offset = 0;
+            for (int i = 0; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                if (offset < node.label.length()) {
+                    if (node.label.charAt(offset) != c) {
+                        return 0;
+                    }
+                    offset++;
+                } else {
+                    node = node.children.get(c);
+                    if (node == null) {
+                        return 0;
+                    }
+                    offset = 1;
+                }
+            }
+            return node.hits.sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(String uri, long hits) {
+        lock.readLock().lock();
+        try {
+            List<Node> path = find(uri);
+            if (path != null) {
+                path.forEach(node -> node.hits.add(hits));
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        lock.writeLock().lock();
+        try {
+            List<Node> path = find(uri);
+            if (path == null) {
+                path = insert(uri);
+            }
+            path.forEach(node -> node.hits.add(hits));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Node> find(String uri) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < uri.length()) {
+            node = node.children.get(uri.charAt(position));
+            if (node == null || !uri.startsWith(node.label, position)) {
+                return null;
+            }
+            position += node.label.length();
+            path.add(node);
+        }
+        return node.uri != null ? path : null;
+    }
+
+    private List<Node> insert(String uri) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < uri.length()) {
+            Node child = node.children.get(uri.charAt(position));
+            if (child == null) {
+                child = new Node(uri.substring(position));
+                node.children.put(child.label.charAt(0), child);
+                position = uri.length();
+            } else {
+                int common = commonPrefix(child.label, uri, position);
+                if (common < child.label.length()) {
+                    Node split = new Node(child.label.substring(0, common));
+                    split.hits.add(child.hits.sum());
+                    split.uris = child.uris;
+                    child.label = child.label.substring(common);
+                    split.children.put(child.label.charAt(0), child);
+                    node.children.put(split.label.charAt(0), split);
+                    child = split;
+                }
+                position += common;
+            }
+            node = child;
+            path.add(node);
+        }
+        node.uri = uri;
+        path.forEach(n -> n.uris++);
+        return path;
+    }
+
+    private int commonPrefix(String label, String uri, int position) {
+        int length = 0;
+        while (length < label.length() && position + length < uri.length()
+                && label.charAt(length) == uri.charAt(position + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private void match(Node node, int offset, String pattern, int index, Set<String> out) {
+        if (index == pattern.length()) {
+            if (offset == node.label.length() && node.uri != null) {
+                out.add(node.uri);
+            }
+            return;
+        }
+        char c = pattern.charAt(index);
+        if (c != UriPattern.WILDCARD) {
+            if (offset < node.label.length()) {
+                if (node.label.charAt(offset) == c) {
+                    match(node, offset + 1, pattern, index + 1, out);
+                }
+            } else {
+                Node child = node.children.get(c);
+                if (child != null) {
+                    match(child, 1, pattern, index + 1, out);
+                }
+            }
+            return;
+        }
+        boolean anyDepth = index + 1 < pattern.length() && pattern.charAt(index + 1) == UriPattern.WILDCARD;
+        int next = anyDepth ? index + 2 : index + 1;
+        if (anyDepth && next == pattern.length()) {
+            collect(node, out);
+            return;
+        }
+        match(node, offset, pattern, next, out);
+        if (offset < node.label.length()) {
+            if (anyDepth || node.label.charAt(offset) != '/') {
+                match(node, offset + 1, pattern, index, out);
+            }
+        } else {
+            for (Node child : node.children.values()) {
+                if (anyDepth || child.label.charAt(0) != '/') {
+                    match(child, 1, pattern, index, out);
+                }
+            }
+        }
+    }
+
+    private void collect(Node node, Set<String> out) {
+        if (node.uri != null) {
+            out.add(node.uri);
+        }
+        for (Node child : node.children.values()) {
+            collect(child, out);
+        }
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final LongAdder hits = new LongAdder();
+        private String label;
+        private String uri;
+        private int uris;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package ru.practicum.server.uri;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.uri-trie")
+public class UriTrieProperties {
+    private boolean enabled = true;
+}
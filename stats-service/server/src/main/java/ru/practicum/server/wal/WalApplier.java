@@ -0,0 +1,123 @@
+package ru.practicum.server.wal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.server.ingestion.HitWriter;
+import ru.practicum.server.ingestion.IngestionMode;
+import ru.practicum.server.ingestion.IngestionProperties;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.WalCheckpointRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Slf4j
+@Component
+public class WalApplier implements SmartLifecycle {
+
+    private final WalLog walLog;
+    private final HitWriter hitWriter;
+    private final WalCheckpointRepository walCheckpointRepository;
+    private final IngestionProperties ingestionProperties;
+    private final WalProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final List<EndpointHit> batch;
+    private volatile boolean running;
+    private Thread applier;
+    private WalPosition position;
+
+    public WalApplier(WalLog walLog, HitWriter hitWriter, WalCheckpointRepository walCheckpointRepository,
+                      IngestionProperties ingestionProperties, WalProperties properties,
+                      PlatformTransactionManager transactionManager) {
+        this.walLog = walLog;
+        this.hitWriter = hitWriter;
+        this.walCheckpointRepository = walCheckpointRepository;
+        this.ingestionProperties = ingestionProperties;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batch = new ArrayList<>(ingestionProperties.getBatchSize());
+    }
+
+    @Override
+    public void start() {
+        if (ingestionProperties.getMode() != IngestionMode.WAL) {
+            return;
+        }
+        running = true;
+        applier = new Thread(this::applyLoop, "wal-applier");
+        applier.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            while (applyNext()) {
+                log.debug("Применен пакет журнала просмотров при остановке");
+            }
+        } catch (DataAccessException e) {
+            log.error("Не удалось применить журнал просмотров при остановке, он будет применен при следующем запуске", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void applyLoop() {
+        while (running) {
+            try {
+                if (!applyNext()) {
+                    Thread.sleep(properties.getApplyInterval().toMillis());
+                }
+            } catch (DataAccessException e) {
+                log.warn("Не удалось применить пакет журнала просмотров, повтор через {}", properties.getApplyInterval(), e);
+                try {
+                    Thread.sleep(properties.getApplyInterval().toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean applyNext() {
+        if (position == null) {
+            position = walCheckpointRepository.find();
+        }
+        batch.clear();
+        WalPosition next = walLog.read(position, ingestionProperties.getBatchSize(), batch);
+        if (!batch.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                hitWriter.saveAll(batch);
+                walCheckpointRepository.save(next);
+            });
+        }
+        boolean advanced = !next.equals(position);
+        position = next;
+        walLog.trim(position);
+        return advanced;
+    }
+}
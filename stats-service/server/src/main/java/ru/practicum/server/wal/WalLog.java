@@ -0,0 +1,241 @@
+package ru.practicum.server.wal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.ingestion.IngestionMode;
+import ru.practicum.server.ingestion.IngestionProperties;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.WalCheckpointRepository;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.zip.CRC32;
+
+@Slf4j
+@Component
+public class WalLog {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_FIELD_LENGTH = 125;
+
+    private final WalProperties properties;
+    private final IngestionProperties ingestionProperties;
+    private final WalCheckpointRepository walCheckpointRepository;
+    private final ConcurrentNavigableMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private Path directory;
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private int writeOffset;
+
+    public WalLog(WalProperties properties, IngestionProperties ingestionProperties,
+                  WalCheckpointRepository walCheckpointRepository) {
+        this.properties = properties;
+        this.ingestionProperties = ingestionProperties;
+        this.walCheckpointRepository = walCheckpointRepository;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (ingestionProperties.getMode() != IngestionMode.WAL) {
+            return;
+        }
+        directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), map(file, Files.size(file)));
+            }
+        }
+        if (!segments.isEmpty()) {
+            log.info("Найдено {} сегментов журнала просмотров для повторного применения", segments.size());
+        }
+        long next = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        WalPosition checkpoint = walCheckpointRepository.find();
+        if (checkpoint.getSegment() >= next) {
+            log.warn("Сегмент {} из контрольной точки журнала отсутствует в {}, новые сегменты нумеруются с {}",
+                    checkpoint.getSegment(), directory, checkpoint.getSegment() + 1);
+            next = checkpoint.getSegment() + 1;
+        }
+        rotate(next);
+    }
+
+    public synchronized void append(EndpointHit endpointHit) {
+        write(encode(endpointHit));
+        if (properties.isForceOnAppend()) {
+            writeBuffer.force();
+        }
+    }
+
+    public synchronized void appendAll(List<EndpointHit> endpointHits) {
+        for (EndpointHit endpointHit : endpointHits) {
+            write(encode(endpointHit));
+        }
+        if (properties.isForceOnAppend()) {
+            writeBuffer.force();
+        }
+    }
+
+    public WalPosition read(WalPosition from, int maxRecords, List<EndpointHit> out) {
+        long currentSegment;
+        int currentOffset;
+        synchronized (this) {
+            currentSegment = writeSegment;
+            currentOffset = writeOffset;
+        }
+        long segment = from.getSegment();
+        int offset = from.getOffset();
+        if (!segments.containsKey(segment)) {
+            Long next = segments.ceilingKey(segment);
+            if (next == null) {
+                return from;
+            }
+            segment = next;
+            offset = 0;
+        }
+        while (out.size() < maxRecords) {
+            ByteBuffer buffer = segments.get(segment).duplicate();
+            int limit = segment == currentSegment ? currentOffset : buffer.capacity();
+            EndpointHit endpointHit = offset + HEADER_SIZE <= limit ? decode(buffer, offset, limit) : null;
+            if (endpointHit != null) {
+                out.add(endpointHit);
+                offset += HEADER_SIZE + buffer.getInt(offset);
+                continue;
+            }
+            if (segment >= currentSegment) {
+                break;
+            }
+            if (offset + HEADER_SIZE <= limit && buffer.getInt(offset) != 0) {
+                log.warn("Сегмент журнала {} поврежден после смещения {}, остаток пропущен", segment, offset);
+            }
+            Long next = segments.higherKey(segment);
+            if (next == null) {
+                break;
+            }
+            segment = next;
+            offset = 0;
+        }
+        return new WalPosition(segment, offset);
+    }
+
+    public void trim(WalPosition applied) {
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.headMap(applied.getSegment()).entrySet()) {
+            segments.remove(entry.getKey());
+            try {
+                Files.deleteIfExists(segmentPath(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Не удалось удалить примененный сегмент журнала {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    private void write(byte[] payload) {
+        if (HEADER_SIZE + payload.length > writeBuffer.capacity()) {
+            throw new ValidationException("Запись просмотра не помещается в сегмент журнала");
+        }
+        if (writeOffset + HEADER_SIZE + payload.length > writeBuffer.capacity()) {
+            rotate(writeSegment + 1);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        writeBuffer.putInt(writeOffset + 4, (int) crc.getValue());
+        ByteBuffer target = writeBuffer.duplicate();
+        target.position(writeOffset + HEADER_SIZE);
+        target.put(payload);
+        writeBuffer.putInt(writeOffset, payload.length);
+        writeOffset += HEADER_SIZE + payload.length;
+    }
+
+    private void rotate(long segment) {
+        try {
+            writeBuffer = map(segmentPath(segment), properties.getSegmentSize().toBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.put(segment, writeBuffer);
+        writeSegment = segment;
+        writeOffset = 0;
+    }
+
+    private MappedByteBuffer map(Path file, long size) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+            randomAccessFile.setLength(size);
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private byte[] encode(EndpointHit endpointHit) {
+        byte[] app = field(endpointHit.getApp());
+        byte[] uri = field(endpointHit.getUri());
+        byte[] ip = field(endpointHit.getIp());
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 6 + app.length + uri.length + ip.length);
+        buffer.putLong(endpointHit.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(endpointHit.getTimestamp().getNano());
+        buffer.putShort((short) app.length).put(app);
+        buffer.putShort((short) uri.length).put(uri);
+        buffer.putShort((short) ip.length).put(ip);
+        return buffer.array();
+    }
+
+    private EndpointHit decode(ByteBuffer buffer, int offset, int limit) {
+        int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_SIZE + length > limit) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position(offset + HEADER_SIZE);
+        source.get(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.wrap(payload);
+        LocalDateTime timestamp = LocalDateTime.ofEpochSecond(record.getLong(), record.getInt(), ZoneOffset.UTC);
+        return EndpointHit.builder()
+                .timestamp(timestamp)
+                .app(readField(record))
+                .uri(readField(record))
+                .ip(readField(record))
+                .build();
+    }
+
+    private byte[] field(String value) {
+        if (value == null) {
+            throw new ValidationException("Для просмотра должны быть указаны app, uri и ip");
+        }
+        if (value.length() > MAX_FIELD_LENGTH) {
+            throw new ValidationException("Поля просмотра не должны быть длиннее " + MAX_FIELD_LENGTH + " символов");
+        }
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String readField(ByteBuffer record) {
+        byte[] bytes = new byte[record.getShort()];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.server.wal;
+
+import lombok.Value;
+
+@Value
+public class WalPosition {
+    long segment;
+    int offset;
+}
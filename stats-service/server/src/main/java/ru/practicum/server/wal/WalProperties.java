@@ -0,0 +1,16 @@
+package ru.practicum.server.wal;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.wal")
+public class WalProperties {
+    private String directory = "wal";
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+    private boolean forceOnAppend = true;
+    private Duration applyInterval = Duration.ofMillis(200);
+}
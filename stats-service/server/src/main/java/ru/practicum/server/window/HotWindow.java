@@ -0,0 +1,210 @@
+package ru.practicum.server.window;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.AppUri;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.rollup.RollupSegment;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@DependsOn("legacyHitMigration")
+public class HotWindow {
+
+    private static final long SUB_SECOND_NANOS = 1_000;
+    private static final int SECOND_DETAIL_MINUTES = 2;
+
+    private final HitRollupRepository hitRollupRepository;
+    private final HotWindowProperties properties;
+    private final int size;
+    private final AtomicReferenceArray<MinuteBucket> buckets;
+    private volatile boolean ready;
+
+    public HotWindow(HitRollupRepository hitRollupRepository, HotWindowProperties properties) {
+        this.hitRollupRepository = hitRollupRepository;
+        this.properties = properties;
+        this.size = (int) Math.max(1, properties.getDuration().toMinutes());
+        this.buckets = new AtomicReferenceArray<>(size);
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime start = minuteOf(currentMinute() - size + 1);
+        hitRollupRepository.forEachSecondBucket(start,
+                (key, hits) -> add(new AppUri(key.getApp(), key.getUri()), key.getBucket(), hits));
+        ready = true;
+        log.info("Оперативное окно просмотров восстановлено с {}", start);
+    }
+
+    public boolean covers(LocalDateTime start) {
+        return ready && minuteOf(start) > currentMinute() - size + 1;
+    }
+
+    public void add(List<EndpointHit> endpointHits) {
+        if (!ready) {
+            return;
+        }
+        for (EndpointHit endpointHit : endpointHits) {
+            add(new AppUri(endpointHit.getApp(), endpointHit.getUri()), secondOf(endpointHit.getTimestamp()), 1);
+        }
+    }
+
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime endExclusive, List<String> uris) {
+        Set<String> uriFilter = uris == null ? null : new HashSet<>(uris);
+        Map<AppUri, Long> merged = new HashMap<>();
+        List<RollupSegment> rawEdges = new ArrayList<>();
+        long fromMinute = minuteOf(start);
+        long toMinute = minuteOf(endExclusive);
+        if (!minuteOf(fromMinute).equals(start)) {
+            LocalDateTime edgeEnd = minuteOf(fromMinute + 1).isBefore(endExclusive) ? minuteOf(fromMinute + 1) : endExclusive;
+            if (!collectSeconds(fromMinute, start, endExclusive, uriFilter, merged)) {
+                rawEdges.add(new RollupSegment(null, start, edgeEnd));
+            }
+            fromMinute++;
+        }
+        if (fromMinute <= toMinute && !minuteOf(toMinute).equals(endExclusive)) {
+            if (!collectSeconds(toMinute, start, endExclusive, uriFilter, merged)) {
+                rawEdges.add(new RollupSegment(null, minuteOf(toMinute), endExclusive));
+            }
+        }
+        collect(fromMinute, toMinute, uriFilter, merged);
+        if (!rawEdges.isEmpty()) {
+            for (ViewStatsDto viewStats : hitRollupRepository.getStats(rawEdges, uris)) {
+                merged.merge(new AppUri(viewStats.getApp(), viewStats.getUri()), viewStats.getHits(), Long::sum);
+            }
+        }
+        return merged.entrySet().stream()
+                .map(entry -> new ViewStatsDto(entry.getKey().getApp(), entry.getKey().getUri(), entry.getValue()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    private void add(AppUri appUri, LocalDateTime second, long hits) {
+        long minute = minuteOf(second);
+        long current = currentMinute();
+        if (minute > current || minute <= current - size) {
+            return;
+        }
+        int index = (int) Math.floorMod(minute, (long) size);
+        MinuteBucket bucket = buckets.get(index);
+        while (bucket == null || bucket.minute < minute) {
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                bucket = fresh;
+                releaseSeconds(minute);
+            } else {
+                bucket = buckets.get(index);
+            }
+        }
+        if (bucket.minute == minute) {
+            bucket.counters.computeIfAbsent(appUri, key -> new LongAdder()).add(hits);
+            Map<SecondKey, LongAdder> seconds = bucket.seconds;
+            if (seconds != null && minute > current - SECOND_DETAIL_MINUTES) {
+                seconds.computeIfAbsent(new SecondKey(appUri, second), key -> new LongAdder()).add(hits);
+            }
+        }
+    }
+
+    private void releaseSeconds(long newestMinute) {
+        for (int i = 0; i < size; i++) {
+            MinuteBucket bucket = buckets.get(i);
+            if (bucket != null && bucket.seconds != null && bucket.minute <= newestMinute - SECOND_DETAIL_MINUTES) {
+                bucket.seconds = null;
+            }
+        }
+    }
+
+    private void collect(long fromMinute, long toMinute, Set<String> uriFilter, Map<AppUri, Long> merged) {
+        for (long minute = fromMinute; minute < toMinute; minute++) {
+            MinuteBucket bucket = buckets.get((int) Math.floorMod(minute, (long) size));
+            if (bucket == null || bucket.minute != minute) {
+                continue;
+            }
+            for (Map.Entry<AppUri, LongAdder> entry : bucket.counters.entrySet()) {
+                if (uriFilter == null || uriFilter.contains(entry.getKey().getUri())) {
+                    merged.merge(entry.getKey(), entry.getValue().sum(), Long::sum);
+                }
+            }
+        }
+    }
+
+    private boolean collectSeconds(long minute, LocalDateTime start, LocalDateTime endExclusive, Set<String> uriFilter,
+                                   Map<AppUri, Long> merged) {
+        MinuteBucket bucket = buckets.get((int) Math.floorMod(minute, (long) size));
+        if (bucket == null || bucket.minute != minute) {
+            return true;
+        }
+        Map<SecondKey, LongAdder> seconds = bucket.seconds;
+        if (seconds == null || minute <= currentMinute() - SECOND_DETAIL_MINUTES) {
+            return false;
+        }
+        for (Map.Entry<SecondKey, LongAdder> entry : seconds.entrySet()) {
+            SecondKey key = entry.getKey();
+            if (!key.getSecond().isBefore(start) && key.getSecond().isBefore(endExclusive)
+                    && (uriFilter == null || uriFilter.contains(key.getAppUri().getUri()))) {
+                merged.merge(key.getAppUri(), entry.getValue().sum(), Long::sum);
+            }
+        }
+        return true;
+    }
+
+    private LocalDateTime secondOf(LocalDateTime timestamp) {
+        LocalDateTime second = timestamp.truncatedTo(ChronoUnit.SECONDS);
+        return second.equals(timestamp) ? second : second.plusNanos(SUB_SECOND_NANOS);
+    }
+
+    private long currentMinute() {
+        return minuteOf(LocalDateTime.now());
+    }
+
+    private long minuteOf(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60L);
+    }
+
+    private LocalDateTime minuteOf(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private static class MinuteBucket {
+        private final long minute;
+        private final Map<AppUri, LongAdder> counters = new ConcurrentHashMap<>();
+        private volatile Map<SecondKey, LongAdder> seconds = new ConcurrentHashMap<>();
+
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    @Value
+    private static class SecondKey {
+        AppUri appUri;
+        LocalDateTime second;
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.server.window;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "stats-server.hot-window")
+public class HotWindowProperties {
+    private boolean enabled = true;
+    private Duration duration = Duration.ofHours(24);
+}
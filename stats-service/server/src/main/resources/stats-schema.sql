@@ -0,0 +1,119 @@
+CREATE TABLE IF NOT EXISTS apps (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(125) NOT NULL,
+    CONSTRAINT uq_apps_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS uris (
+    id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(125) NOT NULL,
+    CONSTRAINT uq_uris_name UNIQUE (name)
+);
+
+CREATE SEQUENCE IF NOT EXISTS hits_id_seq;
+
+CREATE TABLE IF NOT EXISTS hits (
+    id BIGINT NOT NULL DEFAULT nextval('hits_id_seq'),
+    timestamp TIMESTAMP NOT NULL,
+    app_id INTEGER NOT NULL,
+    uri_id INTEGER NOT NULL,
+    ip BYTEA NOT NULL,
+    CONSTRAINT pk_hits PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE INDEX IF NOT EXISTS hits_timestamp_idx ON hits (timestamp);
+
+CREATE INDEX IF NOT EXISTS hits_uri_id_timestamp_idx ON hits (uri_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS hit_rollups_minute (
+    app VARCHAR(125) NOT NULL,
+    uri VARCHAR(125) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hit_rollups_minute PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE TABLE IF NOT EXISTS hit_rollups_hour (
+    app VARCHAR(125) NOT NULL,
+    uri VARCHAR(125) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hit_rollups_hour PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS hit_rollups_minute_bucket_idx ON hit_rollups_minute (bucket);
+
+CREATE TABLE IF NOT EXISTS hit_rollups_day (
+    app VARCHAR(125) NOT NULL,
+    uri VARCHAR(125) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    hits BIGINT NOT NULL,
+    CONSTRAINT pk_hit_rollups_day PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS hit_rollups_hour_bucket_idx ON hit_rollups_hour (bucket);
+
+CREATE INDEX IF NOT EXISTS hit_rollups_day_bucket_idx ON hit_rollups_day (bucket);
+
+INSERT INTO hit_rollups_minute (app, uri, bucket, hits)
+SELECT a.name, u.name, h.bucket, h.hits
+FROM (SELECT app_id, uri_id, date_trunc('minute', timestamp) AS bucket, COUNT(*) AS hits
+      FROM hits
+      WHERE NOT EXISTS (SELECT 1 FROM hit_rollups_minute)
+      GROUP BY app_id, uri_id, date_trunc('minute', timestamp)) h
+JOIN apps a ON a.id = h.app_id
+JOIN uris u ON u.id = h.uri_id;
+
+INSERT INTO hit_rollups_hour (app, uri, bucket, hits)
+SELECT a.name, u.name, h.bucket, h.hits
+FROM (SELECT app_id, uri_id, date_trunc('hour', timestamp) AS bucket, COUNT(*) AS hits
+      FROM hits
+      WHERE NOT EXISTS (SELECT 1 FROM hit_rollups_hour)
+      GROUP BY app_id, uri_id, date_trunc('hour', timestamp)) h
+JOIN apps a ON a.id = h.app_id
+JOIN uris u ON u.id = h.uri_id;
+
+INSERT INTO hit_rollups_day (app, uri, bucket, hits)
+SELECT app, uri, date_trunc('day', bucket), SUM(hits)
+FROM hit_rollups_hour
+WHERE NOT EXISTS (SELECT 1 FROM hit_rollups_day)
+GROUP BY app, uri, date_trunc('day', bucket);
+
+CREATE TABLE IF NOT EXISTS hit_sketches_hour (
+    app VARCHAR(125) NOT NULL,
+    uri VARCHAR(125) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    registers BYTEA NOT NULL,
+    CONSTRAINT pk_hit_sketches_hour PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE TABLE IF NOT EXISTS hit_sketches_day (
+    app VARCHAR(125) NOT NULL,
+    uri VARCHAR(125) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    registers BYTEA NOT NULL,
+    CONSTRAINT pk_hit_sketches_day PRIMARY KEY (app, uri, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS hit_sketches_hour_bucket_idx ON hit_sketches_hour (bucket);
+
+CREATE INDEX IF NOT EXISTS hit_sketches_day_bucket_idx ON hit_sketches_day (bucket);
+
+CREATE TABLE IF NOT EXISTS hit_top_hour (
+    bucket TIMESTAMP NOT NULL,
+    summary BYTEA NOT NULL,
+    CONSTRAINT pk_hit_top_hour PRIMARY KEY (bucket)
+);
+
+CREATE TABLE IF NOT EXISTS hit_top_day (
+    bucket TIMESTAMP NOT NULL,
+    summary BYTEA NOT NULL,
+    CONSTRAINT pk_hit_top_day PRIMARY KEY (bucket)
+);
+
+CREATE TABLE IF NOT EXISTS wal_checkpoint (
+    id INTEGER NOT NULL,
+    segment BIGINT NOT NULL,
+    position INTEGER NOT NULL,
+    CONSTRAINT pk_wal_checkpoint PRIMARY KEY (id)
+);
\ No newline at end of file
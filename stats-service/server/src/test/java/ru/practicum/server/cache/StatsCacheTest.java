@@ -0,0 +1,129 @@
+package ru.practicum.server.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.EndpointHit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsCacheTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 1, 11, 0);
+
+    private final StatsCacheProperties properties = new StatsCacheProperties();
+    private final AtomicInteger loads = new AtomicInteger();
+    private StatsCache statsCache;
+
+    @BeforeEach
+    void setUp() {
+        statsCache = new StatsCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void acceptsOnlyBucketAlignedBounds() {
+        assertThat(statsCache.accepts(START, END)).isTrue();
+        assertThat(statsCache.accepts(START, END.minusSeconds(1))).isTrue();
+        assertThat(statsCache.accepts(START.plusSeconds(1), END)).isFalse();
+        assertThat(statsCache.accepts(START, END.minusSeconds(2))).isFalse();
+    }
+
+    @Test
+    void alignedKeyRoundsStartUpAndEndDown() {
+        StatsCacheKey key = statsCache.alignedKey(START.plusSeconds(30), END.plusSeconds(20), null, null, false);
+
+        assertThat(key.getStart()).isEqualTo(START.plusMinutes(1));
+        assertThat(key.getEnd()).isEqualTo(END);
+        assertThat(statsCache.alignedKey(START.plusSeconds(1), START.plusSeconds(59), null, null, false)).isNull();
+        assertThat(statsCache.alignedKey(START.plusSeconds(30), START.plusSeconds(90), null, null, false)).isNull();
+    }
+
+    @Test
+    void repeatedRequestIsServedFromCache() {
+        StatsCacheKey key = statsCache.key(START, END, List.of("/events/2", "/events/1"), List.of("/events/2", "/events/1"), false);
+
+        statsCache.get(key, loader());
+        List<ViewStatsDto> cached = statsCache.get(statsCache.key(START, END, null, List.of("/events/1", "/events/2"), false), loader());
+
+        assertThat(loads).hasValue(1);
+        assertThat(cached).containsExactly(new ViewStatsDto("ewm", "/events/1", 1L));
+    }
+
+    @Test
+    void hitInsideRangeForCachedUriInvalidatesEntry() {
+        StatsCacheKey key = statsCache.key(START, END, null, List.of("/events/1"), false);
+        statsCache.get(key, loader());
+
+        statsCache.invalidate(List.of(hit("/events/1", END.plusSeconds(1)), hit("/events/2", START)));
+        statsCache.get(key, loader());
+        assertThat(loads).hasValue(1);
+
+        statsCache.invalidate(List.of(hit("/events/1", END)));
+        statsCache.get(key, loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void hitOnNewUriMatchingPatternInvalidatesPatternEntry() {
+        StatsCacheKey key = statsCache.key(START, END, List.of("/events/*"), List.of("/events/1"), false);
+        statsCache.get(key, loader());
+
+        statsCache.invalidate(List.of(hit("/events/1/requests", START)));
+        statsCache.get(key, loader());
+        assertThat(loads).hasValue(1);
+
+        statsCache.invalidate(List.of(hit("/events/2", START)));
+        statsCache.get(key, loader());
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void hitDuringLoadKeepsResultOutOfCache() {
+        StatsCacheKey key = statsCache.key(START, END, null, null, false);
+
+        statsCache.get(key, () -> {
+            statsCache.invalidate(List.of(hit("/events/1", START)));
+            return loader().get();
+        });
+        statsCache.get(key, loader());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void overflowEvictsLeastRecentlyUsedEntries() {
+        properties.setMaximumSize(10);
+        for (int i = 0; i < 10; i++) {
+            statsCache.get(keyForHour(i), loader());
+        }
+        statsCache.get(keyForHour(0), loader());
+
+        statsCache.get(keyForHour(10), loader());
+        statsCache.get(keyForHour(0), loader());
+        statsCache.get(keyForHour(1), loader());
+
+        assertThat(loads).hasValue(12);
+    }
+
+    private StatsCacheKey keyForHour(int hour) {
+        return statsCache.key(START.plusHours(hour), END.plusHours(hour), null, null, false);
+    }
+
+    private Supplier<List<ViewStatsDto>> loader() {
+        return () -> {
+            loads.incrementAndGet();
+            return List.of(new ViewStatsDto("ewm", "/events/1", 1L));
+        };
+    }
+
+    private EndpointHit hit(String uri, LocalDateTime timestamp) {
+        return EndpointHit.builder().app("ewm").uri(uri).ip("10.0.0.1").timestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,146 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnSegmentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeUsesNarrowColumnsForSmallValues() throws IOException {
+        Memtable memtable = new Memtable(4);
+        memtable.append(1_000, 1, 2, 0xC0A80001L);
+        memtable.append(1_000, 1, 3, 0xC0A80002L);
+        memtable.append(1_001, 2, 2, 0xC0A80003L);
+
+        ColumnSegment segment = write(memtable);
+
+        assertThat(segment.getRows()).isEqualTo(3);
+        assertThat(Files.size(directory.resolve("1" + ColumnSegment.SUFFIX))).isEqualTo(36 + 12 + 4 + 3 + 3 + 3 + 3 * 4);
+        assertThat(scan(segment, 0, Long.MAX_VALUE, null)).containsExactly(
+                new long[]{1, 2, 0xC0A80001L}, new long[]{1, 3, 0xC0A80002L}, new long[]{2, 2, 0xC0A80003L});
+    }
+
+    @Test
+    void writeWidensColumnsForLargeValues() throws IOException {
+        Memtable memtable = new Memtable(4);
+        memtable.append(1, 300, 70_000, 1L << 40);
+        memtable.append(2, 0, 0, 0xFFFFFFFFL);
+
+        ColumnSegment segment = write(memtable);
+
+        assertThat(scan(segment, 0, Long.MAX_VALUE, null)).containsExactly(
+                new long[]{300, 70_000, 1L << 40}, new long[]{0, 0, 0xFFFFFFFFL});
+    }
+
+    @Test
+    void openReadsWrittenSegmentBack() throws IOException {
+        Memtable memtable = new Memtable(4);
+        memtable.append(20, 1, 5, 7);
+        memtable.append(10, 2, 6, 8);
+        write(memtable);
+
+        ColumnSegment segment = ColumnSegment.open(directory.resolve("1" + ColumnSegment.SUFFIX));
+
+        assertThat(scan(segment, 0, 100, null)).containsExactly(new long[]{2, 6, 8}, new long[]{1, 5, 7});
+    }
+
+    @Test
+    void scanSeeksIntoBlocksAndStopsAtRangeEnd() throws IOException {
+        Memtable memtable = new Memtable(16);
+        for (int i = 0; i < 5_000; i++) {
+            memtable.append(1_000_000L + i * 3L, 0, i % 7, i);
+        }
+
+        ColumnSegment segment = write(memtable);
+
+        List<long[]> rows = scan(segment, 1_000_000L + 3_000, 1_000_000L + 9_000, null);
+        assertThat(rows).hasSize(2_001);
+        assertThat(rows.get(0)[2]).isEqualTo(1_000);
+        assertThat(rows.get(rows.size() - 1)[2]).isEqualTo(3_000);
+        assertThat(scan(segment, 1_000_000L + 3_001, 1_000_000L + 3_002, null)).isEmpty();
+        assertThat(scan(segment, 0, 999_999, null)).isEmpty();
+    }
+
+    @Test
+    void scanAppliesUriFilter() throws IOException {
+        Memtable memtable = new Memtable(4);
+        memtable.append(1, 0, 0, 1);
+        memtable.append(2, 0, 1, 2);
+        memtable.append(3, 0, 2, 3);
+
+        ColumnSegment segment = write(memtable);
+
+        assertThat(scan(segment, 0, 10, new boolean[]{false, true})).containsExactly(new long[]{0, 1, 2});
+        assertThat(scan(segment, 2, 3, new boolean[]{true, false, true})).containsExactly(new long[]{0, 2, 3});
+    }
+
+    @Test
+    void writeHandlesEmptySnapshot() throws IOException {
+        ColumnSegment segment = write(new Memtable(1));
+
+        assertThat(segment.getRows()).isZero();
+        assertThat(scan(segment, 0, Long.MAX_VALUE, null)).isEmpty();
+    }
+
+    @Test
+    void scanPassesDecodedTimestampsAcrossBlocks() throws IOException {
+        Memtable memtable = new Memtable(16);
+        for (int i = 0; i < 2_500; i++) {
+            memtable.append(500_000L + i * 7L, i % 3, i % 300, 1L << 33 | i);
+        }
+        ColumnSegment segment = write(memtable);
+
+        Memtable copy = new Memtable(16);
+        segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, null, copy::append);
+        List<Long> timestamps = new ArrayList<>();
+        segment.scan(500_000L + 1_500 * 7L, 500_000L + 1_502 * 7L, null, (timestamp, appId, uriId, ip) -> timestamps.add(timestamp));
+
+        Memtable.Snapshot expected = memtable.sortedSnapshot();
+        Memtable.Snapshot actual = copy.sortedSnapshot();
+        assertThat(actual.timestamps).containsExactly(expected.timestamps);
+        assertThat(actual.appIds).containsExactly(expected.appIds);
+        assertThat(actual.uriIds).containsExactly(expected.uriIds);
+        assertThat(actual.ips).containsExactly(expected.ips);
+        assertThat(timestamps).containsExactly(510_500L, 510_507L, 510_514L);
+    }
+
+    @Test
+    void releaseDeletesFileOnlyAfterLastReader() throws IOException {
+        Memtable memtable = new Memtable(1);
+        memtable.append(1, 0, 0, 1);
+        ColumnSegment segment = write(memtable);
+        Path file = segment.getFile();
+
+        assertThat(segment.retain()).isTrue();
+        segment.release();
+
+        assertThat(file).exists();
+        assertThat(scan(segment, 0, 10, null)).hasSize(1);
+
+        segment.release();
+
+        assertThat(file).doesNotExist();
+        assertThat(segment.retain()).isFalse();
+    }
+
+    private ColumnSegment write(Memtable memtable) throws IOException {
+        return ColumnSegment.write(directory.resolve("1" + ColumnSegment.SUFFIX), memtable.sortedSnapshot());
+    }
+
+    private List<long[]> scan(ColumnSegment segment, long from, long to, boolean[] uriFilter) {
+        List<long[]> rows = new ArrayList<>();
+        segment.scan(from, to, uriFilter, (timestamp, appId, uriId, ip) -> rows.add(new long[]{appId, uriId, ip}));
+        return rows;
+    }
+}
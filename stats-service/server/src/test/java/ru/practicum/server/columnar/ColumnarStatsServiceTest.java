@@ -0,0 +1,128 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.dto.TimeSeriesDto;
+import ru.practicum.dto.TimeSeriesEntryDto;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.ingestion.AdmissionController;
+import ru.practicum.server.ingestion.AdmissionPolicy;
+import ru.practicum.server.ingestion.AdmissionProperties;
+import ru.practicum.server.ingestion.EndpointHitStreamReader;
+import ru.practicum.server.ingestion.HitBuffer;
+import ru.practicum.server.model.EndpointHit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ColumnarStatsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    private final AdmissionProperties admissionProperties = new AdmissionProperties();
+    private ColumnarStore columnarStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ColumnarProperties properties = new ColumnarProperties();
+        properties.setDirectory(directory.toString());
+        columnarStore = spy(new ColumnarStore(properties, mock(TaskScheduler.class)));
+        columnarStore.open();
+    }
+
+    @Test
+    void batchWithinAdmissionLimitIsStored() {
+        EndpointHitsResultDto result = statsService().addEndpointHits(List.of(dto("/events/1"), dto(" "), dto("/events/2")));
+
+        assertThat(result.getAccepted()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(statsService().getStats(START, START.plusMinutes(1), null, false)).hasSize(2);
+    }
+
+    @Test
+    void saturatedAdmissionRejectsColumnarWrites() {
+        admissionProperties.setMaxInFlight(0);
+        ColumnarStatsService statsService = statsService();
+
+        assertThatThrownBy(() -> statsService.addEndpointHits(List.of(dto("/events/1"))))
+                .isInstanceOf(IngestionRejectedException.class);
+        assertThatThrownBy(() -> statsService.addEndpointHit(dto("/events/1")))
+                .isInstanceOf(IngestionRejectedException.class);
+        assertThat(statsService.getStats(START.minusYears(1), START.plusYears(100), null, false)).isEmpty();
+    }
+
+    @Test
+    void droppedBatchIsNotStored() {
+        admissionProperties.setMaxInFlight(0);
+        admissionProperties.setPolicy(AdmissionPolicy.DROP);
+
+        statsService().addEndpointHits(List.of(dto("/events/1"), dto("/events/2")));
+
+        assertThat(statsService().getStats(START, START.plusMinutes(1), null, false)).isEmpty();
+    }
+
+    @Test
+    void timeSeriesBucketsHitsInSingleScan() {
+        columnarStore.addAll(List.of(
+                hit("/events/1", "10.0.0.1", START.plusSeconds(10)),
+                hit("/events/1", "10.0.0.1", START.plusSeconds(50)),
+                hit("/events/1", "10.0.0.2", START.plusSeconds(90)),
+                hit("/events/2", "10.0.0.3", START.plusMinutes(2)),
+                hit("/events/2", "10.0.0.3", START.plusMinutes(3))));
+
+        TimeSeriesDto series = statsService().getTimeSeries(START.plusSeconds(30), START.plusMinutes(2), null, "minute", false);
+
+        verify(columnarStore, times(1)).scan(any(), any(), any(), any());
+        assertThat(series.getTimestamps()).containsExactly(START, START.plusMinutes(1), START.plusMinutes(2));
+        assertThat(series.getSeries()).extracting(TimeSeriesEntryDto::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(series.getSeries().get(0).getHits()).containsExactly(1, 1, 0);
+        assertThat(series.getSeries().get(1).getHits()).containsExactly(0, 0, 1);
+    }
+
+    @Test
+    void uniqueTimeSeriesCountsEachIpOncePerBucket() {
+        columnarStore.addAll(List.of(
+                hit("/events/1", "10.0.0.1", START.plusMinutes(5)),
+                hit("/events/1", "10.0.0.1", START.plusMinutes(20)),
+                hit("/events/1", "10.0.0.2", START.plusMinutes(40)),
+                hit("/events/1", "10.0.0.1", START.plusMinutes(70))));
+
+        TimeSeriesDto series = statsService().getTimeSeries(START, START.plusHours(2), List.of("/events/1"), "hour", true);
+
+        assertThat(series.getSeries()).hasSize(1);
+        assertThat(series.getSeries().get(0).getHits()).containsExactly(2, 1, 0);
+        assertThat(series.getSeries().get(0).getTotal()).isEqualTo(3);
+    }
+
+    private ColumnarStatsService statsService() {
+        AdmissionController admissionController = new AdmissionController(admissionProperties, mock(HitBuffer.class),
+                new SimpleMeterRegistry());
+        return new ColumnarStatsService(columnarStore, mock(EndpointHitStreamReader.class), admissionController);
+    }
+
+    private EndpointHitDto dto(String uri) {
+        return EndpointHitDto.builder().app("ewm-main-service").uri(uri).ip("10.0.0.1").timestamp(START.plusSeconds(1)).build();
+    }
+
+    private EndpointHit hit(String uri, String ip, LocalDateTime timestamp) {
+        return EndpointHit.builder().app("ewm-main-service").uri(uri).ip(ip).timestamp(timestamp).build();
+    }
+}
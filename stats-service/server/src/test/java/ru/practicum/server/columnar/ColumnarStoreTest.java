@@ -0,0 +1,118 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+import ru.practicum.server.model.EndpointHit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ColumnarStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fullMemtableIsFlushedIntoSegment() throws IOException {
+        ColumnarStore store = open(2, 8);
+
+        store.addAll(List.of(hit("/events/1", 0), hit("/events/2", 1), hit("/events/1", 2)));
+
+        assertThat(files(ColumnSegment.SUFFIX)).containsExactly(String.format("%020d.seg", 1));
+        assertThat(count(store)).isEqualTo(3);
+    }
+
+    @Test
+    void unflushedHitsAreRecoveredFromJournalOnOpen() throws IOException {
+        ColumnarStore crashed = open(100, 8);
+        crashed.add(hit("/events/1", 0));
+        crashed.add(hit("/events/2", 1));
+
+        ColumnarStore store = open(100, 8);
+
+        assertThat(count(store)).isEqualTo(2);
+        assertThat(files(ColumnSegment.SUFFIX)).containsExactly(String.format("%020d.seg", 1));
+        assertThat(files(MemtableJournal.SUFFIX)).containsExactly(String.format("%020d.log", 2));
+    }
+
+    @Test
+    void compactMergesSmallSegmentsAndDeletesSources() throws IOException {
+        ColumnarStore store = open(1, 3);
+        for (int i = 0; i < 4; i++) {
+            store.add(hit("/events/" + i, i));
+        }
+
+        store.compact();
+
+        assertThat(files(ColumnSegment.SUFFIX)).containsExactly(String.format("%020d-%020d.seg", 1, 4));
+        assertThat(count(store)).isEqualTo(4);
+    }
+
+    @Test
+    void compactLeavesSegmentsBelowThresholdAlone() throws IOException {
+        ColumnarStore store = open(1, 3);
+        store.add(hit("/events/1", 0));
+        store.add(hit("/events/2", 1));
+
+        store.compact();
+
+        assertThat(files(ColumnSegment.SUFFIX)).hasSize(2);
+    }
+
+    @Test
+    void openDeletesSourcesLeftBehindByInterruptedCompaction() throws IOException {
+        ColumnarStore store = open(1, 3);
+        for (int i = 0; i < 3; i++) {
+            store.add(hit("/events/" + i, i));
+        }
+        Path source = directory.resolve(String.format("%020d.seg", 2));
+        byte[] bytes = Files.readAllBytes(source);
+        store.compact();
+        Files.write(source, bytes);
+
+        ColumnarStore reopened = open(1, 3);
+
+        assertThat(count(reopened)).isEqualTo(3);
+        assertThat(files(ColumnSegment.SUFFIX)).containsExactly(String.format("%020d-%020d.seg", 1, 3));
+    }
+
+    private ColumnarStore open(int memtableRows, int compactionSegments) throws IOException {
+        ColumnarProperties properties = new ColumnarProperties();
+        properties.setDirectory(directory.toString());
+        properties.setMemtableRows(memtableRows);
+        properties.setCompactionSegments(compactionSegments);
+        ColumnarStore store = new ColumnarStore(properties, mock(TaskScheduler.class));
+        store.open();
+        return store;
+    }
+
+    private EndpointHit hit(String uri, int minutes) {
+        return EndpointHit.builder().app("ewm-main-service").uri(uri).ip("10.0.0." + minutes).timestamp(START.plusMinutes(minutes)).build();
+    }
+
+    private long count(ColumnarStore store) {
+        long[] rows = {0};
+        store.scan(START, START.plusDays(1), null, (timestamp, appId, uriId, ip) -> rows[0]++);
+        return rows[0];
+    }
+
+    private List<String> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemtableJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayRestoresJournaledRows() throws IOException {
+        Path file = directory.resolve("1" + MemtableJournal.SUFFIX);
+        Memtable memtable = new Memtable(4, MemtableJournal.create(file));
+        memtable.append(20, 1, 7, 0xC0A80001L);
+        memtable.append(10, 2, 8, 1L << 40);
+        memtable.force();
+
+        Memtable restored = new Memtable(4);
+        int rows = MemtableJournal.replay(file, restored);
+
+        assertThat(rows).isEqualTo(2);
+        Memtable.Snapshot snapshot = restored.sortedSnapshot();
+        assertThat(snapshot.timestamps).containsExactly(10, 20);
+        assertThat(snapshot.appIds).containsExactly(2, 1);
+        assertThat(snapshot.uriIds).containsExactly(8, 7);
+        assertThat(snapshot.ips).containsExactly(1L << 40, 0xC0A80001L);
+    }
+
+    @Test
+    void replayIgnoresTornLastRecord() throws IOException {
+        Path file = directory.resolve("1" + MemtableJournal.SUFFIX);
+        Memtable memtable = new Memtable(4, MemtableJournal.create(file));
+        memtable.append(10, 1, 1, 1);
+        memtable.append(20, 1, 2, 2);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 5);
+        }
+
+        Memtable restored = new Memtable(4);
+
+        assertThat(MemtableJournal.replay(file, restored)).isEqualTo(1);
+        assertThat(restored.sortedSnapshot().uriIds).containsExactly(1);
+    }
+
+    @Test
+    void deleteRemovesFileAndMakesForceNoop() throws IOException {
+        Path file = directory.resolve("1" + MemtableJournal.SUFFIX);
+        MemtableJournal journal = MemtableJournal.create(file);
+        journal.append(10, 1, 1, 1);
+
+        journal.delete();
+        journal.force();
+
+        assertThat(file).doesNotExist();
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.server.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemtableTest {
+
+    @Test
+    void appendGrowsBeyondInitialCapacity() {
+        Memtable memtable = new Memtable(2);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(memtable.append(i, 0, i, i)).isTrue();
+        }
+
+        assertThat(memtable.size()).isEqualTo(5);
+        assertThat(scan(memtable, 0, 4, null)).containsExactly(
+                new long[]{0, 0, 0}, new long[]{0, 1, 1}, new long[]{0, 2, 2}, new long[]{0, 3, 3}, new long[]{0, 4, 4});
+    }
+
+    @Test
+    void appendIsRejectedAfterSeal() {
+        Memtable memtable = new Memtable(4);
+        memtable.append(1, 0, 0, 0);
+
+        memtable.seal();
+
+        assertThat(memtable.append(2, 0, 0, 0)).isFalse();
+        assertThat(memtable.size()).isEqualTo(1);
+    }
+
+    @Test
+    void scanAppliesInclusiveBoundsAndUriFilter() {
+        Memtable memtable = new Memtable(4);
+        memtable.append(10, 1, 0, 100);
+        memtable.append(20, 1, 1, 200);
+        memtable.append(30, 1, 0, 300);
+        memtable.append(40, 1, 2, 400);
+
+        assertThat(scan(memtable, 20, 30, null)).containsExactly(new long[]{1, 1, 200}, new long[]{1, 0, 300});
+        assertThat(scan(memtable, 0, 100, new boolean[]{true, false})).containsExactly(
+                new long[]{1, 0, 100}, new long[]{1, 0, 300});
+    }
+
+    @Test
+    void sortedSnapshotOrdersRowsByTimestamp() {
+        Memtable memtable = new Memtable(4);
+        memtable.append(30, 3, 30, 300);
+        memtable.append(10, 1, 10, 100);
+        memtable.append(20, 2, 20, 200);
+
+        Memtable.Snapshot snapshot = memtable.sortedSnapshot();
+
+        assertThat(snapshot.timestamps).containsExactly(10, 20, 30);
+        assertThat(snapshot.appIds).containsExactly(1, 2, 3);
+        assertThat(snapshot.uriIds).containsExactly(10, 20, 30);
+        assertThat(snapshot.ips).containsExactly(100, 200, 300);
+    }
+
+    private List<long[]> scan(Memtable memtable, long from, long to, boolean[] uriFilter) {
+        List<long[]> rows = new ArrayList<>();
+        memtable.scan(from, to, uriFilter, (timestamp, appId, uriId, ip) -> rows.add(new long[]{appId, uriId, ip}));
+        return rows;
+    }
+}
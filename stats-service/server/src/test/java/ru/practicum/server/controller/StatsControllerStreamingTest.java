@@ -0,0 +1,99 @@
+package ru.practicum.server.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.service.StatsService;
+import ru.practicum.server.streaming.ViewStatsStreamWriter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class StatsControllerStreamingTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime END = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+    private final StatsService statsService = mock(StatsService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        mockMvc = MockMvcBuilders.standaloneSetup(new StatsController(statsService, new ViewStatsStreamWriter(objectMapper)))
+                .build();
+        doAnswer(invocation -> {
+            Consumer<ViewStatsDto> consumer = invocation.getArgument(3);
+            consumer.accept(new ViewStatsDto("ewm", "/events/1", 5L));
+            consumer.accept(new ViewStatsDto("ewm", "/events/2", 3L));
+            return null;
+        }).when(statsService).streamStats(eq(START), eq(END), anyBoolean(), any());
+    }
+
+    @Test
+    void streamWritesOneJsonObjectPerLine() throws Exception {
+        mockMvc.perform(get("/stats").param("start", "2024-01-01 00:00:00").param("end", "2024-01-02 00:00:00")
+                        .param("stream", "true").param("unique", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"app\":\"ewm\",\"uri\":\"/events/1\",\"hits\":5}\n"
+                        + "{\"app\":\"ewm\",\"uri\":\"/events/2\",\"hits\":3}\n"));
+
+        verify(statsService).streamStats(eq(START), eq(END), eq(true), any());
+    }
+
+    @Test
+    void requestWithoutStreamFlagGetsJsonArray() throws Exception {
+        when(statsService.getStats(START, END, null, false)).thenReturn(List.of(new ViewStatsDto("ewm", "/events/1", 5L)));
+
+        mockMvc.perform(get("/stats").param("start", "2024-01-01 00:00:00").param("end", "2024-01-02 00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].hits").value(5));
+
+        verify(statsService, never()).streamStats(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void filteredRequestIsNeverStreamed() throws Exception {
+        when(statsService.getStats(START, END, List.of("/events/1"), false)).thenReturn(List.of());
+
+        mockMvc.perform(get("/stats").param("start", "2024-01-01 00:00:00").param("end", "2024-01-02 00:00:00")
+                        .param("uris", "/events/1").param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+
+        verify(statsService, never()).streamStats(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void approximateUniqueStreamCarriesErrorHeader() throws Exception {
+        when(statsService.getApproxUniqueStats(START, END, null)).thenReturn(List.of(new ViewStatsDto("ewm", "/events/1", 7L)));
+        when(statsService.getApproxRelativeError()).thenReturn(0.01625);
+
+        mockMvc.perform(get("/stats").param("start", "2024-01-01 00:00:00").param("end", "2024-01-02 00:00:00")
+                        .param("stream", "true").param("unique", "true").param("approx", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Stats-Relative-Error", "0.01625"))
+                .andExpect(content().string("{\"app\":\"ewm\",\"uri\":\"/events/1\",\"hits\":7}\n"));
+    }
+}
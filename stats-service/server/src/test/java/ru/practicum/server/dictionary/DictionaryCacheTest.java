@@ -0,0 +1,89 @@
+package ru.practicum.server.dictionary;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.server.repository.DictionaryRepository;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DictionaryCacheTest {
+
+    private final DictionaryRepository dictionaryRepository = mock(DictionaryRepository.class);
+    private DictionaryCache dictionaryCache;
+
+    @BeforeEach
+    void setUp() {
+        when(dictionaryRepository.findAll(Dictionary.APPS)).thenReturn(Map.of("ewm", 1));
+        when(dictionaryRepository.findAll(Dictionary.URIS)).thenReturn(Map.of());
+        when(dictionaryRepository.findId(Dictionary.URIS, "/events/1")).thenReturn(7);
+        dictionaryCache = new DictionaryCache(dictionaryRepository);
+        dictionaryCache.load();
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void loadedNamesAreServedWithoutQueries() {
+        assertThat(dictionaryCache.getOrCreateId(Dictionary.APPS, "ewm")).isEqualTo(1);
+
+        verify(dictionaryRepository, times(0)).insertIfAbsent(Dictionary.APPS, "ewm");
+    }
+
+    @Test
+    void newNameOutsideTransactionIsCachedAtOnce() {
+        assertThat(dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1")).isEqualTo(7);
+        assertThat(dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1")).isEqualTo(7);
+
+        verify(dictionaryRepository, times(1)).insertIfAbsent(Dictionary.URIS, "/events/1");
+    }
+
+    @Test
+    void newNameInsideTransactionIsCachedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1");
+        dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1");
+        verify(dictionaryRepository, times(2)).insertIfAbsent(Dictionary.URIS, "/events/1");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1");
+
+        verify(dictionaryRepository, times(2)).insertIfAbsent(Dictionary.URIS, "/events/1");
+    }
+
+    @Test
+    void rolledBackNameIsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/1");
+
+        verify(dictionaryRepository, times(2)).insertIfAbsent(Dictionary.URIS, "/events/1");
+    }
+
+    @Test
+    void missingIdAfterInsertFails() {
+        when(dictionaryRepository.findId(Dictionary.URIS, "/events/2")).thenReturn(null);
+
+        assertThatThrownBy(() -> dictionaryCache.getOrCreateId(Dictionary.URIS, "/events/2"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.server.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.exception.IngestionThrottledException;
+import ru.practicum.server.model.EndpointHit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class AdmissionControllerTest {
+
+    private final AdmissionProperties properties = new AdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<EndpointHit> written = new ArrayList<>();
+
+    @Test
+    void admittedBatchIsWrittenAndPermitReturned() {
+        properties.setMaxInFlight(1);
+        AdmissionController admissionController = admissionController();
+
+        admissionController.submit(hits(3), written::addAll);
+        admissionController.submit(hits(2), written::addAll);
+
+        assertThat(written).hasSize(5);
+        assertThat(count("accepted")).isEqualTo(5);
+        assertThat(meterRegistry.get("stats.ingestion.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void permitIsReturnedWhenWriterFails() {
+        properties.setMaxInFlight(1);
+        AdmissionController admissionController = admissionController();
+
+        assertThatThrownBy(() -> admissionController.submit(hits(1), batch -> {
+            throw new IllegalStateException("запись недоступна");
+        })).isInstanceOf(IllegalStateException.class);
+        admissionController.submit(hits(1), written::addAll);
+
+        assertThat(written).hasSize(1);
+    }
+
+    @Test
+    void rejectPolicyFailsWhenSaturated() {
+        properties.setMaxInFlight(0);
+
+        assertThatThrownBy(() -> admissionController().submit(hits(4), written::addAll))
+                .isInstanceOf(IngestionRejectedException.class);
+        assertThat(written).isEmpty();
+        assertThat(count("shed")).isEqualTo(4);
+    }
+
+    @Test
+    void throttlePolicyAsksClientToRetry() {
+        properties.setMaxInFlight(0);
+        properties.setPolicy(AdmissionPolicy.THROTTLE);
+
+        assertThatThrownBy(() -> admissionController().submit(hits(2), written::addAll))
+                .isInstanceOf(IngestionThrottledException.class);
+        assertThat(count("shed")).isEqualTo(2);
+    }
+
+    @Test
+    void dropPolicyDiscardsBatchSilently() {
+        properties.setMaxInFlight(0);
+        properties.setPolicy(AdmissionPolicy.DROP);
+
+        admissionController().submit(hits(3), written::addAll);
+
+        assertThat(written).isEmpty();
+        assertThat(count("shed")).isEqualTo(3);
+    }
+
+    @Test
+    void samplePolicyShedsSampleWhenNoPermitFreesUp() {
+        properties.setMaxInFlight(0);
+        properties.setPolicy(AdmissionPolicy.SAMPLE);
+        properties.setSampleRate(1.0);
+        properties.setSampleTimeout(Duration.ofMillis(10));
+
+        admissionController().submit(hits(3), written::addAll);
+
+        assertThat(written).isEmpty();
+        assertThat(count("sampled")).isZero();
+        assertThat(count("shed")).isEqualTo(3);
+    }
+
+    @Test
+    void samplePolicyCountsHitsLeftOutOfSample() {
+        properties.setMaxInFlight(1);
+        properties.setPolicy(AdmissionPolicy.SAMPLE);
+        properties.setSampleRate(0.0);
+        AdmissionController admissionController = admissionController();
+        List<EndpointHit> nested = new ArrayList<>();
+
+        admissionController.submit(hits(2), batch -> admissionController.submit(hits(5), nested::addAll));
+
+        assertThat(nested).isEmpty();
+        assertThat(count("sampled")).isEqualTo(5);
+    }
+
+    @Test
+    void disabledAdmissionWritesEverything() {
+        properties.setEnabled(false);
+        properties.setMaxInFlight(0);
+
+        admissionController().submit(hits(3), written::addAll);
+
+        assertThat(written).hasSize(3);
+    }
+
+    private AdmissionController admissionController() {
+        return new AdmissionController(properties, mock(HitBuffer.class), meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("stats.ingestion.hits", "result", result).count();
+    }
+
+    private List<EndpointHit> hits(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> EndpointHit.builder().app("ewm-main-service").uri("/events/" + i).ip("10.0.0.1").build())
+                .collect(Collectors.toList());
+    }
+}
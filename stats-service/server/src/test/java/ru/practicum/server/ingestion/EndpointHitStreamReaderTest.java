@@ -0,0 +1,72 @@
+package ru.practicum.server.ingestion;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.server.exception.ValidationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EndpointHitStreamReaderTest {
+
+    private static final String FIRST = "{\"app\":\"ewm\",\"uri\":\"/events/1\",\"ip\":\"10.0.0.1\",\"timestamp\":\"2024-01-01 12:00:00\"}";
+    private static final String SECOND = "{\"app\":\"ewm\",\"uri\":\"/events/2\",\"ip\":\"10.0.0.2\"}";
+
+    private final EndpointHitStreamReader reader = new EndpointHitStreamReader(new ObjectMapper().findAndRegisterModules());
+    private final List<EndpointHitDto> hits = new ArrayList<>();
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[" + FIRST + "," + SECOND + "]", FIRST + "\n" + SECOND + "\n", FIRST + SECOND})
+    void readsJsonArrayAndNdjson(String body) throws IOException {
+        read(body);
+
+        assertThat(hits).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(hits.get(0).getTimestamp()).isEqualTo(LocalDateTime.of(2024, 1, 1, 12, 0));
+        assertThat(hits.get(1).getTimestamp()).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "[]", "\n"})
+    void readsEmptyBody(String body) throws IOException {
+        read(body);
+
+        assertThat(hits).isEmpty();
+    }
+
+    @Test
+    void rejectsNonObjectElementAfterDeliveringPrecedingHits() {
+        assertThatThrownBy(() -> read("[" + FIRST + ",42]"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("VALUE_NUMBER_INT");
+        assertThat(hits).hasSize(1);
+    }
+
+    @Test
+    void rejectsUnclosedArray() {
+        assertThatThrownBy(() -> read("[" + FIRST))
+                .isInstanceOf(JsonProcessingException.class);
+        assertThat(hits).hasSize(1);
+    }
+
+    @Test
+    void malformedLineFailsAfterDeliveringPrecedingHits() {
+        assertThatThrownBy(() -> read(FIRST + "\n{\"app\":\n"))
+                .isInstanceOf(JsonProcessingException.class);
+        assertThat(hits).extracting(EndpointHitDto::getUri).containsExactly("/events/1");
+    }
+
+    private void read(String body) throws IOException {
+        reader.read(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), hits::add);
+    }
+}
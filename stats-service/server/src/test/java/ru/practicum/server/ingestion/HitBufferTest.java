@@ -0,0 +1,168 @@
+package ru.practicum.server.ingestion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import ru.practicum.server.exception.IngestionRejectedException;
+import ru.practicum.server.model.EndpointHit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class HitBufferTest {
+
+    private final HitWriter hitWriter = mock(HitWriter.class);
+    private final List<List<String>> saved = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writerEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseWriter = new CountDownLatch(1);
+    private final IngestionProperties properties = new IngestionProperties();
+    private HitBuffer hitBuffer;
+
+    @BeforeEach
+    void setUp() {
+        properties.setMode(IngestionMode.ASYNC);
+        properties.setQueueCapacity(2);
+        properties.setBatchSize(10);
+        properties.setFlushInterval(Duration.ofMillis(20));
+        properties.setOfferTimeout(Duration.ofMillis(50));
+        doAnswer(invocation -> {
+            List<EndpointHit> batch = invocation.getArgument(0);
+            saved.add(batch.stream().map(EndpointHit::getUri).collect(Collectors.toList()));
+            writerEntered.countDown();
+            releaseWriter.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(hitWriter).saveAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseWriter.countDown();
+        if (hitBuffer != null) {
+            hitBuffer.stop();
+        }
+    }
+
+    @Test
+    void writesThroughWhenNotStarted() {
+        properties.setMode(IngestionMode.SYNC);
+        hitBuffer = new HitBuffer(properties, hitWriter);
+        hitBuffer.start();
+        EndpointHit endpointHit = hit(1);
+
+        hitBuffer.add(endpointHit);
+
+        assertThat(hitBuffer.isRunning()).isFalse();
+        verify(hitWriter).save(endpointHit);
+    }
+
+    @Test
+    void rejectPolicyFailsWhenQueueIsFull() throws InterruptedException {
+        fillQueueBehindBusyWriter(OverflowPolicy.REJECT);
+
+        assertThatThrownBy(() -> hitBuffer.add(hit(4))).isInstanceOf(IngestionRejectedException.class);
+        assertThat(hitBuffer.size()).isEqualTo(2);
+    }
+
+    @Test
+    void blockPolicyFailsAfterOfferTimeout() throws InterruptedException {
+        fillQueueBehindBusyWriter(OverflowPolicy.BLOCK);
+        long startNanos = System.nanoTime();
+
+        assertThatThrownBy(() -> hitBuffer.add(hit(4))).isInstanceOf(IngestionRejectedException.class);
+        assertThat(System.nanoTime() - startNanos).isGreaterThanOrEqualTo(Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void dropPolicyDiscardsNewHitAndCountsIt() throws InterruptedException {
+        fillQueueBehindBusyWriter(OverflowPolicy.DROP);
+
+        hitBuffer.add(hit(4));
+        releaseWriter.countDown();
+        hitBuffer.stop();
+
+        assertThat(hitBuffer.getDropped()).isEqualTo(1);
+        assertThat(savedUris()).containsExactly("/events/1", "/events/2", "/events/3");
+    }
+
+    @Test
+    void dropOldestPolicyKeepsNewestHits() throws InterruptedException {
+        fillQueueBehindBusyWriter(OverflowPolicy.DROP_OLDEST);
+
+        hitBuffer.add(hit(4));
+        hitBuffer.add(hit(5));
+        releaseWriter.countDown();
+        hitBuffer.stop();
+
+        assertThat(hitBuffer.getDropped()).isEqualTo(2);
+        assertThat(savedUris()).containsExactly("/events/1", "/events/4", "/events/5");
+    }
+
+    @Test
+    void stopFlushesQueuedHitsAndSwitchesToWriteThrough() throws InterruptedException {
+        fillQueueBehindBusyWriter(OverflowPolicy.REJECT);
+
+        releaseWriter.countDown();
+        hitBuffer.stop();
+        EndpointHit late = hit(4);
+        hitBuffer.add(late);
+
+        assertThat(savedUris()).containsExactly("/events/1", "/events/2", "/events/3");
+        assertThat(hitBuffer.size()).isZero();
+        verify(hitWriter).save(late);
+    }
+
+    @Test
+    void failedBatchIsRetried() throws InterruptedException {
+        List<Integer> attempts = new CopyOnWriteArrayList<>();
+        CountDownLatch retried = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            attempts.add(((List<?>) invocation.getArgument(0)).size());
+            retried.countDown();
+            if (attempts.size() == 1) {
+                throw new TransientDataAccessResourceException("нет соединения");
+            }
+            return null;
+        }).when(hitWriter).saveAll(anyList());
+        hitBuffer = new HitBuffer(properties, hitWriter);
+        hitBuffer.start();
+
+        hitBuffer.add(hit(1));
+
+        assertThat(retried.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).containsExactly(1, 1);
+        verify(hitWriter, never()).save(any());
+    }
+
+    private void fillQueueBehindBusyWriter(OverflowPolicy policy) throws InterruptedException {
+        properties.setOverflowPolicy(policy);
+        hitBuffer = new HitBuffer(properties, hitWriter);
+        hitBuffer.start();
+        hitBuffer.add(hit(1));
+        assertThat(writerEntered.await(5, TimeUnit.SECONDS)).isTrue();
+        hitBuffer.add(hit(2));
+        hitBuffer.add(hit(3));
+    }
+
+    private List<String> savedUris() {
+        return saved.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private EndpointHit hit(int number) {
+        return new EndpointHit(null, "ewm", "/events/" + number, "10.0.0.1", LocalDateTime.now());
+    }
+}
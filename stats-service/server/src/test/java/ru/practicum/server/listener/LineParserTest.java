@@ -0,0 +1,115 @@
+package ru.practicum.server.listener;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.practicum.server.model.EndpointHit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineParserTest {
+
+    private final LineParser parser = new LineParser();
+
+    @Test
+    void parseReadsFieldsAndTimestamp() {
+        EndpointHit endpointHit = parse("ewm|/events/1|10.0.0.1|1700000000123");
+
+        assertThat(endpointHit.getApp()).isEqualTo("ewm");
+        assertThat(endpointHit.getUri()).isEqualTo("/events/1");
+        assertThat(endpointHit.getIp()).isEqualTo("10.0.0.1");
+        assertThat(endpointHit.getTimestamp())
+                .isEqualTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(1_700_000_000_123L), ZoneId.systemDefault()));
+    }
+
+    @Test
+    void parseUsesCurrentTimeWithoutTimestamp() {
+        LocalDateTime before = LocalDateTime.now();
+
+        EndpointHit endpointHit = parse("ewm|/events/1|10.0.0.1");
+
+        assertThat(endpointHit.getIp()).isEqualTo("10.0.0.1");
+        assertThat(endpointHit.getTimestamp()).isBetween(before, LocalDateTime.now());
+    }
+
+    @Test
+    void parseStripsTrailingCarriageReturn() {
+        assertThat(parse("ewm|/events/1|10.0.0.1\r").getIp()).isEqualTo("10.0.0.1");
+        assertThat(parse("ewm|/events/1|10.0.0.1|1000\r").getTimestamp())
+                .isEqualTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(1_000), ZoneId.systemDefault()));
+    }
+
+    @Test
+    void parseReadsOnlyGivenRange() {
+        ByteBuffer buffer = ByteBuffer.wrap("ewm|/a|1.1.1.1\nstats|/b|2.2.2.2\n".getBytes(StandardCharsets.UTF_8));
+
+        EndpointHit endpointHit = parser.parse(buffer, 15, 31);
+
+        assertThat(endpointHit.getApp()).isEqualTo("stats");
+        assertThat(endpointHit.getUri()).isEqualTo("/b");
+        assertThat(endpointHit.getIp()).isEqualTo("2.2.2.2");
+    }
+
+    @Test
+    void parseDecodesUtf8Fields() {
+        assertThat(parse("ewm|/события/1|10.0.0.1").getUri()).isEqualTo("/события/1");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ewm|/events/1",
+            "ewm|/events/1|10.0.0.1|1000|extra",
+            "",
+            "|/events/1|10.0.0.1",
+            "ewm||10.0.0.1",
+            "ewm|/events/1|",
+            "ewm|   |10.0.0.1",
+            "ewm|/events/1|10.0.0.1|",
+            "ewm|/events/1|10.0.0.1|-1000",
+            "ewm|/events/1|10.0.0.1|12a4",
+            "ewm|/events/1|10.0.0.1|1234567890123456789"
+    })
+    void parseRejectsMalformedLine(String line) {
+        assertThat(parse(line)).isNull();
+    }
+
+    @Test
+    void parseRejectsFieldsLongerThanLimit() {
+        assertThat(parse("ewm|/" + "a".repeat(124) + "|10.0.0.1")).isNotNull();
+        assertThat(parse("ewm|/" + "a".repeat(125) + "|10.0.0.1")).isNull();
+        assertThat(parse("ewm|/" + "я".repeat(124) + "|10.0.0.1")).isNotNull();
+        assertThat(parse("ewm|/" + "я".repeat(200) + "|10.0.0.1")).isNull();
+    }
+
+    @Test
+    void parseReusesDecodedValueForRepeatedField() {
+        EndpointHit first = parse("ewm|/events/1|10.0.0.1");
+        EndpointHit second = parse("ewm|/events/1|10.0.0.2");
+        EndpointHit third = parse("ewm|/events/2|10.0.0.2");
+
+        assertThat(second.getApp()).isSameAs(first.getApp());
+        assertThat(second.getUri()).isSameAs(first.getUri());
+        assertThat(second.getIp()).isEqualTo("10.0.0.2");
+        assertThat(third.getUri()).isEqualTo("/events/2");
+        assertThat(third.getIp()).isSameAs(second.getIp());
+    }
+
+    @Test
+    void parseDoesNotCacheRejectedField() {
+        assertThat(parse("ewm|  |10.0.0.1")).isNull();
+
+        assertThat(parse("ewm|/a|10.0.0.1").getUri()).isEqualTo("/a");
+        assertThat(parse("ewm|  |10.0.0.1")).isNull();
+    }
+
+    private EndpointHit parse(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        return parser.parse(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+}
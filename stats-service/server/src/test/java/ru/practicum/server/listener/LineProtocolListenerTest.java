@@ -0,0 +1,91 @@
+package ru.practicum.server.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.server.ingestion.IngestionProperties;
+import ru.practicum.server.service.StatsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LineProtocolListenerTest {
+
+    private final StatsService statsService = mock(StatsService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LineProtocolListener listener;
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    void hitsAreWrittenThroughStatsServiceOffSelectorThread() throws IOException {
+        AtomicReference<String> thread = new AtomicReference<>();
+        when(statsService.addEndpointHits(anyList())).thenAnswer(invocation -> {
+            thread.set(Thread.currentThread().getName());
+            return new EndpointHitsResultDto(2L, 0L);
+        });
+        int port = start();
+
+        send(port, "ewm|/events/1|10.0.0.1\newm|/events/2|10.0.0.2|1700000000123\n");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EndpointHitDto>> hits = ArgumentCaptor.forClass(List.class);
+        verify(statsService, timeout(5_000)).addEndpointHits(hits.capture());
+        assertThat(hits.getValue()).extracting(EndpointHitDto::getUri).containsExactly("/events/1", "/events/2");
+        assertThat(hits.getValue()).allSatisfy(hit -> assertThat(hit.getTimestamp()).isNotNull());
+        listener.stop();
+        assertThat(thread.get()).isEqualTo("hit-listener-writer");
+        assertThat(meterRegistry.counter("stats.listener.hits", "result", "accepted").count()).isEqualTo(2);
+    }
+
+    @Test
+    void failedWriteCountsBatchAsRejected() throws IOException {
+        when(statsService.addEndpointHits(anyList())).thenThrow(new IllegalStateException("хранилище недоступно"));
+        int port = start();
+
+        send(port, "ewm|/events/1|10.0.0.1\n");
+
+        verify(statsService, timeout(5_000)).addEndpointHits(anyList());
+        listener.stop();
+        assertThat(meterRegistry.counter("stats.listener.hits", "result", "rejected").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("stats.listener.hits", "result", "accepted").count()).isZero();
+    }
+
+    private int start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        ListenerProperties properties = new ListenerProperties();
+        properties.setHost("127.0.0.1");
+        properties.setTcpPort(port);
+        properties.setUdpPort(0);
+        listener = new LineProtocolListener(statsService, new IngestionProperties(), properties, meterRegistry);
+        listener.start();
+        return port;
+    }
+
+    private void send(int port, String lines) throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", port); OutputStream out = socket.getOutputStream()) {
+            out.write(lines.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.server.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpMapperTest {
+
+    @Test
+    void toBytesPacksIpv4IntoFourBytes() {
+        assertThat(IpMapper.toBytes("192.168.0.1")).containsExactly(192, 168, 0, 1);
+        assertThat(IpMapper.toIp(IpMapper.toBytes("192.168.0.1"))).isEqualTo("192.168.0.1");
+    }
+
+    @Test
+    void toBytesPacksIpv6IntoSixteenBytes() {
+        byte[] bytes = IpMapper.toBytes("2001:db8::1");
+
+        assertThat(bytes).hasSize(16);
+        assertThat(IpMapper.toIp(bytes)).isEqualTo("2001:db8:0:0:0:0:0:1");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"256.0.0.1", "1.2.3", "1.2.3.4.5", "1..2.3", "01.02.03.04x", "localhost", "example.com:8080"})
+    void toBytesKeepsAnythingButLiteralAddressesAsText(String ip) {
+        assertThat(IpMapper.toIp(IpMapper.toBytes(ip))).isEqualTo(ip);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"x, 2", "abc, 5", "fifteen-symbols, 17"})
+    void textEncodingNeverHasAddressLength(String text, int length) {
+        assertThat(IpMapper.toBytes(text)).hasSize(length);
+    }
+
+    @Test
+    void normalizeCollapsesEquivalentIpv6Forms() {
+        assertThat(IpMapper.normalize("::1")).isEqualTo(IpMapper.normalize("0:0:0:0:0:0:0:1"));
+        assertThat(IpMapper.normalize("1.2.3.4")).isEqualTo("1.2.3.4");
+        assertThat(IpMapper.normalize(null)).isNull();
+    }
+}
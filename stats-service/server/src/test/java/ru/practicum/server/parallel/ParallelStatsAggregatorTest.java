@@ -0,0 +1,116 @@
+package ru.practicum.server.parallel;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.dictionary.DictionaryCache;
+import ru.practicum.server.repository.StatsRepository;
+import ru.practicum.server.unique.ExactUniqueCounter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ParallelStatsAggregatorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private final StatsRepository statsRepository = mock(StatsRepository.class);
+    private final DictionaryCache dictionaryCache = mock(DictionaryCache.class);
+    private final ExactUniqueCounter exactUniqueCounter = mock(ExactUniqueCounter.class);
+    private final Queue<StatsSlice> slices = new ConcurrentLinkedQueue<>();
+    private ParallelStatsAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        ParallelQueryProperties properties = new ParallelQueryProperties();
+        properties.setThreshold(Duration.ofDays(2));
+        properties.setSlice(Duration.ofDays(1));
+        properties.setParallelism(4);
+        aggregator = new ParallelStatsAggregator(statsRepository, dictionaryCache, exactUniqueCounter, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        aggregator.close();
+    }
+
+    @Test
+    void uniqueQueriesStayOffParallelPathWithoutExactEngine() {
+        when(exactUniqueCounter.isEnabled()).thenReturn(false);
+
+        assertThat(aggregator.accepts(START, START.plusDays(7), false)).isTrue();
+        assertThat(aggregator.accepts(START, START.plusDays(7), true)).isFalse();
+        assertThat(aggregator.accepts(START, START.plusDays(1), false)).isFalse();
+    }
+
+    @Test
+    void uniqueQueriesUseParallelPathWithExactEngine() {
+        when(exactUniqueCounter.isEnabled()).thenReturn(true);
+
+        assertThat(aggregator.accepts(START, START.plusDays(7), true)).isTrue();
+    }
+
+    @Test
+    void hitsAreSlicedByTimeAndSummedAcrossSlices() {
+        when(statsRepository.getSliceStats(any(), eq(null), anyBoolean())).thenAnswer(invocation -> {
+            StatsSlice slice = invocation.getArgument(0);
+            slices.add(slice);
+            int day = slice.getStart().getDayOfMonth();
+            return List.of(new ViewStatsDto("ewm", "/events/1", (long) day), new ViewStatsDto("ewm", "/events/" + day, 10L));
+        });
+
+        List<ViewStatsDto> stats = aggregator.getStats(START, START.plusDays(2).plusHours(12), null, false);
+
+        assertThat(slices).extracting(StatsSlice::getStart)
+                .containsExactlyInAnyOrder(START, START.plusDays(1), START.plusDays(2));
+        assertThat(slices).extracting(StatsSlice::getEnd)
+                .containsExactlyInAnyOrder(START.plusDays(1), START.plusDays(2), START.plusDays(2).plusHours(12));
+        assertThat(slices).allSatisfy(slice -> assertThat(slice.getIpParts()).isEqualTo(1));
+        assertThat(stats.get(0)).isEqualTo(new ViewStatsDto("ewm", "/events/1", 16L));
+        assertThat(stats).containsExactlyInAnyOrder(
+                new ViewStatsDto("ewm", "/events/1", 16L),
+                new ViewStatsDto("ewm", "/events/2", 10L),
+                new ViewStatsDto("ewm", "/events/3", 10L));
+    }
+
+    @Test
+    void uniqueHitsArePartitionedByIpOverWholeRange() {
+        when(exactUniqueCounter.getStats(any(StatsSlice.class), eq(null))).thenAnswer(invocation -> {
+            StatsSlice slice = invocation.getArgument(0);
+            slices.add(slice);
+            return List.of(new ViewStatsDto("ewm", "/events/1", (long) slice.getIpPart() + 1));
+        });
+
+        List<ViewStatsDto> stats = aggregator.getStats(START, START.plusDays(3), null, true);
+
+        assertThat(slices).extracting(StatsSlice::getIpPart).containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(slices).allSatisfy(slice -> {
+            assertThat(slice.getStart()).isEqualTo(START);
+            assertThat(slice.getEnd()).isEqualTo(START.plusDays(3));
+            assertThat(slice.getIpParts()).isEqualTo(4);
+        });
+        assertThat(stats).containsExactly(new ViewStatsDto("ewm", "/events/1", 10L));
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    void unknownUrisReturnEmptyWithoutScanning() {
+        when(dictionaryCache.findIds(Dictionary.URIS, List.of("/missing"))).thenReturn(List.of());
+
+        assertThat(aggregator.getStats(START, START.plusDays(3), List.of("/missing"), false)).isEmpty();
+        verifyNoInteractions(statsRepository, exactUniqueCounter);
+    }
+}
@@ -0,0 +1,142 @@
+package ru.practicum.server.partition;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.PartitionRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PartitionManagerTest {
+
+    private static final LocalDateTime TODAY = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+
+    private final PartitionRepository partitionRepository = mock(PartitionRepository.class);
+    private final PartitionProperties properties = new PartitionProperties();
+    private final List<PartitionRange> existing = new ArrayList<>();
+    private final List<PartitionRange> created = new ArrayList<>();
+    private PartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        properties.setPremake(1);
+        when(partitionRepository.findPartitions()).thenAnswer(invocation -> new ArrayList<>(existing));
+        doAnswer(invocation -> {
+            PartitionRange partition = new PartitionRange(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            created.add(partition);
+            existing.add(partition);
+            return null;
+        }).when(partitionRepository).createPartition(anyString(), any(), any());
+        partitionManager = new PartitionManager(partitionRepository, properties, mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void initPremakesCurrentAndUpcomingPartitions() {
+        partitionManager.init();
+
+        assertThat(created).containsExactly(
+                day(TODAY),
+                day(TODAY.plusDays(1)));
+    }
+
+    @Test
+    void initSkipsPartitionsThatAlreadyExist() {
+        existing.add(day(TODAY));
+
+        partitionManager.init();
+
+        assertThat(created).containsExactly(day(TODAY.plusDays(1)));
+    }
+
+    @Test
+    void monthlyPartitionsStartOnFirstDay() {
+        properties.setInterval(PartitionInterval.MONTH);
+        properties.setPremake(0);
+
+        partitionManager.init();
+
+        LocalDateTime month = TODAY.withDayOfMonth(1);
+        assertThat(created).containsExactly(new PartitionRange(
+                "hits_p" + month.format(PartitionInterval.MONTH.getNameFormatter()), month, month.plusMonths(1)));
+    }
+
+    @Test
+    void ensurePartitionsClipsNewPartitionToNeighbours() {
+        LocalDateTime day = LocalDateTime.of(2020, 5, 10, 0, 0);
+        existing.add(new PartitionRange("hits_p_before", day.minusDays(1), day.plusHours(6)));
+        existing.add(new PartitionRange("hits_p_after", day.plusHours(18), day.plusDays(2)));
+        partitionManager.init();
+        created.clear();
+
+        partitionManager.ensurePartitions(List.of(hit(day.plusHours(12)), hit(day.plusHours(13))));
+
+        assertThat(created).containsExactly(
+                new PartitionRange("hits_p20200510_060000", day.plusHours(6), day.plusHours(18)));
+    }
+
+    @Test
+    void dropRetentionRemovesOnlyExpiredPartitions() {
+        properties.setRetentionAction(RetentionAction.DROP);
+        properties.setRetention(Duration.ofDays(30));
+        existing.add(day(TODAY.minusDays(40)));
+        existing.add(day(TODAY.minusDays(31)));
+        existing.add(day(TODAY.minusDays(10)));
+
+        partitionManager.maintain();
+
+        verify(partitionRepository).dropPartition(day(TODAY.minusDays(40)).getName());
+        verify(partitionRepository).dropPartition(day(TODAY.minusDays(31)).getName());
+        verify(partitionRepository, never()).dropPartition(day(TODAY.minusDays(10)).getName());
+        verify(partitionRepository, never()).detachPartition(anyString());
+    }
+
+    @Test
+    void detachRetentionKeepsTables() {
+        properties.setRetentionAction(RetentionAction.DETACH);
+        properties.setRetention(Duration.ofDays(30));
+        existing.add(day(TODAY.minusDays(40)));
+
+        partitionManager.maintain();
+
+        verify(partitionRepository).detachPartition(day(TODAY.minusDays(40)).getName());
+        verify(partitionRepository, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void noRetentionKeepsEverythingButStillTrimsMinuteRollups() {
+        properties.setRetention(Duration.ofDays(1));
+        properties.setMinuteRollupRetention(Duration.ofDays(7));
+        existing.add(day(TODAY.minusDays(40)));
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        partitionManager.maintain();
+
+        verify(partitionRepository, never()).dropPartition(anyString());
+        verify(partitionRepository, never()).detachPartition(anyString());
+        verify(partitionRepository).deleteMinuteRollupsBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(TODAY.minusDays(8), LocalDateTime.now().minusDays(7));
+    }
+
+    private PartitionRange day(LocalDateTime start) {
+        return new PartitionRange("hits_p" + start.format(PartitionInterval.DAY.getNameFormatter()), start, start.plusDays(1));
+    }
+
+    private EndpointHit hit(LocalDateTime timestamp) {
+        return EndpointHit.builder().app("ewm").uri("/events/1").ip("10.0.0.1").timestamp(timestamp).build();
+    }
+}
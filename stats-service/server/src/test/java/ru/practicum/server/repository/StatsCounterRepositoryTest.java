@@ -0,0 +1,108 @@
+package ru.practicum.server.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import ru.practicum.dto.StatsCounterRequestDto;
+import ru.practicum.server.mapper.IpMapper;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class StatsCounterRepositoryTest {
+
+    private static final String SCHEMA = "stats_counter_repository_test";
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 3, 1, 0, 0);
+
+    private static SingleConnectionDataSource dataSource;
+    private static StatsCounterRepository repository;
+
+    @BeforeAll
+    static void createSchema() throws SQLException {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("stats.test.datasource.url", "jdbc:postgresql://localhost:6541/stats-db"),
+                System.getProperty("stats.test.datasource.username", "postgres"),
+                System.getProperty("stats.test.datasource.password", "postgres"), true);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        try {
+            jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        } catch (DataAccessException e) {
+            assumeTrue(false, "PostgreSQL недоступен: " + e.getMessage());
+        }
+        jdbcTemplate.execute("CREATE SCHEMA " + SCHEMA);
+        jdbcTemplate.execute("SET search_path TO " + SCHEMA);
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("stats-schema.sql"));
+        }
+        jdbcTemplate.execute("CREATE TABLE hits_default PARTITION OF hits DEFAULT");
+        jdbcTemplate.update("INSERT INTO apps (id, name) VALUES (1, 'ewm')");
+        jdbcTemplate.update("INSERT INTO uris (id, name) VALUES (1, '/events/1'), (2, '/events/2')");
+        insertHit(jdbcTemplate, 1, "10.0.0.1", DAY.withHour(10));
+        insertHit(jdbcTemplate, 1, "10.0.0.1", DAY.withHour(11));
+        insertHit(jdbcTemplate, 1, "10.0.0.2", DAY.withHour(12));
+        insertHit(jdbcTemplate, 2, "10.0.0.3", DAY.withHour(10).withMinute(30));
+        repository = new StatsCounterRepository(jdbcTemplate);
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void everyCounterUsesItsOwnInclusiveWindow() {
+        long[] hits = repository.getCounters(List.of(
+                counter("/events/1", DAY.withHour(10), DAY.withHour(11), false),
+                counter("/events/1", DAY.withHour(11), DAY.withHour(23), false),
+                counter("/events/2", DAY, DAY.withHour(10), false)));
+
+        assertThat(hits).containsExactly(2, 2, 0);
+    }
+
+    @Test
+    void uniqueCountersCountDistinctIpsAndOthersCountAllHits() {
+        long[] hits = repository.getCounters(List.of(
+                counter("/events/1", DAY, DAY.withHour(23), true),
+                counter("/events/1", DAY, DAY.withHour(23), false)));
+
+        assertThat(hits).containsExactly(2, 3);
+    }
+
+    @Test
+    void unknownUriAndEmptyWindowCountZero() {
+        long[] hits = repository.getCounters(List.of(
+                counter("/events/404", DAY, DAY.withHour(23), false),
+                counter("/events/2", DAY.plusDays(1), DAY.plusDays(2), true),
+                counter("/events/2", DAY, DAY.withHour(23), true)));
+
+        assertThat(hits).containsExactly(0, 0, 1);
+    }
+
+    @Test
+    void emptyRequestReturnsEmptyResult() {
+        assertThat(repository.getCounters(List.of())).isEmpty();
+    }
+
+    private static void insertHit(JdbcTemplate jdbcTemplate, int uriId, String ip, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO hits (timestamp, app_id, uri_id, ip) VALUES (?, 1, ?, ?)",
+                Timestamp.valueOf(timestamp), uriId, IpMapper.toBytes(ip));
+    }
+
+    private static StatsCounterRequestDto counter(String uri, LocalDateTime start, LocalDateTime end, boolean unique) {
+        return new StatsCounterRequestDto(uri, start, end, unique);
+    }
+}
@@ -0,0 +1,109 @@
+package ru.practicum.server.rollup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RollupPlannerTest {
+
+    @Test
+    void planUnalignedRangeSplitsIntoRawMinuteHourAndDaySegments() {
+        LocalDateTime start = LocalDateTime.of(2024, 3, 1, 22, 58, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 3, 4, 1, 2, 15);
+
+        List<RollupSegment> segments = RollupPlanner.plan(start, end);
+
+        assertSegments(segments,
+                segment(null, start, LocalDateTime.of(2024, 3, 1, 22, 59)),
+                segment(RollupGranularity.MINUTE, LocalDateTime.of(2024, 3, 1, 22, 59), LocalDateTime.of(2024, 3, 1, 23, 0)),
+                segment(RollupGranularity.HOUR, LocalDateTime.of(2024, 3, 1, 23, 0), LocalDateTime.of(2024, 3, 2, 0, 0)),
+                segment(RollupGranularity.DAY, LocalDateTime.of(2024, 3, 2, 0, 0), LocalDateTime.of(2024, 3, 4, 0, 0)),
+                segment(RollupGranularity.HOUR, LocalDateTime.of(2024, 3, 4, 0, 0), LocalDateTime.of(2024, 3, 4, 1, 0)),
+                segment(RollupGranularity.MINUTE, LocalDateTime.of(2024, 3, 4, 1, 0), LocalDateTime.of(2024, 3, 4, 1, 2)),
+                segment(null, LocalDateTime.of(2024, 3, 4, 1, 2), end));
+    }
+
+    @Test
+    void planAlignedDaysUsesOnlyDayTier() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        assertSegments(RollupPlanner.plan(start, end), segment(RollupGranularity.DAY, start, end));
+    }
+
+    @Test
+    void planRangeInsideOneMinuteIsRaw() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 15, 5);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 10, 15, 40);
+
+        assertSegments(RollupPlanner.plan(start, end), segment(null, start, end));
+    }
+
+    @Test
+    void planRangeShorterThanHourDoesNotUseHourTier() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 20);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 11, 10);
+
+        assertSegments(RollupPlanner.plan(start, end), segment(RollupGranularity.MINUTE, start, end));
+    }
+
+    @Test
+    void planEmptyRangeReturnsNoSegments() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+        assertThat(RollupPlanner.plan(start, start)).isEmpty();
+    }
+
+    @Test
+    void planWithHourAndDayTiersLeavesSubHourEdgesRaw() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 22, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 3, 0, 45);
+
+        List<RollupSegment> segments = RollupPlanner.plan(start, end, RollupGranularity.HOUR, RollupGranularity.DAY);
+
+        assertSegments(segments,
+                segment(null, start, LocalDateTime.of(2024, 1, 1, 23, 0)),
+                segment(RollupGranularity.HOUR, LocalDateTime.of(2024, 1, 1, 23, 0), LocalDateTime.of(2024, 1, 2, 0, 0)),
+                segment(RollupGranularity.DAY, LocalDateTime.of(2024, 1, 2, 0, 0), LocalDateTime.of(2024, 1, 3, 0, 0)),
+                segment(null, LocalDateTime.of(2024, 1, 3, 0, 0), end));
+    }
+
+    @Test
+    void planSegmentsAreContiguousAlignedAndCoverRandomRanges() {
+        Random random = new Random(42);
+        LocalDateTime origin = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 1_000; i++) {
+            LocalDateTime start = origin.plusSeconds(random.nextInt(3 * 24 * 3600)).plusNanos(random.nextInt(2) * 500_000_000L);
+            LocalDateTime end = start.plusSeconds(1 + random.nextInt(4 * 24 * 3600));
+
+            List<RollupSegment> segments = RollupPlanner.plan(start, end);
+
+            assertThat(segments.get(0).getStart()).isEqualTo(start);
+            assertThat(segments.get(segments.size() - 1).getEnd()).isEqualTo(end);
+            for (int j = 0; j < segments.size(); j++) {
+                RollupSegment segment = segments.get(j);
+                if (j > 0) {
+                    assertThat(segment.getStart()).isEqualTo(segments.get(j - 1).getEnd());
+                }
+                if (!segment.isRaw()) {
+                    ChronoUnit unit = segment.getGranularity().getUnit();
+                    assertThat(segment.getStart().truncatedTo(unit)).isEqualTo(segment.getStart());
+                    assertThat(segment.getEnd().truncatedTo(unit)).isEqualTo(segment.getEnd());
+                }
+            }
+        }
+    }
+
+    private static RollupSegment segment(RollupGranularity granularity, LocalDateTime start, LocalDateTime end) {
+        return new RollupSegment(granularity, start, end);
+    }
+
+    private static void assertSegments(List<RollupSegment> actual, RollupSegment... expected) {
+        assertThat(actual).usingRecursiveFieldByFieldElementComparator().containsExactly(expected);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.practicum.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.EndpointHitsResultDto;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.ingestion.EndpointHitStreamReader;
+import ru.practicum.server.ingestion.HitIngestionService;
+import ru.practicum.server.model.EndpointHit;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StatsServiceImplBulkTest {
+
+    @Mock
+    private HitIngestionService hitIngestionService;
+    @Spy
+    private EndpointHitStreamReader endpointHitStreamReader = new EndpointHitStreamReader(new ObjectMapper().findAndRegisterModules());
+    @InjectMocks
+    private StatsServiceImpl statsService;
+
+    private final List<List<String>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(hitIngestionService.getBatchSize()).thenReturn(2);
+        doAnswer(invocation -> {
+            List<EndpointHit> batch = invocation.getArgument(0);
+            batches.add(batch.stream().map(EndpointHit::getUri).collect(Collectors.toList()));
+            return null;
+        }).when(hitIngestionService).addAll(anyList());
+    }
+
+    @Test
+    void splitsStreamIntoBatchesAndCountsRejectedHits() {
+        EndpointHitsResultDto result = statsService.addEndpointHits(stream(
+                hit("/events/1"), hit("/events/2"), "{\"app\":\"ewm\",\"uri\":\" \",\"ip\":\"10.0.0.1\"}", hit("/events/3")));
+
+        assertThat(result.getAccepted()).isEqualTo(3);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(batches).containsExactly(List.of("/events/1", "/events/2"), List.of("/events/3"));
+    }
+
+    @Test
+    void flushesAcceptedHitsBeforeReportingMalformedLine() {
+        assertThatThrownBy(() -> statsService.addEndpointHits(stream(hit("/events/1"), hit("/events/2"), hit("/events/3"), "{\"app\"")))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("после 3 принятых");
+        assertThat(batches).containsExactly(List.of("/events/1", "/events/2"), List.of("/events/3"));
+    }
+
+    @Test
+    void listVariantAppliesSameRules() {
+        EndpointHitsResultDto result = statsService.addEndpointHits(List.of(
+                EndpointHitDto.builder().app("ewm").uri("/events/1").ip("10.0.0.1").build(),
+                EndpointHitDto.builder().app("ewm").uri("/events/2").build()));
+
+        assertThat(result.getAccepted()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(batches).containsExactly(List.of("/events/1"));
+    }
+
+    private ByteArrayInputStream stream(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String hit(String uri) {
+        return "{\"app\":\"ewm\",\"uri\":\"" + uri + "\",\"ip\":\"10.0.0.1\"}";
+    }
+}
@@ -0,0 +1,92 @@
+package ru.practicum.server.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.cache.StatsCache;
+import ru.practicum.server.cache.StatsCacheProperties;
+import ru.practicum.server.parallel.ParallelStatsAggregator;
+import ru.practicum.server.uri.UriTrie;
+import ru.practicum.server.window.HotWindow;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StatsServiceImplCacheTest {
+
+    private static final LocalDateTime MINUTE = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Mock
+    private HotWindow hotWindow;
+    @Mock
+    private ParallelStatsAggregator parallelStatsAggregator;
+    @Mock
+    private UriTrie uriTrie;
+    @Spy
+    private StatsCache statsCache = new StatsCache(new StatsCacheProperties(), new SimpleMeterRegistry());
+    @InjectMocks
+    private StatsServiceImpl statsService;
+
+    private final List<LocalDateTime[]> loads = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        when(hotWindow.isEnabled()).thenReturn(true);
+        when(hotWindow.covers(any())).thenReturn(true);
+        when(hotWindow.getStats(any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime start = invocation.getArgument(0);
+            LocalDateTime end = invocation.getArgument(1);
+            loads.add(new LocalDateTime[]{start, end});
+            String uri = start.getSecond() == 0 && start.getNano() == 0 ? "/events/core" : "/events/edge";
+            return List.of(new ViewStatsDto("ewm", "/events/1", 1L), new ViewStatsDto("ewm", uri, 2L));
+        });
+    }
+
+    @Test
+    void unalignedRangeCachesAlignedCoreAndLoadsEdges() {
+        List<ViewStatsDto> stats = statsService.getStats(MINUTE.plusSeconds(30), MINUTE.plusMinutes(3).plusSeconds(20), null, false);
+
+        assertThat(stats).containsExactlyInAnyOrder(new ViewStatsDto("ewm", "/events/1", 3L),
+                new ViewStatsDto("ewm", "/events/core", 2L), new ViewStatsDto("ewm", "/events/edge", 4L));
+        assertThat(stats.get(0).getHits()).isEqualTo(4L);
+        assertThat(loads).extracting(bounds -> bounds[0]).containsExactly(MINUTE.plusMinutes(1), MINUTE.plusSeconds(30),
+                MINUTE.plusMinutes(3).plusNanos(StatsService.END_INCLUSIVE_NANOS));
+        assertThat(loads).extracting(bounds -> bounds[1]).containsExactly(
+                MINUTE.plusMinutes(3).plusNanos(StatsService.END_INCLUSIVE_NANOS), MINUTE.plusMinutes(1),
+                MINUTE.plusMinutes(3).plusSeconds(20).plusNanos(StatsService.END_INCLUSIVE_NANOS));
+    }
+
+    @Test
+    void requestsSharingAlignedCoreReuseIt() {
+        statsService.getStats(MINUTE.plusSeconds(30), MINUTE.plusMinutes(3).plusSeconds(20), null, false);
+        loads.clear();
+
+        statsService.getStats(MINUTE.plusSeconds(45), MINUTE.plusMinutes(3).plusSeconds(50), null, false);
+
+        assertThat(loads).extracting(bounds -> bounds[0])
+                .containsExactly(MINUTE.plusSeconds(45), MINUTE.plusMinutes(3).plusNanos(StatsService.END_INCLUSIVE_NANOS));
+    }
+
+    @Test
+    void rangeInsideOneBucketIsNotCached() {
+        statsService.getStats(MINUTE.plusSeconds(10), MINUTE.plusSeconds(50), null, false);
+        statsService.getStats(MINUTE.plusSeconds(10), MINUTE.plusSeconds(50), null, false);
+
+        assertThat(loads).hasSize(2);
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.server.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {8, 10, 12, 14})
+    void estimateLargeCardinalityWithinThreeStandardErrors(int precision) {
+        HyperLogLog sketch = sketch(precision, 0, 100_000);
+
+        assertThat((double) sketch.estimate())
+                .isCloseTo(100_000, within(100_000 * 3 * HyperLogLog.relativeError(precision)));
+    }
+
+    @Test
+    void estimateSmallCardinalityUsesLinearCounting() {
+        assertThat(sketch(12, 0, 10).estimate()).isEqualTo(10);
+        assertThat(new HyperLogLog(12).estimate()).isZero();
+    }
+
+    @Test
+    void addDuplicatesDoesNotChangeEstimate() {
+        HyperLogLog sketch = sketch(12, 0, 1_000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(HyperLogLog.hash("10.0.0." + i));
+        }
+
+        assertThat(sketch.estimate()).isEqualTo(estimate);
+    }
+
+    @Test
+    void unionOfDisjointSketchesEstimatesCombinedCardinality() {
+        HyperLogLog union = sketch(12, 0, 20_000).union(sketch(12, 20_000, 40_000));
+
+        assertThat((double) union.estimate()).isCloseTo(40_000, within(40_000 * 3 * HyperLogLog.relativeError(12)));
+    }
+
+    @Test
+    void unionWithIdenticalSketchKeepsRegisters() {
+        HyperLogLog sketch = sketch(10, 0, 5_000);
+        byte[] registers = sketch.toBytes();
+
+        sketch.union(sketch(10, 0, 5_000));
+
+        assertThat(sketch.toBytes()).isEqualTo(registers);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 5, 8, 11, 13})
+    void reduceMatchesSketchBuiltAtLowerPrecision(int precision) {
+        assertThat(sketch(14, 0, 30_000).reduce(precision).toBytes())
+                .isEqualTo(sketch(precision, 0, 30_000).toBytes());
+    }
+
+    @Test
+    void reduceToSameOrHigherPrecisionReturnsSameSketch() {
+        HyperLogLog sketch = sketch(10, 0, 100);
+
+        assertThat(sketch.reduce(10)).isSameAs(sketch);
+        assertThat(sketch.reduce(12)).isSameAs(sketch);
+    }
+
+    @Test
+    void unionOfDifferentPrecisionsUsesLowerPrecision() {
+        HyperLogLog high = sketch(14, 0, 10_000);
+        HyperLogLog low = sketch(10, 10_000, 20_000);
+
+        HyperLogLog union = high.union(low);
+
+        assertThat(union.getPrecision()).isEqualTo(10);
+        assertThat(union.toBytes()).isEqualTo(sketch(10, 0, 20_000).toBytes());
+    }
+
+    @Test
+    void fromBytesRestoresRegisters() {
+        HyperLogLog sketch = sketch(11, 0, 3_000);
+
+        HyperLogLog restored = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(restored.getPrecision()).isEqualTo(11);
+        assertThat(restored.estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void fromBytesRejectsInvalidLength() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[100])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[8])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructorRejectsPrecisionOutOfRange() {
+        assertThatThrownBy(() -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HyperLogLog sketch(int precision, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            sketch.add(HyperLogLog.hash("10.0.0." + i));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.server.top;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.model.AppUri;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    private static final AppUri A = new AppUri("ewm", "/a");
+    private static final AppUri B = new AppUri("ewm", "/b");
+    private static final AppUri C = new AppUri("ewm", "/c");
+    private static final AppUri D = new AppUri("ewm", "/d");
+
+    @Test
+    void offerWithinCapacityCountsExactly() {
+        SpaceSaving summary = new SpaceSaving(3);
+        summary.offer(A, 5);
+        summary.offer(B, 2);
+        summary.offer(A, 1);
+
+        assertThat(counts(summary.top(10))).containsExactly(Map.entry(A, 6L), Map.entry(B, 2L));
+        assertThat(summary.getFloor()).isZero();
+        assertThat(summary.getTotal()).isEqualTo(8);
+    }
+
+    @Test
+    void offerOverCapacityReplacesMinimumAndTracksError() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.offer(A, 5);
+        summary.offer(B, 2);
+        summary.offer(C, 1);
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+
+        assertThat(counts(top)).containsExactly(Map.entry(A, 5L), Map.entry(C, 3L));
+        assertThat(top.get(1).getError()).isEqualTo(2);
+        assertThat(summary.getFloor()).isEqualTo(3);
+    }
+
+    @Test
+    void mergeAddsCountsOfSharedItems() {
+        SpaceSaving left = SpaceSaving.fromCounts(10, Map.of(A, 4L, B, 1L));
+        SpaceSaving right = SpaceSaving.fromCounts(10, Map.of(A, 3L, C, 2L));
+
+        SpaceSaving merged = left.merge(right);
+
+        assertThat(counts(merged.top(10))).containsExactly(Map.entry(A, 7L), Map.entry(C, 2L), Map.entry(B, 1L));
+        assertThat(merged.getTotal()).isEqualTo(10);
+    }
+
+    @Test
+    void mergeChargesFloorOfSummaryMissingTheItem() {
+        SpaceSaving left = SpaceSaving.fromCounts(2, Map.of(A, 10L, B, 6L, C, 4L));
+        SpaceSaving right = SpaceSaving.fromCounts(2, Map.of(A, 1L, D, 9L));
+
+        SpaceSaving merged = left.merge(right);
+        Map<AppUri, SpaceSaving.Entry> entries = merged.top(10).stream()
+                .collect(Collectors.toMap(SpaceSaving.Entry::getItem, entry -> entry));
+
+        assertThat(left.getFloor()).isEqualTo(6);
+        assertThat(entries.get(A).getCount()).isEqualTo(11);
+        assertThat(entries.get(D).getCount()).isEqualTo(15);
+        assertThat(entries.get(D).getError()).isEqualTo(6);
+        assertThat(merged.getFloor()).isGreaterThanOrEqualTo(left.getFloor() + right.getFloor());
+    }
+
+    @Test
+    void mergerMatchesPairwiseMergesWithinCapacity() {
+        SpaceSaving first = SpaceSaving.fromCounts(10, Map.of(A, 4L, B, 1L));
+        SpaceSaving second = SpaceSaving.fromCounts(10, Map.of(B, 3L, C, 2L));
+        SpaceSaving third = SpaceSaving.fromCounts(10, Map.of(A, 1L, D, 7L));
+
+        SpaceSaving pairwise = first.merge(second).merge(third);
+        SpaceSaving merged = new SpaceSaving.Merger(10).add(first).add(second).add(third).build();
+
+        assertThat(counts(merged.top(10))).isEqualTo(counts(pairwise.top(10)));
+        assertThat(merged.getTotal()).isEqualTo(pairwise.getTotal());
+    }
+
+    @Test
+    void mergedCountsNeverUnderestimate() {
+        Map<AppUri, Long> exact = new HashMap<>();
+        SpaceSaving.Merger merger = new SpaceSaving.Merger(5);
+        for (int bucket = 0; bucket < 20; bucket++) {
+            SpaceSaving summary = new SpaceSaving(5);
+            for (int i = 0; i < 50; i++) {
+                AppUri item = new AppUri("ewm", "/" + ((bucket * 7 + i * i) % 12));
+                summary.offer(item, 1);
+                exact.merge(item, 1L, Long::sum);
+            }
+            merger.add(summary);
+        }
+
+        for (SpaceSaving.Entry entry : merger.build().top(5)) {
+            long actual = exact.get(entry.getItem());
+            assertThat(entry.getCount()).isGreaterThanOrEqualTo(actual);
+            assertThat(entry.getCount() - entry.getError()).isLessThanOrEqualTo(actual);
+        }
+    }
+
+    @Test
+    void bytesRoundTripKeepsCountersFloorAndTotal() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.offer(new AppUri("ewm", "/события"), 5);
+        summary.offer(B, 2);
+        summary.offer(C, 1);
+
+        SpaceSaving restored = SpaceSaving.fromBytes(summary.toBytes());
+
+        assertThat(restored.top(10)).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(summary.top(10));
+        assertThat(restored.getFloor()).isEqualTo(summary.getFloor());
+        assertThat(restored.getTotal()).isEqualTo(summary.getTotal());
+        assertThat(restored.toBytes()).isEqualTo(summary.toBytes());
+    }
+
+    private static List<Map.Entry<AppUri, Long>> counts(List<SpaceSaving.Entry> entries) {
+        return entries.stream()
+                .map(entry -> Map.entry(entry.getItem(), entry.getCount()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,83 @@
+package ru.practicum.server.top;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.repository.HitTopRepository;
+import ru.practicum.server.rollup.RollupGranularity;
+import ru.practicum.server.rollup.RollupProperties;
+import ru.practicum.server.rollup.RollupSegment;
+import ru.practicum.server.sketch.SketchService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopServiceTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 22, 0);
+
+    private final HitTopRepository hitTopRepository = mock(HitTopRepository.class);
+    private final HitRollupRepository hitRollupRepository = mock(HitRollupRepository.class);
+    private TopService topService;
+
+    @BeforeEach
+    void setUp() {
+        topService = new TopService(hitTopRepository, hitRollupRepository, mock(SketchService.class), new RollupProperties(),
+                new TopProperties(), mock(PlatformTransactionManager.class), mock(TaskScheduler.class));
+        when(hitTopRepository.isEmpty(RollupGranularity.HOUR)).thenReturn(false);
+        when(hitRollupRepository.getStats(anyList(), any()))
+                .thenReturn(List.of(new ViewStatsDto("ewm", "/events/1", 4L), new ViewStatsDto("ewm", "/events/2", 1L)));
+    }
+
+    @Test
+    void initKeepsSummariesThatMatchRollups() {
+        when(hitTopRepository.getTotals(eq(RollupGranularity.HOUR), any())).thenReturn(Map.of(HOUR, 5L));
+        when(hitRollupRepository.getBucketTotals(eq(RollupGranularity.HOUR), any())).thenReturn(Map.of(HOUR, 5L));
+
+        topService.init();
+
+        verify(hitTopRepository, never()).replace(any(), any());
+    }
+
+    @Test
+    void initRebuildsHoursAndDaysWithLostSummaries() {
+        when(hitTopRepository.getTotals(eq(RollupGranularity.HOUR), any()))
+                .thenReturn(Map.of(HOUR, 5L, HOUR.plusHours(1), 2L));
+        when(hitRollupRepository.getBucketTotals(eq(RollupGranularity.HOUR), any()))
+                .thenReturn(Map.of(HOUR, 5L, HOUR.plusHours(1), 5L, HOUR.plusHours(2), 5L));
+
+        topService.init();
+
+        Map<LocalDateTime, SpaceSaving> hours = replaced(RollupGranularity.HOUR);
+        assertThat(hours).containsOnlyKeys(HOUR.plusHours(1), HOUR.plusHours(2));
+        assertThat(hours.get(HOUR.plusHours(1)).getTotal()).isEqualTo(5);
+        assertThat(hours.get(HOUR.plusHours(1)).top(1).get(0).getItem().getUri()).isEqualTo("/events/1");
+        assertThat(replaced(RollupGranularity.DAY)).containsOnlyKeys(HOUR.toLocalDate().atStartOfDay(),
+                HOUR.toLocalDate().plusDays(1).atStartOfDay());
+        ArgumentCaptor<List<RollupSegment>> segments = ArgumentCaptor.forClass(List.class);
+        verify(hitRollupRepository, times(4)).getStats(segments.capture(), any());
+        assertThat(segments.getAllValues()).extracting(list -> list.get(0).getGranularity())
+                .containsExactly(RollupGranularity.HOUR, RollupGranularity.HOUR, RollupGranularity.DAY, RollupGranularity.DAY);
+    }
+
+    private Map<LocalDateTime, SpaceSaving> replaced(RollupGranularity granularity) {
+        ArgumentCaptor<Map<LocalDateTime, SpaceSaving>> summaries = ArgumentCaptor.forClass(Map.class);
+        verify(hitTopRepository).replace(eq(granularity), summaries.capture());
+        return summaries.getValue();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.server.unique;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.mapper.IpMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IpSetTest {
+
+    @Test
+    void addDeduplicatesIpv4() {
+        IpSet ipSet = new IpSet();
+
+        assertThat(ipSet.add(IpMapper.toBytes("10.0.0.1"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("10.0.0.2"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("10.0.0.1"))).isFalse();
+
+        assertThat(ipSet.size()).isEqualTo(2);
+    }
+
+    @Test
+    void addKeepsZeroAndHighBitIpv4Addresses() {
+        IpSet ipSet = new IpSet();
+
+        assertThat(ipSet.add(IpMapper.toBytes("0.0.0.0"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("255.255.255.255"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("0.0.0.0"))).isFalse();
+        assertThat(ipSet.add(IpMapper.toBytes("255.255.255.255"))).isFalse();
+
+        assertThat(ipSet.size()).isEqualTo(2);
+    }
+
+    @Test
+    void addDeduplicatesIpv6RegardlessOfNotation() {
+        IpSet ipSet = new IpSet();
+
+        assertThat(ipSet.add(IpMapper.toBytes("2001:db8::1"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("2001:0db8:0:0:0:0:0:1"))).isFalse();
+        assertThat(ipSet.add(IpMapper.toBytes("2001:db8::2"))).isTrue();
+
+        assertThat(ipSet.size()).isEqualTo(2);
+    }
+
+    @Test
+    void addDeduplicatesTextAddresses() {
+        IpSet ipSet = new IpSet();
+
+        assertThat(ipSet.add(IpMapper.toBytes("unknown"))).isTrue();
+        assertThat(ipSet.add(IpMapper.toBytes("unknown"))).isFalse();
+        assertThat(ipSet.add(IpMapper.toBytes("256.0.0.1"))).isTrue();
+
+        assertThat(ipSet.size()).isEqualTo(2);
+    }
+
+    @Test
+    void sizeCountsAllAddressKinds() {
+        IpSet ipSet = new IpSet();
+        ipSet.add(IpMapper.toBytes("10.0.0.1"));
+        ipSet.add(IpMapper.toBytes("::1"));
+        ipSet.add(IpMapper.toBytes("unknown"));
+
+        assertThat(ipSet.size()).isEqualTo(3);
+    }
+
+    @Test
+    void addKeepsAllDistinctAddressesWhileGrowing() {
+        IpSet ipSet = new IpSet();
+
+        for (int i = 0; i < 100_000; i++) {
+            ipSet.add(IpMapper.toBytes("10." + (i >> 16) + "." + (i >> 8 & 0xff) + "." + (i & 0xff)));
+            ipSet.add(IpMapper.toBytes("2001:db8::" + Integer.toHexString(i)));
+        }
+        for (int i = 0; i < 100_000; i += 7) {
+            assertThat(ipSet.add(IpMapper.toBytes("10." + (i >> 16) + "." + (i >> 8 & 0xff) + "." + (i & 0xff))))
+                    .isFalse();
+        }
+
+        assertThat(ipSet.size()).isEqualTo(200_000);
+    }
+}
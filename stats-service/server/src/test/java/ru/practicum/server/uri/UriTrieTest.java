@@ -0,0 +1,153 @@
+package ru.practicum.server.uri;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.server.dictionary.Dictionary;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.DictionaryRepository;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.rollup.RollupProperties;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UriTrieTest {
+
+    private final DictionaryRepository dictionaryRepository = mock(DictionaryRepository.class);
+    private final HitRollupRepository hitRollupRepository = mock(HitRollupRepository.class);
+    private final UriTrieProperties properties = new UriTrieProperties();
+    private UriTrie uriTrie;
+
+    @BeforeEach
+    void setUp() {
+        when(dictionaryRepository.findAll(Dictionary.URIS)).thenReturn(Map.of());
+        uriTrie = new UriTrie(dictionaryRepository, hitRollupRepository, new RollupProperties(), properties);
+    }
+
+    @Test
+    void rebuildLoadsDictionaryUrisAndTotals() {
+        when(dictionaryRepository.findAll(Dictionary.URIS)).thenReturn(Map.of("/events/1", 1, "/events/2", 2));
+        doAnswer(invocation -> {
+            BiConsumer<String, Long> consumer = invocation.getArgument(1);
+            consumer.accept("/events/1", 5L);
+            consumer.accept("/users/1", 2L);
+            return null;
+        }).when(hitRollupRepository).forEachUriTotal(anyBoolean(), any());
+
+        uriTrie.rebuild();
+
+        assertThat(uriTrie.expand(List.of("/**"))).containsExactlyInAnyOrder("/events/1", "/events/2", "/users/1");
+        assertThat(uriTrie.getPrefixHits("/events")).isEqualTo(5);
+        assertThat(uriTrie.getPrefixHits("/")).isEqualTo(7);
+    }
+
+    @Test
+    void addIsIgnoredBeforeRebuild() {
+        uriTrie.add(hits("/events/1"));
+
+        assertThat(uriTrie.expand(List.of("/**"))).isEmpty();
+    }
+
+    @Test
+    void rebuildIsSkippedWhenDisabled() {
+        properties.setEnabled(false);
+
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1"));
+
+        assertThat(uriTrie.isEnabled()).isFalse();
+        assertThat(uriTrie.expand(List.of("/**"))).isEmpty();
+    }
+
+    @Test
+    void expandKeepsPlainUrisAsIs() {
+        uriTrie.rebuild();
+
+        assertThat(uriTrie.expand(List.of("/unknown", "/events/1"))).containsExactly("/unknown", "/events/1");
+    }
+
+    @Test
+    void singleWildcardMatchesWithinOneSegment() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1", "/events/22", "/events/1/comments", "/eventsx"));
+
+        assertThat(uriTrie.expand(List.of("/events/*"))).containsExactlyInAnyOrder("/events/1", "/events/22");
+        assertThat(uriTrie.expand(List.of("/events/*/comments"))).containsExactly("/events/1/comments");
+        assertThat(uriTrie.expand(List.of("/events*"))).containsExactly("/eventsx");
+        assertThat(uriTrie.expand(List.of("/events/2*"))).containsExactly("/events/22");
+    }
+
+    @Test
+    void doubleWildcardMatchesAnyDepth() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1", "/events/1/comments", "/users/1/comments", "/compilations"));
+
+        assertThat(uriTrie.expand(List.of("/events/**")))
+                .containsExactlyInAnyOrder("/events/1", "/events/1/comments");
+        assertThat(uriTrie.expand(List.of("/**/comments")))
+                .containsExactlyInAnyOrder("/events/1/comments", "/users/1/comments");
+        assertThat(uriTrie.expand(List.of("/**s"))).containsExactlyInAnyOrder(
+                "/events/1/comments", "/users/1/comments", "/compilations");
+    }
+
+    @Test
+    void expandDeduplicatesOverlappingPatterns() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1", "/events/2"));
+
+        assertThat(uriTrie.expand(List.of("/events/1", "/events/*", "/**")))
+                .containsExactly("/events/1", "/events/2");
+    }
+
+    @Test
+    void expandReturnsNothingForUnmatchedPattern() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1"));
+
+        assertThat(uriTrie.expand(List.of("/users/*"))).isEmpty();
+        assertThat(uriTrie.expand(List.of("/events/1/*x"))).isEmpty();
+    }
+
+    @Test
+    void insertSplitsNodesWithoutLosingUrisOrHits() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/123", "/events/123"));
+        uriTrie.add(hits("/events/1"));
+        uriTrie.add(hits("/events/12", "/events/12", "/events/12"));
+        uriTrie.add(hits("/events/124"));
+
+        assertThat(uriTrie.expand(List.of("/events/*")))
+                .containsExactlyInAnyOrder("/events/1", "/events/12", "/events/123", "/events/124");
+        assertThat(uriTrie.getPrefixHits("/events/1")).isEqualTo(7);
+        assertThat(uriTrie.getPrefixHits("/events/12")).isEqualTo(6);
+        assertThat(uriTrie.getPrefixHits("/events/123")).isEqualTo(2);
+        assertThat(uriTrie.getPrefixHits("/events/13")).isZero();
+    }
+
+    @Test
+    void getPrefixHitsCountsHitsMidLabel() {
+        uriTrie.rebuild();
+        uriTrie.add(hits("/events/1", "/events/2", "/users/1"));
+
+        assertThat(uriTrie.getPrefixHits("/ev")).isEqualTo(2);
+        assertThat(uriTrie.getPrefixHits("")).isEqualTo(3);
+        assertThat(uriTrie.getPrefixHits("/events/10")).isZero();
+        assertThat(uriTrie.getPrefixHits("/x")).isZero();
+    }
+
+    private List<EndpointHit> hits(String... uris) {
+        return Stream.of(uris)
+                .map(uri -> EndpointHit.builder().app("ewm").uri(uri).ip("10.0.0.1").build())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,222 @@
+package ru.practicum.server.wal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.server.exception.ValidationException;
+import ru.practicum.server.ingestion.IngestionMode;
+import ru.practicum.server.ingestion.IngestionProperties;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.WalCheckpointRepository;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class WalLogTest {
+
+    private static final int RECORD_SIZE = 46;
+
+    @TempDir
+    Path directory;
+
+    private final WalCheckpointRepository walCheckpointRepository = mock(WalCheckpointRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        when(walCheckpointRepository.find()).thenReturn(new WalPosition(0, 0));
+    }
+
+    @Test
+    void appendRollsIntoNewSegmentWhenFull() throws IOException {
+        WalLog walLog = open();
+
+        walLog.appendAll(hits(5));
+
+        assertThat(segmentFiles()).containsExactly(
+                "00000000000000000001.wal", "00000000000000000002.wal", "00000000000000000003.wal");
+    }
+
+    @Test
+    void readReturnsRecordsInOrderAcrossSegments() throws IOException {
+        WalLog walLog = open();
+        List<EndpointHit> written = hits(5);
+        walLog.appendAll(written);
+
+        List<EndpointHit> out = new ArrayList<>();
+        WalPosition position = walLog.read(new WalPosition(1, 0), 100, out);
+
+        assertThat(out).isEqualTo(written);
+        assertThat(position).isEqualTo(new WalPosition(3, RECORD_SIZE));
+    }
+
+    @Test
+    void readResumesFromReturnedPosition() throws IOException {
+        WalLog walLog = open();
+        walLog.appendAll(hits(5));
+
+        List<EndpointHit> out = new ArrayList<>();
+        WalPosition position = walLog.read(new WalPosition(1, 0), 3, out);
+        assertThat(uris(out)).containsExactly("/events/1", "/events/2", "/events/3");
+
+        out.clear();
+        position = walLog.read(position, 100, out);
+        assertThat(uris(out)).containsExactly("/events/4", "/events/5");
+
+        out.clear();
+        assertThat(walLog.read(position, 100, out)).isEqualTo(position);
+        assertThat(out).isEmpty();
+    }
+
+    @Test
+    void trimDeletesSegmentsBeforeAppliedPosition() throws IOException {
+        WalLog walLog = open();
+        walLog.appendAll(hits(5));
+
+        walLog.trim(new WalPosition(3, 0));
+
+        assertThat(segmentFiles()).containsExactly("00000000000000000003.wal");
+        List<EndpointHit> out = new ArrayList<>();
+        walLog.read(new WalPosition(1, 0), 100, out);
+        assertThat(uris(out)).containsExactly("/events/5");
+    }
+
+    @Test
+    void reopenRecoversUnappliedRecordsAndStartsNewSegment() throws IOException {
+        List<EndpointHit> written = hits(3);
+        open().appendAll(written);
+
+        WalLog reopened = open();
+        reopened.append(hit(4));
+
+        List<EndpointHit> out = new ArrayList<>();
+        reopened.read(new WalPosition(1, 0), 100, out);
+        assertThat(out.subList(0, 3)).isEqualTo(written);
+        assertThat(uris(out)).containsExactly("/events/1", "/events/2", "/events/3", "/events/4");
+        assertThat(segmentFiles()).contains("00000000000000000003.wal");
+    }
+
+    @Test
+    void readSkipsPartialTailOfRecoveredSegment() throws IOException {
+        open().appendAll(hits(4));
+        try (RandomAccessFile file = new RandomAccessFile(segment(1).toFile(), "rw")) {
+            file.setLength(RECORD_SIZE + 20);
+        }
+
+        List<EndpointHit> out = new ArrayList<>();
+        open().read(new WalPosition(1, 0), 100, out);
+
+        assertThat(uris(out)).containsExactly("/events/1", "/events/3", "/events/4");
+    }
+
+    @Test
+    void readSkipsCorruptTailOfRecoveredSegment() throws IOException {
+        open().appendAll(hits(4));
+        try (RandomAccessFile file = new RandomAccessFile(segment(1).toFile(), "rw")) {
+            file.seek(RECORD_SIZE + 20);
+            file.write('X');
+        }
+
+        List<EndpointHit> out = new ArrayList<>();
+        open().read(new WalPosition(1, 0), 100, out);
+
+        assertThat(uris(out)).containsExactly("/events/1", "/events/3", "/events/4");
+    }
+
+    @Test
+    void checkpointBeyondLostSegmentsNumbersNewSegmentsAfterIt() throws IOException {
+        when(walCheckpointRepository.find()).thenReturn(new WalPosition(7, RECORD_SIZE));
+        WalLog walLog = open();
+
+        walLog.appendAll(hits(3));
+
+        assertThat(segmentFiles()).containsExactly("00000000000000000008.wal", "00000000000000000009.wal");
+        List<EndpointHit> out = new ArrayList<>();
+        WalPosition position = walLog.read(walCheckpointRepository.find(), 100, out);
+        assertThat(uris(out)).containsExactly("/events/1", "/events/2", "/events/3");
+        assertThat(position).isEqualTo(new WalPosition(9, RECORD_SIZE));
+    }
+
+    @Test
+    void checkpointInsideExistingSegmentsKeepsNumbering() throws IOException {
+        open().appendAll(hits(3));
+        when(walCheckpointRepository.find()).thenReturn(new WalPosition(2, 0));
+
+        open().append(hit(4));
+
+        assertThat(segmentFiles()).containsExactly(
+                "00000000000000000001.wal", "00000000000000000002.wal", "00000000000000000003.wal");
+    }
+
+    @Test
+    void appendRejectsInvalidHits() throws IOException {
+        WalLog walLog = open();
+        EndpointHit withoutIp = hit(1);
+        withoutIp.setIp(null);
+        EndpointHit longUri = hit(1);
+        longUri.setUri("/" + "a".repeat(125));
+
+        assertThatThrownBy(() -> walLog.append(withoutIp)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> walLog.append(longUri)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void appendRejectsRecordLargerThanSegment() throws IOException {
+        WalLog walLog = open();
+        EndpointHit large = hit(1);
+        large.setUri("/" + "a".repeat(100));
+
+        assertThatThrownBy(() -> walLog.append(large)).isInstanceOf(ValidationException.class);
+    }
+
+    private WalLog open() throws IOException {
+        WalProperties properties = new WalProperties();
+        properties.setDirectory(directory.toString());
+        properties.setSegmentSize(DataSize.ofBytes(100));
+        IngestionProperties ingestionProperties = new IngestionProperties();
+        ingestionProperties.setMode(IngestionMode.WAL);
+        WalLog walLog = new WalLog(properties, ingestionProperties, walCheckpointRepository);
+        walLog.open();
+        return walLog;
+    }
+
+    private Path segment(long segment) {
+        return directory.resolve(String.format("%020d.wal", segment));
+    }
+
+    private List<String> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private List<EndpointHit> hits(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(this::hit).collect(Collectors.toList());
+    }
+
+    private EndpointHit hit(int number) {
+        return EndpointHit.builder()
+                .app("ewm")
+                .uri("/events/" + number)
+                .ip("10.0.0.1")
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0, number, 123_456_789))
+                .build();
+    }
+
+    private List<String> uris(List<EndpointHit> hits) {
+        return hits.stream().map(EndpointHit::getUri).collect(Collectors.toList());
+    }
+}
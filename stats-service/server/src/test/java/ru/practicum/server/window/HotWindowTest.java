@@ -0,0 +1,96 @@
+package ru.practicum.server.window;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import ru.practicum.dto.ViewStatsDto;
+import ru.practicum.server.model.EndpointHit;
+import ru.practicum.server.repository.HitRollupRepository;
+import ru.practicum.server.rollup.RollupSegment;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HotWindowTest {
+
+    private final HitRollupRepository hitRollupRepository = mock(HitRollupRepository.class);
+    private HotWindow hotWindow;
+
+    @BeforeEach
+    void setUp() {
+        hotWindow = new HotWindow(hitRollupRepository, new HotWindowProperties());
+        hotWindow.rebuild();
+    }
+
+    @Test
+    void partialCurrentMinuteIsAnsweredFromSeconds() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        hotWindow.add(List.of(hit("/events/1", minute), hit("/events/1", minute.plusSeconds(1)), hit("/events/2", minute)));
+
+        List<ViewStatsDto> stats = hotWindow.getStats(minute.plusSeconds(1), minute.plusMinutes(1), null);
+
+        assertThat(stats).containsExactly(new ViewStatsDto("ewm", "/events/1", 1L));
+        verify(hitRollupRepository, never()).getStats(anyList(), any());
+    }
+
+    @Test
+    void partialOlderMinuteIsAnsweredFromRawHits() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+        hotWindow.add(List.of(hit("/events/1", minute.plusSeconds(10)), hit("/events/1", minute.plusSeconds(40)),
+                hit("/events/1", minute.plusMinutes(1))));
+        when(hitRollupRepository.getStats(anyList(), any())).thenReturn(List.of(new ViewStatsDto("ewm", "/events/1", 1L)));
+
+        List<ViewStatsDto> stats = hotWindow.getStats(minute.plusSeconds(30), minute.plusMinutes(2), List.of("/events/1"));
+
+        assertThat(stats).containsExactly(new ViewStatsDto("ewm", "/events/1", 2L));
+        ArgumentCaptor<List<RollupSegment>> segments = ArgumentCaptor.forClass(List.class);
+        verify(hitRollupRepository).getStats(segments.capture(), any());
+        assertThat(segments.getValue()).singleElement().satisfies(segment -> {
+            assertThat(segment.isRaw()).isTrue();
+            assertThat(segment.getStart()).isEqualTo(minute.plusSeconds(30));
+            assertThat(segment.getEnd()).isEqualTo(minute.plusMinutes(1));
+        });
+    }
+
+    @Test
+    void rangeInsideOneOlderMinuteIsOneRawSegment() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+        hotWindow.add(List.of(hit("/events/1", minute.plusSeconds(20))));
+        when(hitRollupRepository.getStats(anyList(), any())).thenReturn(List.of(new ViewStatsDto("ewm", "/events/1", 1L)));
+
+        List<ViewStatsDto> stats = hotWindow.getStats(minute.plusSeconds(10), minute.plusSeconds(30), null);
+
+        assertThat(stats).containsExactly(new ViewStatsDto("ewm", "/events/1", 1L));
+        ArgumentCaptor<List<RollupSegment>> segments = ArgumentCaptor.forClass(List.class);
+        verify(hitRollupRepository).getStats(segments.capture(), any());
+        assertThat(segments.getValue()).singleElement().satisfies(segment -> {
+            assertThat(segment.getStart()).isEqualTo(minute.plusSeconds(10));
+            assertThat(segment.getEnd()).isEqualTo(minute.plusSeconds(30));
+        });
+    }
+
+    @Test
+    void alignedRangeUsesMinuteCountersOnly() {
+        LocalDateTime minute = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(10);
+        hotWindow.add(List.of(hit("/events/1", minute), hit("/events/2", minute.plusSeconds(59)),
+                hit("/events/2", minute.plusMinutes(1)), hit("/events/2", minute.plusMinutes(2))));
+
+        List<ViewStatsDto> stats = hotWindow.getStats(minute, minute.plusMinutes(2), null);
+
+        assertThat(stats).containsExactly(new ViewStatsDto("ewm", "/events/2", 2L), new ViewStatsDto("ewm", "/events/1", 1L));
+        verify(hitRollupRepository, never()).getStats(anyList(), any());
+    }
+
+    private EndpointHit hit(String uri, LocalDateTime timestamp) {
+        return EndpointHit.builder().app("ewm").uri(uri).ip("10.0.0.1").timestamp(timestamp).build();
+    }
+}